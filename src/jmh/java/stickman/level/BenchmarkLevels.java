@@ -0,0 +1,34 @@
+package stickman.level;
+
+/**
+ * Builds synthetic levels of a given size for the benchmarks.
+ */
+final class BenchmarkLevels {
+
+    /**
+     * The height of the floor in the generated levels.
+     */
+    static final double FLOOR_HEIGHT = 400;
+
+    /**
+     * The closest an enemy starts to the left edge, so that it takes a long time to reach the hero.
+     */
+    private static final double ENEMY_MIN_X = 1000;
+
+    private BenchmarkLevels() {
+    }
+
+    /**
+     * Builds a level with roughly the given number of entities, using the LevelGenerator's default
+     * mix and a width proportional to the count. The hero starts on the left, well clear of any enemy.
+     * @param entityCount The number of entities wanted
+     * @param seed The seed of the random layout
+     * @return The generated level
+     */
+    static LevelManager create(int entityCount, long seed) {
+        return (LevelManager) LevelGenerator.ofSize(entityCount, seed)
+                .setHeight(600, FLOOR_HEIGHT)
+                .setEnemyMinX(ENEMY_MIN_X)
+                .generate("benchmark", null);
+    }
+}
@@ -0,0 +1,134 @@
+package stickman.level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import stickman.entity.Entity;
+import stickman.entity.moving.MovingEntity;
+import stickman.entity.moving.enemy.Slime;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the simulation core of a level: a whole tick, the raycasts, the collision
+ * handling and the clean up of inactive entities. The smallest sizes match the shipped level
+ * files, the largest are far beyond them.
+ * Run with {@code gradle jmh}; results are written as JSON with the gc profiler's allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelManagerBenchmark {
+
+    /**
+     * The number of bullets in flight when measuring starts.
+     */
+    private static final int BULLETS = 200;
+
+    /**
+     * The number of ticks between two shots, enough for consecutive bullets not to overlap.
+     */
+    private static final int TICKS_BETWEEN_SHOTS = 6;
+
+    /**
+     * The number of entities in the level.
+     */
+    @Param({"25", "80", "1000", "10000", "100000", "1000000"})
+    public int entityCount;
+
+    /**
+     * The level being measured.
+     */
+    private LevelManager level;
+
+    /**
+     * The entities of the level.
+     */
+    private List<Entity> entities;
+
+    /**
+     * A slime casting the rays.
+     */
+    private MovingEntity caster;
+
+    /**
+     * Builds the level and fills the screen with bullets. The level keeps evolving while the
+     * tick benchmark runs, like it would during a game.
+     */
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() {
+        this.level = BenchmarkLevels.create(this.entityCount, 42);
+        this.level.getStickman().upgrade();
+        for (int i = 0; i < BULLETS; i++) {
+            this.level.shoot();
+            for (int j = 0; j < TICKS_BETWEEN_SHOTS; j++) {
+                this.level.tick();
+            }
+        }
+        this.entities = this.level.getEntities();
+        this.caster = this.level.getStickman();
+        for (Entity entity : this.entities) {
+            if (entity instanceof Slime) {
+                this.caster = (MovingEntity) entity;
+                break;
+            }
+        }
+    }
+
+    /**
+     * A whole tick of the level.
+     */
+    @Benchmark
+    public void tick() {
+        this.level.tick();
+    }
+
+    /**
+     * A left and a right raycast from a slime.
+     * @param blackhole Consumes the distances
+     */
+    @Benchmark
+    public void horizontalRaycast(Blackhole blackhole) {
+        blackhole.consume(this.caster.horizontalRaycast(true, this.entities, 0));
+        blackhole.consume(this.caster.horizontalRaycast(false, this.entities, Double.MAX_VALUE));
+    }
+
+    /**
+     * An upwards and a downwards raycast from a slime.
+     * @param blackhole Consumes the distances
+     */
+    @Benchmark
+    public void verticalRaycast(Blackhole blackhole) {
+        blackhole.consume(this.caster.verticalRaycast(true, this.entities, 0));
+        blackhole.consume(this.caster.verticalRaycast(false, this.entities, BenchmarkLevels.FLOOR_HEIGHT));
+    }
+
+    /**
+     * The hero and bullet collisions of a tick.
+     */
+    @Benchmark
+    public void manageCollisions() {
+        this.level.manageCollisions();
+    }
+
+    /**
+     * The clean up of inactive entities at the end of a tick.
+     */
+    @Benchmark
+    public void clearOutInactive() {
+        this.level.clearOutInactive();
+    }
+}
@@ -0,0 +1,627 @@
+package gamesaver;
+
+import stickman.model.GameEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead journal of the game, so that it can be recovered after a crash. The game appends the state
+ * of the game every now and then, and the inputs given in between, each stamped with the tick it arrived
+ * at. Recovering restores the latest state and replays the inputs after it.
+ * <p>
+ * Appending only queues the record: a background thread encodes it, writes whatever is queued in one batch
+ * every so often, and forces the file to the disk at the fsync interval. Whatever was written before the
+ * last fsync survives the machine going down, and whatever was written at all survives the game crashing.
+ * <p>
+ * The file starts with a header (magic number and format version), followed by records of the form
+ * length, type, payload and CRC32 of the type and payload. Every payload starts with a tick. A record cut
+ * short by a crash fails its check, and it and everything after it are ignored. Once the file grows past
+ * a limit, the next state starts a new file, which replaces the old one only once it is on the disk.
+ */
+public class AutosaveJournal implements Closeable {
+
+    /**
+     * The first four bytes of every journal, "STKJ".
+     */
+    private static final int MAGIC = 0x53544B4A;
+
+    /**
+     * The version of the layout of the file.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of the length and type of a record, in bytes.
+     */
+    private static final int RECORD_HEADER_SIZE = 5;
+
+    /**
+     * The size of the CRC32 ending a record, in bytes.
+     */
+    private static final int RECORD_FOOTER_SIZE = 4;
+
+    /**
+     * The type of a record holding the state of the game.
+     */
+    private static final byte STATE = 1;
+
+    /**
+     * The type of a record holding an input.
+     */
+    private static final byte INPUT = 2;
+
+    /**
+     * The type of a record holding the number of ticks run, so that ticks without inputs are replayed too.
+     */
+    private static final byte TICK = 3;
+
+    /**
+     * The default time between two fsyncs, in milliseconds.
+     */
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The time between two batches of writes, in milliseconds.
+     */
+    private static final long BATCH_INTERVAL_MILLIS = 50;
+
+    /**
+     * The size past which the next state starts a new file, in bytes.
+     */
+    private static final long COMPACT_BYTES = 1024 * 1024;
+
+    /**
+     * The record asking the writer to stop.
+     */
+    private static final Record STOP = new Record((byte) 0, 0, (byte) 0, null);
+
+    /**
+     * The path of the journal.
+     */
+    private final Path path;
+
+    /**
+     * The path a new file is written to before replacing the journal.
+     */
+    private final Path nextPath;
+
+    /**
+     * The time between two fsyncs in milliseconds. 0 forces every batch to the disk, and a negative
+     * interval leaves it to the operating system.
+     */
+    private final long fsyncIntervalMillis;
+
+    /**
+     * The records waiting to be written.
+     */
+    private final BlockingQueue<Record> pending;
+
+    /**
+     * The thread writing the records.
+     */
+    private final Thread writer;
+
+    /**
+     * The number of ticks the game has run.
+     */
+    private volatile long tick;
+
+    /**
+     * The channel of the journal, null until the first state is written. Only used by the writer.
+     */
+    private FileChannel channel;
+
+    /**
+     * The small records of the current batch. Only used by the writer.
+     */
+    private final ByteBuffer batch;
+
+    /**
+     * The buffer states are encoded into. It grows as needed. Only used by the writer.
+     */
+    private ByteBuffer scratch;
+
+    /**
+     * Computes the checks of the records. Only used by the writer.
+     */
+    private final CRC32 crc;
+
+    /**
+     * The latest tick written. Only used by the writer.
+     */
+    private long writtenTick;
+
+    /**
+     * When the journal was last forced to the disk, in milliseconds. Only used by the writer.
+     */
+    private long lastSync;
+
+    /**
+     * Opens a journal which is forced to the disk every second. The file is left untouched until the
+     * first state is appended, so it can still be recovered from.
+     * @param path The path of the journal
+     */
+    public AutosaveJournal(String path) {
+        this(path, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens a journal. The file is left untouched until the first state is appended, so it can still be
+     * recovered from.
+     * @param path The path of the journal
+     * @param fsyncIntervalMillis The time between two fsyncs in milliseconds. 0 forces every batch to the
+     *                            disk, and a negative interval leaves it to the operating system
+     */
+    public AutosaveJournal(String path, long fsyncIntervalMillis) {
+        this.path = Paths.get(path);
+        this.nextPath = Paths.get(path + ".next");
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.pending = new LinkedBlockingQueue<>();
+        this.batch = ByteBuffer.allocate(64 * 1024);
+        this.scratch = ByteBuffer.allocate(64 * 1024);
+        this.crc = new CRC32();
+        this.writer = new Thread(this::write, "autosave-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Sets the number of ticks the game has run. This is all the journal needs every tick.
+     * @param tick The number of ticks
+     */
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Appends an input. Inputs appended before the first state are dropped.
+     * @param tick The number of ticks run before the input arrived
+     * @param code The input, as the caller numbers them
+     */
+    public void appendInput(long tick, byte code) {
+        this.pending.add(new Record(INPUT, tick, code, null));
+    }
+
+    /**
+     * Appends the state of the game. The memento is encoded later on, so it must not change.
+     * @param tick The number of ticks run before the state was captured
+     * @param memento The state of the game
+     */
+    public void appendState(long tick, GameMemento memento) {
+        this.pending.add(new Record(STATE, tick, (byte) 0, memento));
+    }
+
+    /**
+     * Writes the records appended so far, forces them to the disk and closes the journal.
+     */
+    @Override
+    public void close() {
+        this.pending.add(STOP);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the records in batches until the journal is closed.
+     */
+    private void write() {
+        List<Record> records = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Record first = this.pending.poll(BATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    records.add(first);
+                    this.pending.drainTo(records);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            try {
+                for (int i = 0; i < records.size(); i++) {
+                    Record record = records.get(i);
+                    if (record == STOP) {
+                        stopping = true;
+                    } else if (record.type == STATE) {
+                        writeState(record);
+                    } else if (this.channel != null) {
+                        putInput(record);
+                    }
+                }
+                long tick = this.tick;
+                if (this.channel != null && tick > this.writtenTick) {
+                    putTick(tick);
+                }
+                flushBatch();
+                long now = System.currentTimeMillis();
+                if (this.channel != null && this.fsyncIntervalMillis >= 0
+                        && (stopping || now - this.lastSync >= this.fsyncIntervalMillis)) {
+                    this.channel.force(false);
+                    this.lastSync = now;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            records.clear();
+        }
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Adds an input to the batch.
+     * @param record The input
+     * @throws IOException If the batch cannot be written to make room
+     */
+    private void putInput(Record record) throws IOException {
+        if (this.batch.remaining() < RECORD_HEADER_SIZE + 9 + RECORD_FOOTER_SIZE) {
+            flushBatch();
+        }
+        int start = startRecord(this.batch, INPUT, record.tick);
+        this.batch.put(record.code);
+        endRecord(this.batch, start);
+        this.writtenTick = Math.max(this.writtenTick, record.tick);
+    }
+
+    /**
+     * Adds the number of ticks run to the batch.
+     * @param tick The number of ticks
+     * @throws IOException If the batch cannot be written to make room
+     */
+    private void putTick(long tick) throws IOException {
+        if (this.batch.remaining() < RECORD_HEADER_SIZE + 8 + RECORD_FOOTER_SIZE) {
+            flushBatch();
+        }
+        endRecord(this.batch, startRecord(this.batch, TICK, tick));
+        this.writtenTick = tick;
+    }
+
+    /**
+     * Encodes a state and writes it after the batch, or to a new file if the journal has grown too large.
+     * @param record The state
+     * @throws IOException If the state cannot be written
+     */
+    private void writeState(Record record) throws IOException {
+        while (true) {
+            this.scratch.clear();
+            try {
+                int start = startRecord(this.scratch, STATE, record.tick);
+                MementoCodec.encode(record.memento, this.scratch);
+                endRecord(this.scratch, start);
+                this.scratch.flip();
+                break;
+            } catch (BufferOverflowException e) {
+                this.scratch = ByteBuffer.allocate(this.scratch.capacity() * 2);
+            }
+        }
+
+        flushBatch();
+        if (this.channel == null || this.channel.size() >= COMPACT_BYTES) {
+            startFile(this.scratch);
+        } else {
+            writeFully(this.channel, this.scratch);
+        }
+        this.writtenTick = record.tick;
+    }
+
+    /**
+     * Starts a new journal with a state. The new file is forced to the disk before it replaces the
+     * old one, so there is always a complete state to recover.
+     * @param state The encoded state record
+     * @throws IOException If the file cannot be written
+     */
+    private void startFile(ByteBuffer state) throws IOException {
+        try (FileChannel next = FileChannel.open(this.nextPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(next, header);
+            writeFully(next, state);
+            next.force(false);
+        }
+        if (this.channel != null) {
+            this.channel.close();
+        }
+        Files.move(this.nextPath, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        this.channel = FileChannel.open(this.path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes the batch to the journal.
+     * @throws IOException If the batch cannot be written
+     */
+    private void flushBatch() throws IOException {
+        this.batch.flip();
+        if (this.channel != null) {
+            writeFully(this.channel, this.batch);
+        }
+        this.batch.clear();
+    }
+
+    /**
+     * Starts a record, leaving room for its length.
+     * @param buffer Where to write the record
+     * @param type The type of the record
+     * @param tick The tick starting its payload
+     * @return The position of the record
+     */
+    private static int startRecord(ByteBuffer buffer, byte type, long tick) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type);
+        buffer.putLong(tick);
+        return start;
+    }
+
+    /**
+     * Ends a record with its check, and fills in its length.
+     * @param buffer Where the record was written
+     * @param start The position of the record
+     */
+    private void endRecord(ByteBuffer buffer, int start) {
+        int end = buffer.position();
+        buffer.putInt(start, end - start - RECORD_HEADER_SIZE);
+        ByteBuffer checked = buffer.duplicate();
+        checked.position(start + 4).limit(end);
+        this.crc.reset();
+        this.crc.update(checked);
+        buffer.putInt((int) this.crc.getValue());
+    }
+
+    /**
+     * Writes the whole of a buffer to a channel.
+     * @param channel The channel
+     * @param buffer The buffer, ready to be read
+     * @throws IOException If the buffer cannot be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a journal back: its latest complete state and the inputs after it.
+     * @param path The path of the journal
+     * @param model The game the level of the state belongs to
+     * @return What the journal holds, or null if there is no journal or no state in it
+     * @throws IOException If the file is not a journal or its state cannot be read
+     */
+    public static Recovery recover(String path, GameEngine model) throws IOException {
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not an autosave journal");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported autosave journal version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        int stateStart = -1;
+        int stateEnd = -1;
+        long stateTick = 0;
+        long lastTick = 0;
+        List<Long> inputTicks = new ArrayList<>();
+        List<Byte> inputCodes = new ArrayList<>();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE + 8 + RECORD_FOOTER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < 8 || length > buffer.remaining() - 1 - RECORD_FOOTER_SIZE) {
+                break;
+            }
+            ByteBuffer checked = buffer.duplicate();
+            checked.limit(start + 4 + 1 + length);
+            crc.reset();
+            crc.update(checked);
+            if ((int) crc.getValue() != buffer.getInt(start + 4 + 1 + length)) {
+                // Cut short by a crash, so nothing after it can be trusted either
+                break;
+            }
+
+            byte type = buffer.get();
+            long tick = buffer.getLong();
+            if (type == STATE) {
+                stateStart = buffer.position();
+                stateEnd = start + 4 + 1 + length;
+                stateTick = tick;
+                inputTicks.clear();
+                inputCodes.clear();
+            } else if (type == INPUT && stateStart >= 0) {
+                inputTicks.add(tick);
+                inputCodes.add(buffer.get());
+            }
+            lastTick = Math.max(lastTick, tick);
+            buffer.position(start + 4 + 1 + length + RECORD_FOOTER_SIZE);
+        }
+        if (stateStart < 0) {
+            return null;
+        }
+
+        ByteBuffer state = buffer.duplicate();
+        state.limit(stateEnd).position(stateStart);
+        GameMemento memento;
+        try {
+            memento = MementoCodec.decode(state.slice(), model);
+        } catch (RuntimeException e) {
+            throw new IOException("The state in " + path + " cannot be read", e);
+        }
+        long[] ticks = new long[inputTicks.size()];
+        byte[] codes = new byte[inputCodes.size()];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = inputTicks.get(i);
+            codes[i] = inputCodes.get(i);
+        }
+        return new Recovery(memento, stateTick, ticks, codes, Math.max(lastTick, stateTick));
+    }
+
+    /**
+     * What a journal holds: its latest complete state and the inputs appended after it.
+     */
+    public static class Recovery {
+
+        /**
+         * The latest state.
+         */
+        private final GameMemento memento;
+
+        /**
+         * The number of ticks run before the state was captured.
+         */
+        private final long stateTick;
+
+        /**
+         * The tick each input arrived at, in order.
+         */
+        private final long[] inputTicks;
+
+        /**
+         * The inputs, as the caller numbered them.
+         */
+        private final byte[] inputCodes;
+
+        /**
+         * The number of ticks run by the time of the last record.
+         */
+        private final long lastTick;
+
+        /**
+         * Creates a new Recovery object.
+         * @param memento The latest state
+         * @param stateTick The number of ticks run before the state was captured
+         * @param inputTicks The tick each input arrived at
+         * @param inputCodes The inputs
+         * @param lastTick The number of ticks run by the time of the last record
+         */
+        private Recovery(GameMemento memento, long stateTick, long[] inputTicks, byte[] inputCodes, long lastTick) {
+            this.memento = memento;
+            this.stateTick = stateTick;
+            this.inputTicks = inputTicks;
+            this.inputCodes = inputCodes;
+            this.lastTick = lastTick;
+        }
+
+        /**
+         * Gets the latest state.
+         * @return The memento of the state
+         */
+        public GameMemento getMemento() {
+            return this.memento;
+        }
+
+        /**
+         * Gets the number of ticks run before the state was captured.
+         * @return The number of ticks
+         */
+        public long getStateTick() {
+            return this.stateTick;
+        }
+
+        /**
+         * Gets the number of inputs appended after the state.
+         * @return The number of inputs
+         */
+        public int getInputCount() {
+            return this.inputCodes.length;
+        }
+
+        /**
+         * Gets the tick an input arrived at.
+         * @param index The index of the input
+         * @return The number of ticks run before the input arrived
+         */
+        public long getInputTick(int index) {
+            return this.inputTicks[index];
+        }
+
+        /**
+         * Gets an input.
+         * @param index The index of the input
+         * @return The input, as the caller numbered it
+         */
+        public byte getInputCode(int index) {
+            return this.inputCodes[index];
+        }
+
+        /**
+         * Gets the number of ticks run by the time of the last record.
+         * @return The number of ticks
+         */
+        public long getLastTick() {
+            return this.lastTick;
+        }
+    }
+
+    /**
+     * A record waiting to be written.
+     */
+    private static class Record {
+
+        /**
+         * The type of the record.
+         */
+        private final byte type;
+
+        /**
+         * The tick of the record.
+         */
+        private final long tick;
+
+        /**
+         * The input, for an input record.
+         */
+        private final byte code;
+
+        /**
+         * The state, for a state record.
+         */
+        private final GameMemento memento;
+
+        /**
+         * Creates a new Record object.
+         * @param type The type of the record
+         * @param tick The tick of the record
+         * @param code The input, for an input record
+         * @param memento The state, for a state record
+         */
+        private Record(byte type, long tick, byte code, GameMemento memento) {
+            this.type = type;
+            this.tick = tick;
+            this.code = code;
+            this.memento = memento;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import stickman.entity.moving.other.Projectile;
 import stickman.level.Level;
 import stickman.model.GameState;
 
+import java.nio.ByteBuffer;
+
 /**
 * This interface is dedicated to defining the memory of the game
 * */
@@ -34,7 +36,9 @@ public interface GameMemento extends Prototype {
      * */
     void setLevel(Level level);
     /**
-    * Returns the copy of the level to avoid modifying references
+    * Returns the copy of the level to avoid modifying references. The memento's own level is never played
+     * or changed once the memento is made, and copying it only reads it, so the copy can be taken on any
+     * thread, such as the one loading a game in the background
      * @return copy of the level.
     * */
     Level getLevel();
@@ -51,5 +55,11 @@ public interface GameMemento extends Prototype {
     GameMemento copy();
     int getLevelIndex();
 
+    /**
+     * Writes the memento for a saved game. GameMementoImpl.decode reads it back.
+     * @param buffer Where to write the memento
+     */
+    void encode(ByteBuffer buffer);
+
 
 }
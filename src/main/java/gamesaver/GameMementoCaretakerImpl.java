@@ -1,13 +1,14 @@
 package gamesaver;
 
 public class GameMementoCaretakerImpl implements GameMementoCaretaker{
-    private GameMemento gameMemento;
+    // Volatile, since games can be saved on a background thread and loaded on the game's thread
+    private volatile GameMemento gameMemento;
 
     public GameMementoCaretakerImpl() {}
 
     @Override
     public GameMemento getMostRecentMemento() {
-        return gameMemento.copy();
+        return gameMemento == null ? null : gameMemento.copy();
     }
 
     @Override
@@ -1,7 +1,13 @@
 package gamesaver;
 
 import stickman.level.Level;
+import stickman.level.LevelManager;
+import stickman.model.GameEngine;
+import stickman.model.GameRun;
 import stickman.model.GameState;
+import stickman.model.GameStop;
+
+import java.nio.ByteBuffer;
 
 public class GameMementoImpl implements GameMemento{
     private long seconds;
@@ -14,14 +20,23 @@ public class GameMementoImpl implements GameMemento{
 
     public GameMementoImpl(Level level, GameState gameState, long seconds, int lives, int currentPoint, int totalPoint,
                            int levelIndex) {
+        this(seconds, lives, currentPoint, totalPoint, levelIndex);
+        this.gameState = gameState.copy();
+        // Taken on the game's thread. From then on the copy is only ever read: its entities are observed by
+        // it alone and nothing ticks it, which is what lets it be copied or encoded on another thread
+        this.level= level.copy();
+
+    }
+
+    /**
+     * Creates a memento without a level or game state, for decode to give it ones nothing else refers to.
+     */
+    private GameMementoImpl(long seconds, int lives, int currentPoint, int totalPoint, int levelIndex) {
         this.currentPoint = currentPoint;
         this.lives = lives;
         this.seconds = seconds;
         this.totalPoint = totalPoint;
-        this.gameState = gameState.copy();
-        this.level= level.copy();
         this.levelIndex = levelIndex;
-
     }
 
     @Override
@@ -86,11 +101,45 @@ public class GameMementoImpl implements GameMemento{
 
     @Override
     public GameMementoImpl copy() {
-        return new GameMementoImpl(level.copy(), gameState.copy(), seconds, lives, currentPoint, totalPoint, levelIndex);
+        // The level is copied once, rather than once here and again by the public constructor
+        GameMementoImpl memento = new GameMementoImpl(seconds, lives, currentPoint, totalPoint, levelIndex);
+        memento.gameState = this.gameState.copy();
+        memento.level = this.level.copy();
+        return memento;
     }
 
     @Override
     public int getLevelIndex() {
         return this.levelIndex;
     }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        buffer.putLong(this.seconds);
+        buffer.putInt(this.lives);
+        buffer.putInt(this.currentPoint);
+        buffer.putInt(this.totalPoint);
+        buffer.putInt(this.levelIndex);
+        MementoCodec.putBoolean(this.gameState instanceof GameRun, buffer);
+        this.level.encode(buffer);
+    }
+
+    /**
+     * Reads back a memento written by encode.
+     * @param buffer The encoded memento
+     * @param model The game the level of the memento belongs to
+     * @return The memento
+     */
+    public static GameMementoImpl decode(ByteBuffer buffer, GameEngine model) {
+        long seconds = buffer.getLong();
+        int lives = buffer.getInt();
+        int currentPoint = buffer.getInt();
+        int totalPoint = buffer.getInt();
+        int levelIndex = buffer.getInt();
+        GameMementoImpl memento = new GameMementoImpl(seconds, lives, currentPoint, totalPoint, levelIndex);
+        // The decoded level and game state are new, so there is no need to copy them
+        memento.gameState = MementoCodec.getBoolean(buffer) ? new GameRun() : new GameStop();
+        memento.level = LevelManager.decode(buffer, model);
+        return memento;
+    }
 }
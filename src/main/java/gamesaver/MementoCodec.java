@@ -0,0 +1,235 @@
+package gamesaver;
+
+import stickman.entity.Entity;
+import stickman.entity.moving.enemy.Slime;
+import stickman.entity.moving.other.Bullet;
+import stickman.entity.still.Flag;
+import stickman.entity.still.Lose;
+import stickman.entity.still.Mushroom;
+import stickman.entity.still.Platform;
+import stickman.entity.still.Win;
+import stickman.model.GameEngine;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary encoding of game mementos. Every part of a memento writes its own state to a ByteBuffer and
+ * reads it back with a static decode method, the same way every part copies itself; this class holds what
+ * they share: the version of the encoding, the tags telling entity types apart and the encoding of strings.
+ * Numbers are written in the ByteBuffer's byte order, big-endian by default.
+ */
+public final class MementoCodec {
+
+    /**
+     * The version of the encoding, written first. Decoding fails on any other version.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The tag of a Platform.
+     */
+    private static final byte PLATFORM = 1;
+
+    /**
+     * The tag of a Mushroom.
+     */
+    private static final byte MUSHROOM = 2;
+
+    /**
+     * The tag of a Flag.
+     */
+    private static final byte FLAG = 3;
+
+    /**
+     * The tag of a Win message.
+     */
+    private static final byte WIN = 4;
+
+    /**
+     * The tag of a Lose message.
+     */
+    private static final byte LOSE = 5;
+
+    /**
+     * The tag of a Slime.
+     */
+    private static final byte SLIME = 6;
+
+    /**
+     * The tag of a Bullet.
+     */
+    private static final byte BULLET = 7;
+
+    /**
+     * The initial size of the buffer a memento is encoded into, doubled until the memento fits.
+     */
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private MementoCodec() {
+    }
+
+    /**
+     * Encodes a memento into a new buffer.
+     * @param memento The memento to encode
+     * @return The buffer, ready to be read
+     */
+    public static ByteBuffer encode(GameMemento memento) {
+        int capacity = INITIAL_CAPACITY;
+        while (true) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                encode(memento, buffer);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                capacity *= 2;
+            }
+        }
+    }
+
+    /**
+     * Encodes a memento, starting with the version of the encoding.
+     * @param memento The memento to encode
+     * @param buffer Where to write the memento
+     * @throws BufferOverflowException If the buffer is too small
+     */
+    public static void encode(GameMemento memento, ByteBuffer buffer) {
+        buffer.putInt(VERSION);
+        memento.encode(buffer);
+    }
+
+    /**
+     * Decodes a memento written by encode.
+     * @param buffer The encoded memento
+     * @param model The game the level of the memento belongs to
+     * @return The memento
+     * @throws IllegalArgumentException If the memento was encoded with another version
+     */
+    public static GameMemento decode(ByteBuffer buffer, GameEngine model) {
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported save version " + version);
+        }
+        return GameMementoImpl.decode(buffer, model);
+    }
+
+    /**
+     * Writes an entity, preceded by the tag of its type.
+     * @param entity The entity to write
+     * @param buffer Where to write the entity
+     * @throws IllegalArgumentException If the type of entity cannot be encoded
+     */
+    public static void putEntity(Entity entity, ByteBuffer buffer) {
+        byte tag;
+        if (entity instanceof Platform) {
+            tag = PLATFORM;
+        } else if (entity instanceof Mushroom) {
+            tag = MUSHROOM;
+        } else if (entity instanceof Flag) {
+            tag = FLAG;
+        } else if (entity instanceof Win) {
+            tag = WIN;
+        } else if (entity instanceof Lose) {
+            tag = LOSE;
+        } else if (entity instanceof Slime) {
+            tag = SLIME;
+        } else if (entity instanceof Bullet) {
+            tag = BULLET;
+        } else {
+            throw new IllegalArgumentException("Cannot save a " + entity.getClass().getSimpleName());
+        }
+        buffer.put(tag);
+        entity.encode(buffer);
+    }
+
+    /**
+     * Reads an entity written by putEntity.
+     * @param buffer The encoded entity
+     * @return The entity
+     * @throws IllegalArgumentException If the tag is unknown
+     */
+    public static Entity getEntity(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case PLATFORM:
+                return Platform.decode(buffer);
+            case MUSHROOM:
+                return Mushroom.decode(buffer);
+            case FLAG:
+                return Flag.decode(buffer);
+            case WIN:
+                return Win.decode(buffer);
+            case LOSE:
+                return Lose.decode(buffer);
+            case SLIME:
+                return Slime.decode(buffer);
+            case BULLET:
+                return Bullet.decode(buffer);
+            default:
+                throw new IllegalArgumentException("Unknown entity tag " + tag);
+        }
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes.
+     * @param value The string, which may be null
+     * @param buffer Where to write the string
+     */
+    public static void putString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        // Sprite names are plain ASCII, which is its own UTF-8 and can be written without a byte array
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            buffer.putInt(length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by putString.
+     * @param buffer The encoded string
+     * @return The string, or null
+     */
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a boolean as a byte.
+     * @param value The boolean
+     * @param buffer Where to write the boolean
+     */
+    public static void putBoolean(boolean value, ByteBuffer buffer) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Reads a boolean written by putBoolean.
+     * @param buffer The encoded boolean
+     * @return The boolean
+     */
+    public static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+}
@@ -0,0 +1,696 @@
+package gamesaver;
+
+import stickman.entity.Entity;
+import stickman.entity.moving.MovingEntity;
+import stickman.level.EntityList;
+import stickman.level.Level;
+import stickman.level.LevelManager;
+import stickman.model.GameEngine;
+import stickman.model.GameRun;
+import stickman.model.GameState;
+import stickman.model.GameStop;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Keeps the last few seconds of a game, one frame per tick, so that the game can be stepped back tick by tick.
+ * <p>
+ * Frames are kept in a ring of direct memory, so recording them adds nothing for the garbage collector.
+ * A keyframe holds the whole level, encoded like a saved game. The frames after it only hold the entities
+ * which changed during their tick, each with its encoding before and after the tick. Immutable entities never
+ * change, so they are never compared. A keyframe is written every keyframeInterval ticks and whenever the
+ * level or its list of entities changes, since deltas refer to entities by their position in the level.
+ * <p>
+ * Stepping back from a delta restores the changed entities in place, so it costs as much as the tick did.
+ * Stepping back from a keyframe decodes the keyframe before it and replays the deltas in between; like a
+ * loaded game, the decoded level has its hero after the other moving entities.
+ * When the ring is full, the oldest frames are dropped; the oldest frame kept is always a keyframe.
+ */
+public class RewindBuffer {
+
+    /**
+     * The default number of frames kept, ten seconds at the default 120 ticks per second.
+     */
+    public static final int DEFAULT_MAX_FRAMES = 1200;
+
+    /**
+     * The default size of the ring, in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+
+    /**
+     * The default number of ticks between two keyframes.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+
+    /**
+     * The initial size of the buffers frames and entities are encoded into, doubled as needed.
+     */
+    private static final int INITIAL_SCRATCH_SIZE = 16 * 1024;
+
+    /**
+     * The ring the frames are kept in.
+     */
+    private final ByteBuffer ring;
+
+    /**
+     * A view of the ring, positioned to read a frame.
+     */
+    private final ByteBuffer reader;
+
+    /**
+     * The most frames kept.
+     */
+    private final int maxFrames;
+
+    /**
+     * The number of ticks between two keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * The offset of each frame in the ring, indexed by slot.
+     */
+    private final int[] frameOffsets;
+
+    /**
+     * The length of each frame, indexed by slot.
+     */
+    private final int[] frameLengths;
+
+    /**
+     * Whether each frame is a keyframe, indexed by slot.
+     */
+    private final boolean[] keyframes;
+
+    /**
+     * The slot of the oldest frame.
+     */
+    private int first;
+
+    /**
+     * The number of frames kept.
+     */
+    private int count;
+
+    /**
+     * Where the next frame goes in the ring.
+     */
+    private int writePosition;
+
+    /**
+     * The frame being recorded, before it is copied into the ring.
+     */
+    private ByteBuffer frame;
+
+    /**
+     * The encoding of the tracked entities at the end of the current tick.
+     */
+    private ByteBuffer current;
+
+    /**
+     * The encoding of the tracked entities at the end of the previous tick.
+     */
+    private ByteBuffer previous;
+
+    /**
+     * Where the encoding of each tracked entity starts in current, followed by where the last one ends.
+     */
+    private int[] currentOffsets;
+
+    /**
+     * Where the encoding of each tracked entity starts in previous, followed by where the last one ends.
+     */
+    private int[] previousOffsets;
+
+    /**
+     * The entities deltas are recorded for: the mutable entities of the level, still ones first, then moving
+     * ones and the hero last. That is the order a decoded level has them in, so keyframes decode to the same.
+     */
+    private Entity[] tracked;
+
+    /**
+     * The number of tracked entities.
+     */
+    private int trackedCount;
+
+    /**
+     * The level the tracked entities belong to.
+     */
+    private Level level;
+
+    /**
+     * The entities of the level when they were last tracked.
+     */
+    private List<Entity> entities;
+
+    /**
+     * The number of structural changes of the entities when they were last tracked.
+     */
+    private int entitiesModCount;
+
+    /**
+     * Whether the previous encoding no longer matches the level, so that the next frame must be a keyframe.
+     */
+    private boolean stale;
+
+    /**
+     * The number of frames recorded since the last keyframe.
+     */
+    private int sinceKeyframe;
+
+    /**
+     * The seconds on the timer in the frame last rewound to.
+     */
+    private long seconds;
+
+    /**
+     * The lives in the frame last rewound to.
+     */
+    private int lives;
+
+    /**
+     * The points of the current level, outside of the level itself, in the frame last rewound to.
+     */
+    private int currentPoint;
+
+    /**
+     * The total points in the frame last rewound to.
+     */
+    private int totalPoint;
+
+    /**
+     * The index of the level in the frame last rewound to.
+     */
+    private int levelIndex;
+
+    /**
+     * Whether the game was running in the frame last rewound to.
+     */
+    private boolean running;
+
+    /**
+     * Creates a RewindBuffer with the default number of frames, size and keyframe interval.
+     */
+    public RewindBuffer() {
+        this(DEFAULT_MAX_FRAMES, DEFAULT_CAPACITY, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a RewindBuffer. Its memory is bounded by the capacity of the ring, plus the buffers the current
+     * level is encoded into.
+     * @param maxFrames The most frames kept, which is how many ticks can be stepped back
+     * @param capacity The size of the ring, in bytes
+     * @param keyframeInterval The number of ticks between two keyframes
+     */
+    public RewindBuffer(int maxFrames, int capacity, int keyframeInterval) {
+        if (maxFrames < 2 || capacity < 1 || keyframeInterval < 1) {
+            throw new IllegalArgumentException("A rewind buffer needs at least two frames, one byte and a keyframe " +
+                    "interval of at least one tick");
+        }
+        this.maxFrames = maxFrames;
+        this.keyframeInterval = keyframeInterval;
+        this.ring = ByteBuffer.allocateDirect(capacity);
+        this.reader = this.ring.duplicate();
+        this.frameOffsets = new int[maxFrames];
+        this.frameLengths = new int[maxFrames];
+        this.keyframes = new boolean[maxFrames];
+        this.frame = ByteBuffer.allocateDirect(INITIAL_SCRATCH_SIZE);
+        this.current = ByteBuffer.allocateDirect(INITIAL_SCRATCH_SIZE);
+        this.previous = ByteBuffer.allocateDirect(INITIAL_SCRATCH_SIZE);
+        this.currentOffsets = new int[1];
+        this.previousOffsets = new int[1];
+        this.tracked = new Entity[0];
+        this.stale = true;
+    }
+
+    /**
+     * Gets the number of frames which can be stepped back to.
+     * @return The number of frames before the latest one
+     */
+    public int getRewindableFrames() {
+        return Math.max(0, this.count - 1);
+    }
+
+    /**
+     * Gets the number of bytes the frames take in the ring.
+     * @return The number of bytes used
+     */
+    public int getUsedBytes() {
+        int used = 0;
+        for (int i = 0; i < this.count; i++) {
+            used += this.frameLengths[slot(i)];
+        }
+        return used;
+    }
+
+    /**
+     * Forgets every frame.
+     */
+    public void clear() {
+        this.count = 0;
+        this.writePosition = 0;
+        this.stale = true;
+    }
+
+    /**
+     * Records the state of the game at the end of a tick.
+     * @param level The current level
+     * @param gameState The state of the game
+     * @param seconds The seconds on the timer
+     * @param lives The lives of the stickman
+     * @param currentPoint The points of the current level, outside of the level itself
+     * @param totalPoint The total points
+     * @param levelIndex The index of the current level
+     */
+    public void record(Level level, GameState gameState, long seconds, int lives, int currentPoint, int totalPoint,
+                       int levelIndex) {
+        boolean keyframe = this.stale || this.sinceKeyframe + 1 >= this.keyframeInterval || hasChanged(level);
+        if (keyframe) {
+            track(level);
+        } else {
+            encodeTracked();
+        }
+
+        while (true) {
+            this.frame.clear();
+            try {
+                this.frame.put((byte) (keyframe ? 1 : 0));
+                this.frame.putLong(seconds);
+                this.frame.putInt(lives);
+                this.frame.putInt(currentPoint);
+                this.frame.putInt(totalPoint);
+                this.frame.putInt(levelIndex);
+                MementoCodec.putBoolean(gameState instanceof GameRun, this.frame);
+                // The length of the level state lets keyframes be decoded without reading it
+                int stateLengthPosition = this.frame.position();
+                this.frame.putInt(0);
+                level.encodeState(this.frame);
+                this.frame.putInt(stateLengthPosition, this.frame.position() - stateLengthPosition - 4);
+                if (keyframe) {
+                    level.encode(this.frame);
+                } else {
+                    putChangedEntities();
+                }
+                break;
+            } catch (BufferOverflowException e) {
+                this.frame = grow(this.frame);
+            }
+        }
+        this.frame.flip();
+        store(keyframe);
+
+        if (keyframe) {
+            this.sinceKeyframe = 0;
+            this.stale = false;
+        } else {
+            this.sinceKeyframe++;
+            // What was encoded this tick is compared against next tick
+            ByteBuffer buffer = this.previous;
+            this.previous = this.current;
+            this.current = buffer;
+            int[] offsets = this.previousOffsets;
+            this.previousOffsets = this.currentOffsets;
+            this.currentOffsets = offsets;
+        }
+    }
+
+    /**
+     * Steps the game back by one frame, dropping the latest one. The state of the game outside of the level
+     * (timer, lives, points...) can then be read from this buffer.
+     * @param level The current level, which is restored in place when it is the level of both frames
+     * @param model The game the level belongs to, in case a level has to be decoded
+     * @return The level as it was one frame ago, or null if there is nothing to step back to
+     */
+    public Level rewind(Level level, GameEngine model) {
+        if (this.count < 2) {
+            return null;
+        }
+        int latest = slot(this.count - 1);
+        int target = slot(this.count - 2);
+        // Nothing is recorded while rewinding, so the encoding compared against by the next delta is stale
+        this.stale = true;
+
+        if (!this.keyframes[latest] && level == this.level && !hasChanged(level)) {
+            // Undo the latest tick on the entities it changed
+            readFrame(latest);
+            skipHeader();
+            int changed = this.reader.getInt();
+            for (int i = 0; i < changed; i++) {
+                Entity entity = this.tracked[this.reader.getInt()];
+                int length = this.reader.getInt();
+                int end = this.reader.position() + length;
+                entity.restore(this.reader);
+                this.reader.position(end);
+                this.reader.position(this.reader.getInt() + this.reader.position());
+            }
+            drop();
+            readFrame(target);
+            readHeader(level);
+            return level;
+        }
+
+        drop();
+        int keyframe = this.count - 1;
+        while (!this.keyframes[slot(keyframe)]) {
+            keyframe--;
+        }
+        readFrame(slot(keyframe));
+        skipHeader();
+        Level decoded = LevelManager.decode(this.reader, model);
+        track(decoded);
+        // Replay the deltas after the keyframe on the entities they changed
+        for (int i = keyframe + 1; i < this.count; i++) {
+            readFrame(slot(i));
+            skipHeader();
+            int changed = this.reader.getInt();
+            for (int j = 0; j < changed; j++) {
+                Entity entity = this.tracked[this.reader.getInt()];
+                this.reader.position(this.reader.getInt() + this.reader.position());
+                int length = this.reader.getInt();
+                int end = this.reader.position() + length;
+                entity.restore(this.reader);
+                this.reader.position(end);
+            }
+        }
+        readFrame(target);
+        readHeader(decoded);
+        return decoded;
+    }
+
+    /**
+     * Gets the seconds on the timer in the frame last rewound to.
+     * @return The seconds
+     */
+    public long getTimerSeconds() {
+        return this.seconds;
+    }
+
+    /**
+     * Gets the lives of the stickman in the frame last rewound to.
+     * @return The lives
+     */
+    public int getLives() {
+        return this.lives;
+    }
+
+    /**
+     * Gets the points of the current level, outside of the level itself, in the frame last rewound to.
+     * @return The points
+     */
+    public int getCurrentPoint() {
+        return this.currentPoint;
+    }
+
+    /**
+     * Gets the total points in the frame last rewound to.
+     * @return The total points
+     */
+    public int getTotalPoint() {
+        return this.totalPoint;
+    }
+
+    /**
+     * Gets the index of the level in the frame last rewound to.
+     * @return The index of the level
+     */
+    public int getLevelIndex() {
+        return this.levelIndex;
+    }
+
+    /**
+     * Gets the state of the game in the frame last rewound to.
+     * @return A new state, running or stopped
+     */
+    public GameState getGameState() {
+        return this.running ? new GameRun() : new GameStop();
+    }
+
+    /**
+     * Checks whether the entities of a level were added to or removed since they were tracked.
+     * @param level The level
+     * @return Whether the level or its entities differ from the tracked ones
+     */
+    private boolean hasChanged(Level level) {
+        List<Entity> entities = level.getEntities();
+        // Only an EntityList tells whether it changed; any other list gets a keyframe every tick
+        return level != this.level || entities != this.entities || !(entities instanceof EntityList)
+                || ((EntityList) entities).getModCount() != this.entitiesModCount;
+    }
+
+    /**
+     * Starts tracking the mutable entities of a level, and encodes them for the next delta to compare against.
+     * @param level The level
+     */
+    private void track(Level level) {
+        List<Entity> entities = level.getEntities();
+        this.level = level;
+        this.entities = entities;
+        this.entitiesModCount = entities instanceof EntityList ? ((EntityList) entities).getModCount() : 0;
+        if (this.tracked.length < entities.size()) {
+            this.tracked = new Entity[entities.size()];
+        }
+
+        Entity hero = level.getStickman();
+        this.trackedCount = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (!entity.isImmutable() && !(entity instanceof MovingEntity)) {
+                this.tracked[this.trackedCount++] = entity;
+            }
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (!entity.isImmutable() && entity instanceof MovingEntity && entity != hero) {
+                this.tracked[this.trackedCount++] = entity;
+            }
+        }
+        if (hero != null) {
+            this.tracked[this.trackedCount++] = hero;
+        }
+        if (this.currentOffsets.length <= this.trackedCount) {
+            this.currentOffsets = new int[this.trackedCount + 1];
+            this.previousOffsets = new int[this.trackedCount + 1];
+        }
+
+        encodeTracked();
+        ByteBuffer buffer = this.previous;
+        this.previous = this.current;
+        this.current = buffer;
+        int[] offsets = this.previousOffsets;
+        this.previousOffsets = this.currentOffsets;
+        this.currentOffsets = offsets;
+    }
+
+    /**
+     * Encodes every tracked entity into current.
+     */
+    private void encodeTracked() {
+        while (true) {
+            this.current.clear();
+            try {
+                for (int i = 0; i < this.trackedCount; i++) {
+                    this.currentOffsets[i] = this.current.position();
+                    this.tracked[i].encode(this.current);
+                }
+                this.currentOffsets[this.trackedCount] = this.current.position();
+                return;
+            } catch (BufferOverflowException e) {
+                this.current = grow(this.current);
+            }
+        }
+    }
+
+    /**
+     * Writes the tracked entities whose encoding changed since the previous tick: their index, then their
+     * encoding before and after the tick, each preceded by its length.
+     */
+    private void putChangedEntities() {
+        int countPosition = this.frame.position();
+        this.frame.putInt(0);
+        int changed = 0;
+        for (int i = 0; i < this.trackedCount; i++) {
+            int before = this.previousOffsets[i];
+            int beforeLength = this.previousOffsets[i + 1] - before;
+            int after = this.currentOffsets[i];
+            int afterLength = this.currentOffsets[i + 1] - after;
+            if (beforeLength == afterLength && equal(this.previous, before, this.current, after, afterLength)) {
+                continue;
+            }
+            this.frame.putInt(i);
+            this.frame.putInt(beforeLength);
+            copy(this.previous, before, beforeLength, this.frame);
+            this.frame.putInt(afterLength);
+            copy(this.current, after, afterLength, this.frame);
+            changed++;
+        }
+        this.frame.putInt(countPosition, changed);
+    }
+
+    /**
+     * Copies the recorded frame into the ring, dropping the oldest frames to make room.
+     * @param keyframe Whether the frame is a keyframe
+     */
+    private void store(boolean keyframe) {
+        int length = this.frame.limit();
+        if (length > this.ring.capacity()) {
+            // Not even one frame fits, so there is nothing to rewind to
+            clear();
+            return;
+        }
+        if (this.count == this.maxFrames) {
+            dropOldest();
+        }
+        if (this.writePosition + length > this.ring.capacity()) {
+            // The frames between here and the end are the oldest ones, and would be skipped over
+            while (this.count > 0 && this.frameOffsets[this.first] >= this.writePosition) {
+                dropOldest();
+            }
+            this.writePosition = 0;
+        }
+        while (this.count > 0 && this.frameOffsets[this.first] < this.writePosition + length
+                && this.writePosition < this.frameOffsets[this.first] + this.frameLengths[this.first]) {
+            dropOldest();
+        }
+        if (!keyframe && this.count == 0) {
+            // A delta is useless without the keyframe before it, so the next frame has to be a keyframe
+            this.stale = true;
+            return;
+        }
+
+        copy(this.frame, 0, length, this.ring, this.writePosition);
+        int slot = slot(this.count++);
+        this.frameOffsets[slot] = this.writePosition;
+        this.frameLengths[slot] = length;
+        this.keyframes[slot] = keyframe;
+        this.writePosition += length;
+    }
+
+    /**
+     * Drops the oldest frame, and the deltas after it, which cannot be decoded without it.
+     */
+    private void dropOldest() {
+        do {
+            this.first = (this.first + 1) % this.maxFrames;
+            this.count--;
+        } while (this.count > 0 && !this.keyframes[this.first]);
+    }
+
+    /**
+     * Drops the latest frame, so that the next frame is written where it was.
+     */
+    private void drop() {
+        this.count--;
+        this.writePosition = this.frameOffsets[slot(this.count)];
+    }
+
+    /**
+     * Positions the reader on a frame.
+     * @param slot The slot of the frame
+     */
+    private void readFrame(int slot) {
+        this.reader.limit(this.frameOffsets[slot] + this.frameLengths[slot]);
+        this.reader.position(this.frameOffsets[slot]);
+    }
+
+    /**
+     * Reads the state of the game and of the level from the frame the reader is on.
+     * @param level The level to restore the state of
+     */
+    private void readHeader(Level level) {
+        this.reader.get();
+        this.seconds = this.reader.getLong();
+        this.lives = this.reader.getInt();
+        this.currentPoint = this.reader.getInt();
+        this.totalPoint = this.reader.getInt();
+        this.levelIndex = this.reader.getInt();
+        this.running = MementoCodec.getBoolean(this.reader);
+        this.reader.getInt();
+        level.decodeState(this.reader);
+    }
+
+    /**
+     * Moves the reader past the state of the game and of the level of the frame it is on.
+     */
+    private void skipHeader() {
+        this.reader.position(this.reader.position() + 26);
+        this.reader.position(this.reader.getInt() + this.reader.position());
+    }
+
+    /**
+     * Gets the slot of a frame.
+     * @param frame The frame, 0 being the oldest
+     * @return The slot of the frame
+     */
+    private int slot(int frame) {
+        return (this.first + frame) % this.maxFrames;
+    }
+
+    /**
+     * Compares two ranges of bytes.
+     * @param a The first buffer
+     * @param aOffset Where the range starts in the first buffer
+     * @param b The second buffer
+     * @param bOffset Where the range starts in the second buffer
+     * @param length The length of the ranges
+     * @return Whether the ranges hold the same bytes
+     */
+    private static boolean equal(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, int length) {
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            if (a.getLong(aOffset + i) != b.getLong(bOffset + i)) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (a.get(aOffset + i) != b.get(bOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends a range of bytes to a buffer.
+     * @param source The buffer to copy from
+     * @param offset Where the range starts
+     * @param length The length of the range
+     * @param destination The buffer to append to
+     */
+    private static void copy(ByteBuffer source, int offset, int length, ByteBuffer destination) {
+        copy(source, offset, length, destination, destination.position());
+        destination.position(destination.position() + length);
+    }
+
+    /**
+     * Copies a range of bytes to a given offset of a buffer.
+     * @param source The buffer to copy from
+     * @param offset Where the range starts
+     * @param length The length of the range
+     * @param destination The buffer to copy to
+     * @param at Where to copy the range to
+     */
+    private static void copy(ByteBuffer source, int offset, int length, ByteBuffer destination, int at) {
+        if (at + length > destination.limit()) {
+            throw new BufferOverflowException();
+        }
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            destination.putLong(at + i, source.getLong(offset + i));
+        }
+        for (; i < length; i++) {
+            destination.put(at + i, source.get(offset + i));
+        }
+    }
+
+    /**
+     * Doubles the size of a buffer. Its content is not kept, since it is always encoded again.
+     * @param buffer The buffer
+     * @return The larger buffer
+     */
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        return ByteBuffer.allocateDirect(buffer.capacity() * 2);
+    }
+}
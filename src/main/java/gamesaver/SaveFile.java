@@ -0,0 +1,344 @@
+package gamesaver;
+
+import stickman.model.GameEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * A save file holding several saved games, each in a slot of the same size. The whole file is memory-mapped,
+ * so saving is one bulk copy of the encoded memento into its slot and loading decodes straight from the
+ * mapping. Saves survive the game being closed; use flush to also make them survive the machine going down.
+ * <p>
+ * A game too large for a slot (a generated level of a million entities takes about 26MB) makes every slot
+ * grow, to the next power of two times the slot size it fits in, moving the other saves along. The file
+ * cannot be mapped past 2GB, so a game larger than a 2GB file split into the file's slots cannot be saved.
+ * <p>
+ * The file starts with a header (magic number, format version, slot count and slot size), followed by an
+ * index entry per slot (length of the save, version of its encoding, when it was saved and its CRC32) and
+ * then the slots themselves.
+ */
+public class SaveFile implements Closeable {
+
+    /**
+     * The first four bytes of every save file, "STKS".
+     */
+    private static final int MAGIC = 0x53544B53;
+
+    /**
+     * The version of the layout of the file.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * The size of the index entry of a slot, in bytes.
+     */
+    private static final int INDEX_ENTRY_SIZE = 24;
+
+    /**
+     * The default number of slots of a new file.
+     */
+    public static final int DEFAULT_SLOT_COUNT = 4;
+
+    /**
+     * The default size of a slot of a new file, in bytes.
+     */
+    public static final int DEFAULT_SLOT_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapping of the whole file. Replaced when the slots grow.
+     */
+    private MappedByteBuffer mapping;
+
+    /**
+     * The number of slots.
+     */
+    private final int slotCount;
+
+    /**
+     * The size of a slot, in bytes. Grows when a game does not fit in a slot.
+     */
+    private int slotSize;
+
+    /**
+     * The offset of the first slot.
+     */
+    private final int dataOffset;
+
+    /**
+     * The buffer mementos are encoded into before being copied to their slot. It grows as needed.
+     */
+    private ByteBuffer scratch;
+
+    /**
+     * Opens a save file, creating it with the default number and size of slots if it does not exist.
+     * @param path The path of the file
+     * @throws IOException If the file cannot be opened or is not a save file
+     */
+    public SaveFile(String path) throws IOException {
+        this(path, DEFAULT_SLOT_COUNT, DEFAULT_SLOT_SIZE);
+    }
+
+    /**
+     * Opens a save file. An existing file keeps the number and size of slots it was created with.
+     * @param path The path of the file
+     * @param slotCount The number of slots, if the file is created
+     * @param slotSize The size of a slot in bytes, if the file is created
+     * @throws IOException If the file cannot be opened or is not a save file
+     */
+    public SaveFile(String path, int slotCount, int slotSize) throws IOException {
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean created = this.channel.size() == 0;
+            if (!created) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                this.channel.read(header, 0);
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                    throw new IOException(path + " is not a save file");
+                }
+                int version = header.getInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IOException("Unsupported save file version " + version);
+                }
+                slotCount = header.getInt();
+                slotSize = header.getInt();
+            }
+            if (slotCount < 1 || slotSize < 1) {
+                throw new IOException("A save file needs at least one slot of at least one byte");
+            }
+            this.slotCount = slotCount;
+            this.slotSize = slotSize;
+            this.dataOffset = HEADER_SIZE + slotCount * INDEX_ENTRY_SIZE;
+            long size = (long) this.dataOffset + (long) slotCount * slotSize;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("A save file cannot be larger than 2GB");
+            }
+            this.mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (created) {
+                this.mapping.putInt(0, MAGIC);
+                this.mapping.putInt(4, FORMAT_VERSION);
+                this.mapping.putInt(8, slotCount);
+                this.mapping.putInt(12, slotSize);
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+        this.scratch = ByteBuffer.allocate(Math.min(this.slotSize, 64 * 1024));
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return this.slotCount;
+    }
+
+    /**
+     * Gets the size of a slot.
+     * @return The size of a slot, in bytes
+     */
+    public synchronized int getSlotSize() {
+        return this.slotSize;
+    }
+
+    /**
+     * Checks whether a slot holds a saved game.
+     * @param slot The slot
+     * @return Whether the slot holds a saved game
+     */
+    public synchronized boolean isOccupied(int slot) {
+        return this.mapping.getInt(indexOffset(slot)) > 0;
+    }
+
+    /**
+     * Gets when the game in a slot was saved.
+     * @param slot The slot
+     * @return The time of the save in epoch milliseconds, or 0 if the slot is empty
+     */
+    public synchronized long getSavedAt(int slot) {
+        return isOccupied(slot) ? this.mapping.getLong(indexOffset(slot) + 8) : 0;
+    }
+
+    /**
+     * Saves a game to a slot, replacing whatever it held. The slots grow first if the game does not fit.
+     * @param slot The slot
+     * @param memento The memento of the game
+     * @throws IOException If the encoded game does not fit in a slot of the largest file that can be mapped
+     */
+    public synchronized void save(int slot, GameMemento memento) throws IOException {
+        int index = indexOffset(slot);
+        ByteBuffer encoded = encode(memento);
+        if (encoded.limit() > this.slotSize) {
+            growSlots(encoded.limit());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(encoded.duplicate());
+
+        // The slot reads as empty while it is written, so a game stopped mid-save leaves no half-written save
+        this.mapping.putInt(index, 0);
+        ByteBuffer data = this.mapping.duplicate();
+        data.position(this.dataOffset + slot * this.slotSize);
+        data.put(encoded);
+        this.mapping.putInt(index + 4, MementoCodec.VERSION);
+        this.mapping.putLong(index + 8, System.currentTimeMillis());
+        this.mapping.putInt(index + 16, (int) crc.getValue());
+        this.mapping.putInt(index, encoded.limit());
+    }
+
+    /**
+     * Loads the game saved in a slot.
+     * @param slot The slot
+     * @param model The game the saved level belongs to
+     * @return The memento of the game, or null if the slot is empty
+     * @throws IOException If the save is damaged or was encoded with an unsupported version
+     */
+    public synchronized GameMemento load(int slot, GameEngine model) throws IOException {
+        int index = indexOffset(slot);
+        int length = this.mapping.getInt(index);
+        if (length <= 0) {
+            return null;
+        }
+        if (length > this.slotSize) {
+            throw new IOException("The save in slot " + slot + " is damaged");
+        }
+        if (this.mapping.getInt(index + 4) != MementoCodec.VERSION) {
+            throw new IOException("The save in slot " + slot + " was made by another version of the game");
+        }
+
+        ByteBuffer data = this.mapping.duplicate();
+        data.position(this.dataOffset + slot * this.slotSize);
+        data.limit(data.position() + length);
+        data = data.slice();
+        CRC32 crc = new CRC32();
+        crc.update(data.duplicate());
+        if ((int) crc.getValue() != this.mapping.getInt(index + 16)) {
+            throw new IOException("The save in slot " + slot + " is damaged");
+        }
+        try {
+            return MementoCodec.decode(data, model);
+        } catch (RuntimeException e) {
+            throw new IOException("The save in slot " + slot + " cannot be read", e);
+        }
+    }
+
+    /**
+     * Empties a slot.
+     * @param slot The slot
+     */
+    public synchronized void clear(int slot) {
+        this.mapping.putInt(indexOffset(slot), 0);
+    }
+
+    /**
+     * Writes the saves to the disk, so that they survive the machine going down.
+     */
+    public synchronized void flush() {
+        this.mapping.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        this.channel.close();
+    }
+
+    /**
+     * Encodes a memento into the scratch buffer, growing it up to the largest size a slot can grow to.
+     * @param memento The memento
+     * @return The scratch buffer, ready to be read
+     * @throws IOException If the memento does not fit in the largest slot
+     */
+    private ByteBuffer encode(GameMemento memento) throws IOException {
+        int maxSlotSize = maxSlotSize();
+        while (true) {
+            this.scratch.clear();
+            try {
+                MementoCodec.encode(memento, this.scratch);
+                this.scratch.flip();
+                return this.scratch;
+            } catch (BufferOverflowException e) {
+                if (this.scratch.capacity() >= maxSlotSize) {
+                    throw new IOException("The game is too large for a save file of " + this.slotCount
+                            + " slots, whose slots can hold at most " + maxSlotSize + " bytes");
+                }
+                this.scratch = ByteBuffer.allocate((int) Math.min(maxSlotSize, this.scratch.capacity() * 2L));
+            }
+        }
+    }
+
+    /**
+     * Makes every slot large enough for a game, remapping the file and moving the saves to their new slots.
+     * The header only gets the new size once every save has moved, and a save left half-moved by a crash
+     * fails its CRC32 check rather than loading wrong.
+     * @param length The size of the game, in bytes
+     * @throws IOException If the file cannot be remapped
+     */
+    private void growSlots(int length) throws IOException {
+        long slotSize = this.slotSize;
+        while (slotSize < length) {
+            slotSize *= 2;
+        }
+        int newSlotSize = (int) Math.min(slotSize, maxSlotSize());
+        MappedByteBuffer mapping = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                this.dataOffset + (long) this.slotCount * newSlotSize);
+
+        // Each save moves further into the file, so the last one moves first, before anything overwrites it
+        for (int slot = this.slotCount - 1; slot > 0; slot--) {
+            int saved = mapping.getInt(indexOffset(slot));
+            if (saved <= 0 || saved > this.slotSize) {
+                continue;
+            }
+            byte[] data = new byte[saved];
+            ByteBuffer from = mapping.duplicate();
+            from.position(this.dataOffset + slot * this.slotSize);
+            from.get(data);
+            ByteBuffer to = mapping.duplicate();
+            to.position(this.dataOffset + slot * newSlotSize);
+            to.put(data);
+        }
+        mapping.putInt(12, newSlotSize);
+        this.mapping = mapping;
+        this.slotSize = newSlotSize;
+    }
+
+    /**
+     * Gets the largest size the slots can grow to, for the file to stay within what can be mapped.
+     * @return The largest size of a slot, in bytes
+     */
+    private int maxSlotSize() {
+        return (Integer.MAX_VALUE - this.dataOffset) / this.slotCount;
+    }
+
+    /**
+     * Gets the offset of the index entry of a slot.
+     * @param slot The slot
+     * @return The offset of its index entry
+     */
+    private int indexOffset(int slot) {
+        if (slot < 0 || slot >= this.slotCount) {
+            throw new IndexOutOfBoundsException("No slot " + slot + " in a file of " + this.slotCount + " slots");
+        }
+        return HEADER_SIZE + slot * INDEX_ENTRY_SIZE;
+    }
+}
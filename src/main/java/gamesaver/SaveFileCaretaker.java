@@ -0,0 +1,61 @@
+package gamesaver;
+
+import stickman.model.GameEngine;
+
+import java.io.IOException;
+
+/**
+ * A caretaker keeping the memento in a slot of a SaveFile instead of in memory, so that it is still there
+ * after the game restarts.
+ */
+public class SaveFileCaretaker implements GameMementoCaretaker {
+
+    /**
+     * The file the memento is saved in.
+     */
+    private final SaveFile saveFile;
+
+    /**
+     * The slot of the file the memento is saved in.
+     */
+    private final int slot;
+
+    /**
+     * The game whose mementos are kept, which the loaded levels belong to.
+     */
+    private final GameEngine model;
+
+    /**
+     * Creates a new SaveFileCaretaker object.
+     * @param saveFile The file to save the memento in
+     * @param slot The slot of the file to use
+     * @param model The game whose mementos are kept
+     */
+    public SaveFileCaretaker(SaveFile saveFile, int slot, GameEngine model) {
+        if (slot < 0 || slot >= saveFile.getSlotCount()) {
+            throw new IllegalArgumentException("No slot " + slot + " in the save file");
+        }
+        this.saveFile = saveFile;
+        this.slot = slot;
+        this.model = model;
+    }
+
+    @Override
+    public GameMemento getMostRecentMemento() {
+        try {
+            return this.saveFile.load(this.slot, this.model);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public void overwriteMemento(GameMemento gameMemento) {
+        try {
+            this.saveFile.save(this.slot, gameMemento);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package observer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers the notifications of subjects during a batch (such as a game tick) and delivers them once the
+ * batch ends. Notifications are coalesced by observer: however many subjects notify an observer during a
+ * batch, it is updated once. Actions which have to run after the observers have been updated (such as
+ * resetting the game) can be deferred to the end of the batch too.
+ * Outside of a batch, notifications are delivered straight away.
+ */
+public class EventQueue {
+
+    /**
+     * The observers to update at the end of the batch, in the order they were first notified.
+     */
+    private final List<Observer> pendingObservers;
+
+    /**
+     * The actions to run once the observers are updated, in the order they were deferred.
+     */
+    private final List<Runnable> pendingActions;
+
+    /**
+     * The number of batches currently open. Batches can be nested; only the outermost one delivers.
+     */
+    private int depth;
+
+    /**
+     * The number of notifications posted.
+     */
+    private long postedEvents;
+
+    /**
+     * The number of observer updates delivered.
+     */
+    private long deliveredUpdates;
+
+    /**
+     * Creates a new EventQueue object.
+     */
+    public EventQueue() {
+        this.pendingObservers = new ArrayList<>();
+        this.pendingActions = new ArrayList<>();
+    }
+
+    /**
+     * Starts buffering notifications.
+     */
+    public void begin() {
+        this.depth++;
+    }
+
+    /**
+     * Ends a batch. When the outermost batch ends, every pending observer is updated once and the
+     * deferred actions run. Notifications posted meanwhile are delivered straight away.
+     */
+    public void end() {
+        if (this.depth == 0) {
+            throw new IllegalStateException("No batch has been started");
+        }
+        if (--this.depth > 0) {
+            return;
+        }
+        // The batch is closed by now, so anything posted during the updates is delivered straight away
+        for (int i = 0; i < this.pendingObservers.size(); i++) {
+            this.deliveredUpdates++;
+            this.pendingObservers.get(i).update();
+        }
+        this.pendingObservers.clear();
+        for (int i = 0; i < this.pendingActions.size(); i++) {
+            this.pendingActions.get(i).run();
+        }
+        this.pendingActions.clear();
+    }
+
+    /**
+     * Notifies the observers of a subject, at the end of the batch if one is open.
+     * @param subject The subject whose observers are notified
+     */
+    public void post(Subject subject) {
+        this.postedEvents++;
+        List<Observer> observers = subject.getObservers();
+        for (int i = 0; i < observers.size(); i++) {
+            Observer observer = observers.get(i);
+            if (this.depth == 0) {
+                this.deliveredUpdates++;
+                observer.update();
+            } else if (!this.pendingObservers.contains(observer)) {
+                // Only a handful of distinct observers exist, so a linear check is cheapest
+                this.pendingObservers.add(observer);
+            }
+        }
+    }
+
+    /**
+     * Runs an action once the observers have been updated at the end of the batch, or straight away
+     * if no batch is open. The same action deferred twice in a batch runs once.
+     * @param action The action to run
+     */
+    public void defer(Runnable action) {
+        if (this.depth == 0) {
+            action.run();
+        } else if (!this.pendingActions.contains(action)) {
+            this.pendingActions.add(action);
+        }
+    }
+
+    /**
+     * Checks whether notifications are currently being buffered.
+     * @return Whether a batch is open
+     */
+    public boolean isBatching() {
+        return this.depth > 0;
+    }
+
+    /**
+     * Gets the number of notifications posted so far.
+     * @return The number of notifications
+     */
+    public long getPostedEvents() {
+        return this.postedEvents;
+    }
+
+    /**
+     * Gets the number of observer updates delivered so far. The gap with the number of notifications
+     * posted is the work saved by coalescing.
+     * @return The number of updates
+     */
+    public long getDeliveredUpdates() {
+        return this.deliveredUpdates;
+    }
+}
@@ -24,4 +24,10 @@ public interface Subject {
      * @return List of observers
      * */
     List<Observer> getObservers();
+
+    /**
+     * This method sets the queue the notifications go through, so that they can be delivered in batches.
+     * Without a queue (null), observers are notified straight away
+     * */
+    void setEventQueue(EventQueue eventQueue);
 }
@@ -1,17 +1,57 @@
 package stickman;
 
+import gamesaver.AutosaveJournal;
+import gamesaver.RewindBuffer;
+import gamesaver.SaveFile;
+import gamesaver.SaveFileCaretaker;
 import javafx.application.Application;
 import javafx.stage.Stage;
+import stickman.model.FixedTimestep;
 import stickman.model.GameEngine;
+import stickman.headless.Autosaver;
+import stickman.headless.InputRecorder;
 import stickman.model.GameManager;
+import stickman.model.TickClock;
 import stickman.view.GameWindow;
 
+import java.io.IOException;
 import java.util.Map;
 
 public class App extends Application {
 
     /**
-     * The main method for the program. Launches the application and creates a window.
+     * The levels config file of the game.
+     */
+    private static final String LEVELS = "levels/levels.json";
+
+    /**
+     * Records the player's inputs when the game is started with --record.
+     */
+    private InputRecorder recorder;
+
+    /**
+     * The file the recording is written to.
+     */
+    private String recordingFile;
+
+    /**
+     * The file the game is saved to when started with --saveFile.
+     */
+    private SaveFile saveFile;
+
+    /**
+     * Keeps an autosave journal of the game when started with --autosave.
+     */
+    private Autosaver autosaver;
+
+    /**
+     * The game being played.
+     */
+    private GameManager manager;
+
+    /**
+     * Launches the application and creates a window. The program starts from Launcher, which also runs the
+     * game without a window; by the time this class is loaded, the JavaFX toolkit has already started.
      * @param args Command line arguments passed to the program
      */
     public static void main(String[] args) {
@@ -28,9 +68,60 @@ public class App extends Application {
                     " as your code will fail to compile on Java 10 and below.");
         }
 
-        GameEngine model = new GameManager("levels/levels.json");
-        GameWindow window = new GameWindow(model, 640, 400);
-        window.run();
+        // The simulation rate can be set with --tickRate=<ticks per second> and --maxCatchUpTicks=<ticks>
+        double tickRate = FixedTimestep.DEFAULT_TICK_RATE;
+        int maxCatchUpTicks = FixedTimestep.DEFAULT_MAX_CATCH_UP_TICKS;
+        if (params.containsKey("tickRate")) {
+            tickRate = Double.parseDouble(params.get("tickRate"));
+        }
+        if (params.containsKey("maxCatchUpTicks")) {
+            maxCatchUpTicks = Integer.parseInt(params.get("maxCatchUpTicks"));
+        }
+
+        FixedTimestep timestep = new FixedTimestep(tickRate, maxCatchUpTicks);
+        GameEngine model;
+        if (params.containsKey("record")) {
+            // --record=<file> saves the inputs on exit, timed by ticks so that the Replayer gets the same score
+            TickClock clock = new TickClock(timestep.getTickNanos());
+            this.manager = new GameManager(LEVELS, clock);
+            this.recorder = new InputRecorder(this.manager, LEVELS, clock.getTickNanos());
+            this.recordingFile = params.get("record");
+            model = this.recorder;
+        } else {
+            this.manager = new GameManager(LEVELS);
+            model = this.manager;
+        }
+        if (params.containsKey("saveFile")) {
+            // --saveFile=<file> keeps saved games across restarts, in the slot given by --saveSlot
+            try {
+                this.saveFile = new SaveFile(params.get("saveFile"));
+                int slot = Integer.parseInt(params.getOrDefault("saveSlot", "0"));
+                this.manager.setGameMementoCaretaker(new SaveFileCaretaker(this.saveFile, slot, this.manager));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (Boolean.parseBoolean(params.getOrDefault("rewind", "false"))) {
+            // --rewind=true keeps the last ticks of the game, which holding R rewinds through
+            this.manager.setRewindBuffer(new RewindBuffer());
+        }
+        if (params.containsKey("autosave")) {
+            // --autosave=<file> picks the game up where it was left, even after a crash, and keeps journaling it
+            String journal = params.get("autosave");
+            try {
+                long replayed = Autosaver.recover(journal, this.manager);
+                if (replayed >= 0) {
+                    System.out.println("Recovered the game from " + journal + ", replaying " + replayed + " ticks");
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            long fsyncMillis = Long.parseLong(params.getOrDefault("fsyncMillis",
+                    String.valueOf(AutosaveJournal.DEFAULT_FSYNC_INTERVAL_MILLIS)));
+            this.autosaver = new Autosaver(model, this.manager, new AutosaveJournal(journal, fsyncMillis));
+            model = this.autosaver;
+        }
+        GameWindow window = new GameWindow(model, 640, 400, timestep);
 
         primaryStage.setTitle("Stickman");
         primaryStage.setScene(window.getScene());
@@ -38,4 +129,27 @@ public class App extends Application {
 
         window.run();
     }
+
+    @Override
+    public void stop() {
+        if (this.autosaver != null) {
+            this.autosaver.close();
+        }
+        if (this.saveFile != null) {
+            // Saves still being written would be lost once the file is closed
+            this.manager.awaitBackgroundSaves();
+            try {
+                this.saveFile.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (this.recorder != null) {
+            try {
+                this.recorder.write(this.recordingFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 }
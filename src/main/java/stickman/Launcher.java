@@ -0,0 +1,28 @@
+package stickman;
+
+import javafx.application.Application;
+import stickman.headless.HeadlessApp;
+
+import java.util.Arrays;
+
+/**
+ * The entry point of the program. It is not an Application itself, so the JavaFX launcher does not start
+ * the toolkit before main runs, and the game can be run without a display.
+ */
+public class Launcher {
+
+    private Launcher() {
+    }
+
+    /**
+     * Starts the game in a window, or without a window (see HeadlessApp) when given --headless.
+     * @param args Command line arguments passed to the program
+     */
+    public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--headless")) {
+            HeadlessApp.main(args);
+            return;
+        }
+        Application.launch(App.class, args);
+    }
+}
@@ -3,6 +3,8 @@ package stickman.entity;
 import gamesaver.Prototype;
 import observer.Subject;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface describing the behaviours of Entity objects. All objects
  * in the level that are drawn implement this interface.
@@ -51,12 +53,46 @@ public interface Entity extends Subject, Prototype {
      */
     boolean isSolid();
 
+    /**
+     * Returns true if the entity never changes once it is in a level, so copies of the level can share it
+     * instead of copying it. Immutable entities must be still and not interact with anything.
+     * @return Whether the entity is immutable
+     */
+    default boolean isImmutable() {
+        return false;
+    }
+
     /**
      * Returns true if the entity is active (and hence shouldn't be deleted).
      * @return Whether the entity is active
      */
     boolean isActive();
 
+    /**
+     * Gets the dense id given to the entity by the level it is in.
+     * @return The entity's id, or -1 if it has not been added to a level
+     */
+    int getEntityId();
+
+    /**
+     * Sets the dense id of the entity. Only the level the entity is in should call this.
+     * @param entityId The entity's id within its level
+     */
+    void setEntityId(int entityId);
+
+    /**
+     * Writes the state of the entity for a saved game. Each type of entity reads it back with its static
+     * decode method.
+     * @param buffer Where to write the state
+     */
+    void encode(ByteBuffer buffer);
+
+    /**
+     * Reads the state written by encode back into this entity, which must be of the same type.
+     * @param buffer The encoded state
+     */
+    void restore(ByteBuffer buffer);
+
     /**
      * Returns true if the two entities are colliding (based on AAB)
      * @param other The other entity
@@ -76,5 +112,11 @@ public interface Entity extends Subject, Prototype {
     enum Layer{
         BACKGROUND, FOREGROUND, EFFECT
     }
+
+    /**
+     * Copies the entity without its observers, which belong to the level the entity is in. Whoever copies
+     * the entity into a level attaches that level to the copy.
+     * @return The copy of the entity
+     */
     Entity copy();
 }
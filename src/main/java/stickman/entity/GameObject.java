@@ -1,9 +1,12 @@
 package stickman.entity;
 
+import gamesaver.MementoCodec;
 import gamesaver.Prototype;
+import observer.EventQueue;
 import observer.Observer;
 import observer.Subject;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,11 +50,21 @@ public abstract class GameObject implements Entity {
      * Whether the entity is active. (This determines the livelihood of the object)
      */
     protected boolean active;
+
+    /**
+     * The dense id given by the level the entity is in (-1 when outside of a level).
+     */
+    protected int entityId;
     /**
      * Observers of this entity. Observers will get notified if there are any changes.
      * */
     List<Observer> observers;
 
+    /**
+     * The queue notifications go through, set by the level the entity is in (null to notify straight away).
+     */
+    private EventQueue eventQueue;
+
     /**
      * Constructs a GameObject object.
      * @param imagePath The path to the sprite.
@@ -69,6 +82,7 @@ public abstract class GameObject implements Entity {
         this.height = height;
         this.layer = layer;
         this.active = true;
+        this.entityId = -1;
         this.observers = new ArrayList<>();
     }
 
@@ -107,6 +121,46 @@ public abstract class GameObject implements Entity {
         return this.active;
     }
 
+    @Override
+    public int getEntityId() {
+        return this.entityId;
+    }
+
+    @Override
+    public void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        buffer.putDouble(this.xPos);
+        buffer.putDouble(this.yPos);
+        encodeState(buffer);
+    }
+
+    @Override
+    public void restore(ByteBuffer buffer) {
+        this.xPos = buffer.getDouble();
+        this.yPos = buffer.getDouble();
+        decodeState(buffer);
+    }
+
+    /**
+     * Writes the state of the entity which is not given to its constructor, after its position.
+     * @param buffer Where to write the state
+     */
+    protected void encodeState(ByteBuffer buffer) {
+        MementoCodec.putBoolean(this.active, buffer);
+    }
+
+    /**
+     * Reads back the state written by encodeState.
+     * @param buffer The encoded state
+     */
+    protected void decodeState(ByteBuffer buffer) {
+        this.active = MementoCodec.getBoolean(buffer);
+    }
+
     @Override
     public void attach(Observer observer) {
         if (observer != null) {
@@ -123,6 +177,11 @@ public abstract class GameObject implements Entity {
 
     @Override
     public void notifyObservers() {
+        if (this.eventQueue != null) {
+            // Delivered once the level's tick is over
+            this.eventQueue.post(this);
+            return;
+        }
         // run update with the observer to let it knows about the level updates
         this.observers.forEach(Observer::update);
     }
@@ -132,5 +191,10 @@ public abstract class GameObject implements Entity {
         return this.observers;
     }
 
+    @Override
+    public void setEventQueue(EventQueue eventQueue) {
+        this.eventQueue = eventQueue;
+    }
+
 
 }
@@ -1,6 +1,9 @@
 package stickman.entity;
 
+import observer.Observer;
 import stickman.level.PointReceiver;
+
+import java.util.List;
 /**
 * This interface acts as a donator to PointReceiver
 * */
@@ -12,6 +15,19 @@ public interface PointGiver {
     default void givePoint(PointReceiver receiver) {
         receiver.absorbPoint(getPointValue());
     }
+    /**
+     * This function queues the points of this object with the receiver observing it, which is the level
+     * the object is in: copies of the object are observed by their own level only. It is called once, when
+     * the object dies, so scoring never has to look for dead objects
+     * @param observers : The observers of the object
+     * */
+    default void queuePoint(List<Observer> observers) {
+        for (Observer observer : observers) {
+            if (observer instanceof PointReceiver) {
+                ((PointReceiver) observer).queuePoint(getPointValue());
+            }
+        }
+    }
     /**
     * This function returns the points of this object
     * */
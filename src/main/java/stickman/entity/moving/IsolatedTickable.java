@@ -0,0 +1,37 @@
+package stickman.entity.moving;
+
+import stickman.entity.Entity;
+
+import java.util.List;
+
+/**
+ * A MovingEntity whose tick can be split in two, so that many of them can be ticked concurrently.
+ * Ticking such entities in parallel works as follows:
+ * <ol>
+ *     <li>prepareTick is called on every entity of the batch, from several threads at once, while nothing
+ *     else in the level changes. It works out the entity's state after the tick and keeps it aside.
+ *     It may only read the solid entities of the level (which never move), the hero's x-coordinate and
+ *     floor height it is given, and the entity's own state. It must not read the state of any other moving
+ *     entity, and it must not change anything another entity or the level can see: not the entity's
+ *     position or velocity, not its observers (so no dying and no points), and not the list of entities.</li>
+ *     <li>applyTick is then called on each entity in turn, on the game's thread, and makes the state kept
+ *     aside the entity's own. It only writes the entity's own state.</li>
+ * </ol>
+ * prepareTick followed by applyTick must leave the entity exactly as tick would.
+ */
+public interface IsolatedTickable extends MovingEntity {
+
+    /**
+     * Works out the entity's state after this tick and keeps it aside, without changing the entity.
+     * May run on any thread, at the same time as the prepareTick of other entities.
+     * @param entities The entities of the level, of which only the solid ones may be read
+     * @param heroX The x-coordinate of the hero
+     * @param floorHeight The height of the floor
+     */
+    void prepareTick(List<Entity> entities, double heroX, double floorHeight);
+
+    /**
+     * Makes the state worked out by the last prepareTick the entity's own.
+     */
+    void applyTick();
+}
@@ -1,6 +1,7 @@
 package stickman.entity.moving;
 
 import stickman.entity.Entity;
+import stickman.level.EntityList;
 
 import java.util.List;
 
@@ -35,6 +36,11 @@ public interface MovingEntity extends Entity {
             res = getXPos();
         }
 
+        // Only look at the cells along the ray when the level keeps an index of its solids
+        if (entities instanceof EntityList && ((EntityList) entities).getSolidGrid() != null) {
+            return ((EntityList) entities).getSolidGrid().horizontalRaycast(this, left, res);
+        }
+
         for (Entity entity : entities) {
             if (entity.isSolid() && entity != this) {
                 if (getYPos() < entity.getYPos() + entity.getHeight() && getYPos() + getHeight() > entity.getYPos()) {
@@ -69,6 +75,11 @@ public interface MovingEntity extends Entity {
             res = getYPos();
         }
 
+        // Only look at the cells along the ray when the level keeps an index of its solids
+        if (entities instanceof EntityList && ((EntityList) entities).getSolidGrid() != null) {
+            return ((EntityList) entities).getSolidGrid().verticalRaycast(this, up, res);
+        }
+
         for (Entity entity : entities) {
             if (entity.isSolid() && entity != this) {
                 if (getXPos() < entity.getXPos() + entity.getWidth() && getXPos() + getWidth() > entity.getXPos()) {
@@ -3,6 +3,7 @@ package stickman.entity.moving;
 import stickman.entity.Entity;
 import stickman.entity.GameObject;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -36,6 +37,20 @@ public abstract class MovingObject extends GameObject implements MovingEntity {
 
     }
 
+    @Override
+    protected void encodeState(ByteBuffer buffer) {
+        super.encodeState(buffer);
+        buffer.putDouble(this.xVelocity);
+        buffer.putDouble(this.yVelocity);
+    }
+
+    @Override
+    protected void decodeState(ByteBuffer buffer) {
+        super.decodeState(buffer);
+        this.xVelocity = buffer.getDouble();
+        this.yVelocity = buffer.getDouble();
+    }
+
     @Override
     public void die() {
         this.active = false;
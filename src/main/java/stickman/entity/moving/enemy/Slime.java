@@ -1,19 +1,23 @@
 package stickman.entity.moving.enemy;
 
+import gamesaver.MementoCodec;
 import stickman.entity.Entity;
 import stickman.entity.Interactable;
 import stickman.entity.PointGiver;
+import stickman.entity.moving.IsolatedTickable;
 import stickman.entity.moving.MovingObject;
 import stickman.entity.moving.player.Controllable;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * Standard enemy type that kills the player on impact. Bases its movement
  * on the provided EnemyStrategy object.
  * + Entity should be the point giver to the Level
+ * + Its tick only reads the platforms and the hero's x-coordinate, so slimes can be ticked in parallel
  */
-public class Slime extends MovingObject implements Interactable, PointGiver {
+public class Slime extends MovingObject implements Interactable, PointGiver, IsolatedTickable {
     /**
     * The worth of the slime
     * */
@@ -26,6 +30,11 @@ public class Slime extends MovingObject implements Interactable, PointGiver {
      * The strategy the slime is using.
      */
     private EnemyStrategy strategy;
+    /**
+     * The slime a tick is worked out on by prepareTick, so that this one does not change until the tick
+     * is applied. It is not part of the slime's state. Null until the slime is first ticked in parallel
+     */
+    private Slime next;
 
     /**
      *
@@ -60,6 +69,44 @@ public class Slime extends MovingObject implements Interactable, PointGiver {
         }
     }
 
+    @Override
+    public void prepareTick(List<Entity> entities, double heroX, double floorHeight) {
+        if (this.next == null) {
+            this.next = new Slime(this.imagePath, this.xPos, this.yPos, this.left, this.strategy);
+        }
+        // The tick only reads the platforms and the slime's own state, so ticking a copy gives the same result
+        copyMovement(this, this.next);
+        this.next.tick(entities, heroX, floorHeight);
+    }
+
+    @Override
+    public void applyTick() {
+        copyMovement(this.next, this);
+    }
+
+    /**
+     * Copies what a tick reads and changes from one slime to another.
+     * @param from The slime to copy from
+     * @param to The slime to copy to
+     */
+    private static void copyMovement(Slime from, Slime to) {
+        to.xPos = from.xPos;
+        to.yPos = from.yPos;
+        to.xVelocity = from.xVelocity;
+        to.yVelocity = from.yVelocity;
+        to.left = from.left;
+        to.strategy = from.strategy;
+    }
+
+    @Override
+    public void die() {
+        // Only the first death is worth points
+        if (this.active) {
+            queuePoint(getObservers());
+        }
+        super.die();
+    }
+
     @Override
     public boolean isSolid() {
         return false;
@@ -75,14 +122,59 @@ public class Slime extends MovingObject implements Interactable, PointGiver {
         return POINTS;
     }
 
+    /**
+     * Checks whether the slime is moving left.
+     * @return Whether the slime is moving left
+     */
+    public boolean isMovingLeft() {
+        return this.left;
+    }
+
+    /**
+     * Gets the strategy the slime moves by.
+     * @return The strategy, which may be null
+     */
+    public EnemyStrategy getStrategy() {
+        return this.strategy;
+    }
+
+    @Override
+    protected void encodeState(ByteBuffer buffer) {
+        super.encodeState(buffer);
+        MementoCodec.putBoolean(this.left, buffer);
+        MementoCodec.putBoolean(this.strategy instanceof FollowStrategy, buffer);
+        MementoCodec.putString(this.imagePath, buffer);
+    }
+
+    @Override
+    protected void decodeState(ByteBuffer buffer) {
+        super.decodeState(buffer);
+        this.left = MementoCodec.getBoolean(buffer);
+        boolean follow = MementoCodec.getBoolean(buffer);
+        // Strategies have no state, so any one of the same type will do
+        if (this.strategy == null || follow != this.strategy instanceof FollowStrategy) {
+            this.strategy = follow ? new FollowStrategy() : new DumbStrategy();
+        }
+        this.imagePath = MementoCodec.getString(buffer);
+    }
+
+    /**
+     * Reads back a slime written by encode.
+     * @param buffer The encoded slime
+     * @return The slime
+     */
+    public static Slime decode(ByteBuffer buffer) {
+        Slime slime = new Slime(null, buffer.getDouble(), buffer.getDouble(), false, null);
+        slime.decodeState(buffer);
+        return slime;
+    }
+
     @Override
     public Slime copy() {
         Slime slime = new Slime(imagePath, xPos, yPos, left, strategy);
         slime.active = this.active;
         slime.xVelocity = this.xVelocity;
         slime.yVelocity = this.yVelocity;
-        slime.getObservers().addAll(this.getObservers());
-//        this.getObservers().forEach((slime::attach));
         return slime;
     }
 }
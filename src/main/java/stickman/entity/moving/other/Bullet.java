@@ -3,6 +3,7 @@ package stickman.entity.moving.other;
 import stickman.entity.Entity;
 import stickman.entity.moving.MovingObject;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -54,13 +55,23 @@ public class Bullet extends MovingObject implements Projectile {
         this.active = false;
     }
 
+    /**
+     * Reads back a bullet written by encode.
+     * @param buffer The encoded bullet
+     * @return The bullet
+     */
+    public static Bullet decode(ByteBuffer buffer) {
+        Bullet bullet = new Bullet(buffer.getDouble(), buffer.getDouble(), true);
+        bullet.decodeState(buffer);
+        return bullet;
+    }
+
     @Override
     public Bullet copy() {
         Bullet gameObject = new Bullet(xPos, yPos, true);
         gameObject.active = this.active;
         gameObject.xVelocity = this.xVelocity;
         gameObject.yVelocity = this.yVelocity;
-        this.getObservers().forEach((gameObject::attach));
         return gameObject;
     }
 }
@@ -22,7 +22,8 @@ public interface Projectile extends MovingEntity {
      * @param movingEntities List of moving entities in the level
      */
     default void movingCollision(List<MovingEntity> movingEntities) {
-        for (MovingEntity movingEntity : movingEntities) {
+        for (int i = 0; i < movingEntities.size(); i++) {
+            MovingEntity movingEntity = movingEntities.get(i);
             if (movingEntity != this) {
                 if (this.checkCollide(movingEntity) && movingEntity.isActive()) {
                     movingEntity.die();
@@ -39,7 +40,8 @@ public interface Projectile extends MovingEntity {
      * @param entities The static entities in the level
      */
     default void staticCollision(List<Entity> entities) {
-        for (Entity entity : entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
             if (entity != this) {
                 if (this.checkCollide(entity) && entity.isSolid()) {
                     this.stop();
@@ -1,9 +1,11 @@
 package stickman.entity.moving.player;
 
+import gamesaver.MementoCodec;
 import stickman.entity.Entity;
 import stickman.entity.moving.MovingObject;
 import stickman.level.Level;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -223,6 +225,43 @@ public class StickMan extends MovingObject implements Controllable {
         this.imagePath = "ch_stand1.png";
     }
 
+    @Override
+    protected void encodeState(ByteBuffer buffer) {
+        super.encodeState(buffer);
+        MementoCodec.putBoolean(this.leftFacing, buffer);
+        MementoCodec.putBoolean(this.size == Size.LARGE, buffer);
+        MementoCodec.putBoolean(this.upgraded, buffer);
+        buffer.putDouble(this.width);
+        buffer.putDouble(this.height);
+        MementoCodec.putString(this.imagePath, buffer);
+    }
+
+    @Override
+    protected void decodeState(ByteBuffer buffer) {
+        super.decodeState(buffer);
+        this.leftFacing = MementoCodec.getBoolean(buffer);
+        this.size = MementoCodec.getBoolean(buffer) ? Size.LARGE : Size.NORMAL;
+        this.upgraded = MementoCodec.getBoolean(buffer);
+        this.width = buffer.getDouble();
+        this.height = buffer.getDouble();
+        this.imagePath = MementoCodec.getString(buffer);
+    }
+
+    /**
+     * Reads back a stickman written by encode. Like a copy, it does not belong to a level until it is given one.
+     * @param buffer The encoded stickman
+     * @return The stickman
+     */
+    public static StickMan decode(ByteBuffer buffer) {
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        StickMan stickMan = new StickMan(x, y, "normal", null);
+        // The constructor stands the stickman on the given y-coordinate, but the saved one is already in place
+        stickMan.yPos = y;
+        stickMan.decodeState(buffer);
+        return stickMan;
+    }
+
     @Override
     public StickMan copy() {
         StickMan tempStickMan = new StickMan(xPos, yPos, "normal", null);
@@ -237,7 +276,6 @@ public class StickMan extends MovingObject implements Controllable {
         tempStickMan.xPos = this.xPos;
         tempStickMan.yPos = this.yPos;
         tempStickMan.imagePath = this.imagePath;
-        this.getObservers().forEach((tempStickMan::attach));
         return tempStickMan;
     }
 
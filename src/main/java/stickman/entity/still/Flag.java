@@ -4,6 +4,8 @@ import stickman.entity.GameObject;
 import stickman.entity.moving.player.Controllable;
 import stickman.entity.Interactable;
 
+import java.nio.ByteBuffer;
+
 /**
  * Flag object that the player can interact with to complete the level.
  */
@@ -32,7 +34,17 @@ public class Flag extends GameObject implements Interactable {
     public Flag copy() {
         Flag flag = new Flag(xPos, yPos);
         flag.active = this.active;
-        this.getObservers().forEach((flag::attach));
+        return flag;
+    }
+
+    /**
+     * Reads back a flag written by encode.
+     * @param buffer The encoded flag
+     * @return The flag
+     */
+    public static Flag decode(ByteBuffer buffer) {
+        Flag flag = new Flag(buffer.getDouble(), buffer.getDouble());
+        flag.decodeState(buffer);
         return flag;
     }
 }
@@ -1,6 +1,8 @@
 package stickman.entity.still;
 
 import stickman.entity.GameObject;
+
+import java.nio.ByteBuffer;
 /**
  * The losing message displayed after collecting the flag.
  */
@@ -20,11 +22,26 @@ public class Lose extends GameObject {
         return false;
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public Lose copy() {
         Lose lose = new Lose(xPos, yPos);
         lose.active = this.active;
-        this.getObservers().forEach((lose::attach));
+        return lose;
+    }
+
+    /**
+     * Reads back a lose written by encode.
+     * @param buffer The encoded lose
+     * @return The lose
+     */
+    public static Lose decode(ByteBuffer buffer) {
+        Lose lose = new Lose(buffer.getDouble(), buffer.getDouble());
+        lose.decodeState(buffer);
         return lose;
     }
 }
@@ -6,6 +6,8 @@ import stickman.entity.moving.player.Controllable;
 import stickman.entity.Interactable;
 import stickman.level.PointReceiver;
 
+import java.nio.ByteBuffer;
+
 /**
  * Mushroom object that the player can pick up to get the ability to shoot.
  */
@@ -34,7 +36,8 @@ public class Mushroom extends GameObject implements Interactable, PointGiver {
         if (this.active) {
             System.out.println("Mushroom DIED");
             this.active = false;
-            // Notify observers when it dies
+            // Hand the points over and notify observers when it dies
+            queuePoint(getObservers());
             notifyObservers();
             hero.upgrade();
         }
@@ -49,7 +52,17 @@ public class Mushroom extends GameObject implements Interactable, PointGiver {
     public Mushroom copy() {
         Mushroom mushroom = new Mushroom(xPos, yPos);
         mushroom.active = this.active;
-        this.getObservers().forEach((mushroom::attach));
+        return mushroom;
+    }
+
+    /**
+     * Reads back a mushroom written by encode.
+     * @param buffer The encoded mushroom
+     * @return The mushroom
+     */
+    public static Mushroom decode(ByteBuffer buffer) {
+        Mushroom mushroom = new Mushroom(buffer.getDouble(), buffer.getDouble());
+        mushroom.decodeState(buffer);
         return mushroom;
     }
 }
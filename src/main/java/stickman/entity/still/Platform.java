@@ -2,6 +2,8 @@ package stickman.entity.still;
 
 import stickman.entity.GameObject;
 
+import java.nio.ByteBuffer;
+
 /**
  * The platforms the player/enemies can walk on.
  */
@@ -20,11 +22,26 @@ public class Platform extends GameObject {
     public boolean isSolid() {
         return true;
     }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
     @Override
     public Platform copy() {
         Platform platform = new Platform(xPos, yPos);
         platform.active = this.active;
-        this.getObservers().forEach((platform::attach));
+        return platform;
+    }
+
+    /**
+     * Reads back a platform written by encode.
+     * @param buffer The encoded platform
+     * @return The platform
+     */
+    public static Platform decode(ByteBuffer buffer) {
+        Platform platform = new Platform(buffer.getDouble(), buffer.getDouble());
+        platform.decodeState(buffer);
         return platform;
     }
 }
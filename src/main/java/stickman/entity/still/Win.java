@@ -2,6 +2,8 @@ package stickman.entity.still;
 
 import stickman.entity.GameObject;
 
+import java.nio.ByteBuffer;
+
 /**
  * The win message displayed after collecting the flag.
  */
@@ -22,11 +24,26 @@ public class Win extends GameObject {
         return false;
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public Win copy() {
         Win win = new Win(xPos, yPos);
         win.active = this.active;
-        this.getObservers().forEach((win::attach));
+        return win;
+    }
+
+    /**
+     * Reads back a win written by encode.
+     * @param buffer The encoded win
+     * @return The win
+     */
+    public static Win decode(ByteBuffer buffer) {
+        Win win = new Win(buffer.getDouble(), buffer.getDouble());
+        win.decodeState(buffer);
         return win;
     }
 }
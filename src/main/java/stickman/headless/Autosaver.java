@@ -0,0 +1,270 @@
+package stickman.headless;
+
+import gamesaver.AutosaveJournal;
+import gamesaver.GameMemento;
+import stickman.level.Level;
+import stickman.model.GameEngine;
+import stickman.model.GameManager;
+import stickman.model.GameState;
+import stickman.model.Timer;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Wraps a GameEngine and keeps an AutosaveJournal of the game: the state of the game every so often, and
+ * every input in between stamped with the number of ticks run before it arrived, like an InputRecorder.
+ * Anything which changes the game other than by playing it (loading, rewinding or resetting) is followed
+ * by a new state, since it cannot be replayed from the inputs alone. Ticks spent rewinding are not counted.
+ * <p>
+ * Every tick only counts itself and hands the count to the journal; capturing a state is a copy of the
+ * level, and encoding and writing it happen on the journal's own thread.
+ */
+public class Autosaver implements GameEngine {
+
+    /**
+     * The default number of ticks between two states, ten seconds at the default tick rate.
+     */
+    public static final long DEFAULT_STATE_INTERVAL = 1200;
+
+    /**
+     * The engine receiving the inputs.
+     */
+    private final GameEngine engine;
+
+    /**
+     * The game whose state is captured.
+     */
+    private final GameManager manager;
+
+    /**
+     * The journal the game is kept in.
+     */
+    private final AutosaveJournal journal;
+
+    /**
+     * The number of ticks between two states.
+     */
+    private final long stateInterval;
+
+    /**
+     * The number of ticks run so far, not counting the ones spent rewinding.
+     */
+    private long tick;
+
+    /**
+     * The tick the latest state was captured at.
+     */
+    private long stateTick;
+
+    /**
+     * Whether a state has to be captured at the end of the next tick.
+     */
+    private boolean stateDue;
+
+    /**
+     * Whether the game is rewinding.
+     */
+    private boolean rewinding;
+
+    /**
+     * Creates a new Autosaver object, capturing a state every DEFAULT_STATE_INTERVAL ticks.
+     * @param engine The engine to journal the inputs of, which may itself wrap the game
+     * @param manager The game whose state is captured
+     * @param journal The journal to keep the game in
+     */
+    public Autosaver(GameEngine engine, GameManager manager, AutosaveJournal journal) {
+        this(engine, manager, journal, DEFAULT_STATE_INTERVAL);
+    }
+
+    /**
+     * Creates a new Autosaver object.
+     * @param engine The engine to journal the inputs of, which may itself wrap the game
+     * @param manager The game whose state is captured
+     * @param journal The journal to keep the game in
+     * @param stateInterval The number of ticks between two states
+     */
+    public Autosaver(GameEngine engine, GameManager manager, AutosaveJournal journal, long stateInterval) {
+        this.engine = engine;
+        this.manager = manager;
+        this.journal = journal;
+        this.stateInterval = stateInterval;
+        // Inputs can only be replayed on top of a state, so the first tick captures one
+        this.stateDue = true;
+    }
+
+    /**
+     * Recovers a game from its journal: restores the latest state and replays the inputs after it,
+     * tick by tick. The ticks are replayed as fast as possible, so a game timed by the system clock
+     * does not count them towards its timer.
+     * @param path The path of the journal
+     * @param manager The game to recover
+     * @return The number of ticks replayed, or -1 if there was nothing to recover
+     * @throws IOException If the journal cannot be read
+     */
+    public static long recover(String path, GameManager manager) throws IOException {
+        AutosaveJournal.Recovery recovery = AutosaveJournal.recover(path, manager);
+        if (recovery == null) {
+            return -1;
+        }
+        manager.restoreMemento(recovery.getMemento());
+
+        InputCommand[] commands = InputCommand.values();
+        int next = 0;
+        for (long tick = recovery.getStateTick(); tick <= recovery.getLastTick(); tick++) {
+            while (next < recovery.getInputCount() && recovery.getInputTick(next) <= tick) {
+                commands[recovery.getInputCode(next)].apply(manager);
+                next++;
+            }
+            if (tick < recovery.getLastTick()) {
+                manager.tick();
+            }
+        }
+        return recovery.getLastTick() - recovery.getStateTick();
+    }
+
+    /**
+     * Journals an input at the current tick. Inputs given while rewinding are not replayed.
+     * @param command The input
+     */
+    private void journal(InputCommand command) {
+        if (!this.rewinding) {
+            this.journal.appendInput(this.tick, (byte) command.ordinal());
+        }
+    }
+
+    /**
+     * Writes what is left of the journal to the disk and closes it.
+     */
+    public void close() {
+        this.journal.close();
+    }
+
+    @Override
+    public Level getCurrentLevel() {
+        return this.engine.getCurrentLevel();
+    }
+
+    @Override
+    public boolean jump() {
+        journal(InputCommand.JUMP);
+        return this.engine.jump();
+    }
+
+    @Override
+    public boolean moveLeft() {
+        journal(InputCommand.MOVE_LEFT);
+        return this.engine.moveLeft();
+    }
+
+    @Override
+    public boolean moveRight() {
+        journal(InputCommand.MOVE_RIGHT);
+        return this.engine.moveRight();
+    }
+
+    @Override
+    public boolean stopMoving() {
+        journal(InputCommand.STOP_MOVING);
+        return this.engine.stopMoving();
+    }
+
+    @Override
+    public void tick() {
+        this.engine.tick();
+        if (this.rewinding) {
+            return;
+        }
+        this.tick++;
+        this.journal.setTick(this.tick);
+        if (this.stateDue || this.tick - this.stateTick >= this.stateInterval) {
+            this.journal.appendState(this.tick, this.manager.captureMemento());
+            this.stateTick = this.tick;
+            this.stateDue = false;
+        }
+    }
+
+    @Override
+    public void shoot() {
+        journal(InputCommand.SHOOT);
+        this.engine.shoot();
+    }
+
+    @Override
+    public void reset() {
+        this.stateDue = true;
+        this.engine.reset();
+    }
+
+    @Override
+    public Timer getTimer() {
+        return this.engine.getTimer();
+    }
+
+    @Override
+    public void updatePoint() {
+        this.engine.updatePoint();
+    }
+
+    @Override
+    public int getCurrentLevelPoint() {
+        return this.engine.getCurrentLevelPoint();
+    }
+
+    @Override
+    public void resetCurrentPoint() {
+        this.engine.resetCurrentPoint();
+    }
+
+    @Override
+    public int getCurrentTotalPoint() {
+        return this.engine.getCurrentTotalPoint();
+    }
+
+    @Override
+    public GameState getGameState() {
+        return this.engine.getGameState();
+    }
+
+    @Override
+    public int getStickmanLives() {
+        return this.engine.getStickmanLives();
+    }
+
+    @Override
+    public void setRewinding(boolean rewinding) {
+        if (this.rewinding && !rewinding) {
+            // Wherever the rewind ended up is the new starting point of the replay
+            this.stateDue = true;
+        }
+        this.rewinding = rewinding;
+        this.engine.setRewinding(rewinding);
+    }
+
+    @Override
+    public GameMemento saveMemento() {
+        return this.engine.saveMemento();
+    }
+
+    @Override
+    public void loadMemento() {
+        this.stateDue = true;
+        this.engine.loadMemento();
+    }
+
+    @Override
+    public void saveMementoInBackground(Consumer<GameMemento> onSaved) {
+        this.engine.saveMementoInBackground(onSaved);
+    }
+
+    @Override
+    public void loadMementoInBackground(Runnable onLoaded) {
+        // The game is swapped in at the start of a tick, which has to end with a new state
+        this.engine.loadMementoInBackground(() -> {
+            this.stateDue = true;
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        });
+    }
+}
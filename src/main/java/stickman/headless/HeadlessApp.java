@@ -0,0 +1,233 @@
+package stickman.headless;
+
+import gamesaver.AutosaveJournal;
+import gamesaver.RewindBuffer;
+import gamesaver.SaveFile;
+import gamesaver.SaveFileCaretaker;
+import stickman.model.FixedTimestep;
+import stickman.model.GameEngine;
+import stickman.model.GameManager;
+import stickman.model.TickClock;
+import stickman.server.SessionManager;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for running a game without a window.
+ * Arguments use the same --name=value form as the windowed game:
+ * <ul>
+ *     <li>--levels=&lt;file&gt; : The levels config file (levels/levels.json by default)</li>
+ *     <li>--input=&lt;file&gt; : An input script for ScriptedInput (no input by default)</li>
+ *     <li>--maxTicks=&lt;ticks&gt; : The most ticks to simulate (100000 by default)</li>
+ *     <li>--sessions=&lt;count&gt; : Runs that many games at once on a SessionManager, at a fixed tick rate,
+ *     instead of one game as fast as possible</li>
+ *     <li>--threads=&lt;count&gt; : The number of threads ticking the sessions (one per processor by default)</li>
+ *     <li>--tickRate=&lt;ticks&gt; : The number of ticks per second of every session</li>
+ *     <li>--record=&lt;file&gt; : Records the inputs of the game to a file, for the Replayer</li>
+ *     <li>--replay=&lt;file&gt;[,&lt;file&gt;...] : Replays recordings and checks that they end as recorded</li>
+ *     <li>--saveFile=&lt;file&gt; : Saves and loads the game to a slot of a save file instead of memory</li>
+ *     <li>--saveSlot=&lt;slot&gt; : The slot of the save file to use (0 by default)</li>
+ *     <li>--rewind=true : Keeps the last ticks of the game, so that the rewind command works</li>
+ *     <li>--autosave=&lt;file&gt; : Recovers the game from an autosave journal, then keeps journaling it</li>
+ *     <li>--fsyncMillis=&lt;ms&gt; : The time between two fsyncs of the journal (1000 by default)</li>
+ * </ul>
+ */
+public class HeadlessApp {
+
+    /**
+     * The default levels config file.
+     */
+    private static final String DEFAULT_LEVELS = "levels/levels.json";
+
+    /**
+     * The default maximum number of ticks to simulate.
+     */
+    private static final long DEFAULT_MAX_TICKS = 100000;
+
+    /**
+     * Runs one game without a window and prints its summary.
+     * @param args Command line arguments passed to the program
+     */
+    public static void main(String[] args) {
+        Map<String, String> params = parseNamed(args);
+
+        if (params.containsKey("replay")) {
+            replay(params.get("replay").split(","));
+            return;
+        }
+
+        InputSource input = (tick, engine) -> { };
+        if (params.containsKey("input")) {
+            try {
+                input = ScriptedInput.fromFile(params.get("input"));
+            } catch (IOException e) {
+                System.err.println("Could not read the input script: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        long maxTicks = DEFAULT_MAX_TICKS;
+        if (params.containsKey("maxTicks")) {
+            maxTicks = Long.parseLong(params.get("maxTicks"));
+        }
+
+        if (params.containsKey("sessions")) {
+            runSessions(params, maxTicks);
+            return;
+        }
+
+        // Time the game by its ticks, so that the score does not depend on how fast it is simulated
+        String levels = params.getOrDefault("levels", DEFAULT_LEVELS);
+        TickClock clock = new TickClock();
+        GameManager manager = new GameManager(levels, clock);
+        GameEngine model = manager;
+        SaveFile saveFile = null;
+        if (params.containsKey("saveFile")) {
+            try {
+                saveFile = new SaveFile(params.get("saveFile"));
+            } catch (IOException e) {
+                System.err.println("Could not open the save file: " + e.getMessage());
+                System.exit(1);
+            }
+            int slot = Integer.parseInt(params.getOrDefault("saveSlot", "0"));
+            manager.setGameMementoCaretaker(new SaveFileCaretaker(saveFile, slot, manager));
+        }
+        if (Boolean.parseBoolean(params.getOrDefault("rewind", "false"))) {
+            manager.setRewindBuffer(new RewindBuffer());
+        }
+        InputRecorder recorder = null;
+        if (params.containsKey("record")) {
+            recorder = new InputRecorder(model, levels, clock.getTickNanos());
+            model = recorder;
+        }
+        Autosaver autosaver = null;
+        if (params.containsKey("autosave")) {
+            String journal = params.get("autosave");
+            try {
+                long replayed = Autosaver.recover(journal, manager);
+                if (replayed >= 0) {
+                    System.out.println("Recovered the game from " + journal + ", replaying " + replayed + " ticks");
+                }
+            } catch (IOException e) {
+                System.err.println("Could not recover the game: " + e.getMessage());
+            }
+            long fsyncMillis = Long.parseLong(params.getOrDefault("fsyncMillis",
+                    String.valueOf(AutosaveJournal.DEFAULT_FSYNC_INTERVAL_MILLIS)));
+            autosaver = new Autosaver(model, manager, new AutosaveJournal(journal, fsyncMillis));
+            model = autosaver;
+        }
+
+        SimulationResult result = new HeadlessRunner(model, input).run(maxTicks);
+        System.out.println(result);
+
+        if (autosaver != null) {
+            autosaver.close();
+        }
+
+        if (saveFile != null) {
+            try {
+                saveFile.close();
+            } catch (IOException e) {
+                System.err.println("Could not write the save file: " + e.getMessage());
+            }
+        }
+
+        if (recorder != null) {
+            try {
+                recorder.write(params.get("record"));
+            } catch (IOException e) {
+                System.err.println("Could not write the recording: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Replays recordings made by an InputRecorder and reports whether each one ends as recorded.
+     * @param files The paths of the recordings
+     */
+    private static void replay(String[] files) {
+        int matched = 0;
+        long start = System.nanoTime();
+        for (String file : files) {
+            try {
+                List<String> mismatches = Replayer.fromFile(file).verify();
+                if (mismatches.isEmpty()) {
+                    matched++;
+                    System.out.println("OK " + file);
+                } else {
+                    System.out.println("MISMATCH " + file + ": " + String.join(", ", mismatches));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("ERROR " + file + ": " + e.getMessage());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("%d of %d replays matched (%.1f replays/min)%n", matched, files.length,
+                seconds == 0 ? 0 : files.length * 60 / seconds);
+    }
+
+    /**
+     * Runs many games at once on a SessionManager, printing its metrics every second until they have all ended.
+     * @param params The values of the named arguments
+     * @param maxTicks The most ticks to simulate per game
+     */
+    private static void runSessions(Map<String, String> params, long maxTicks) {
+        int sessions = Integer.parseInt(params.get("sessions"));
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (params.containsKey("threads")) {
+            threads = Integer.parseInt(params.get("threads"));
+        }
+        double tickRate = FixedTimestep.DEFAULT_TICK_RATE;
+        if (params.containsKey("tickRate")) {
+            tickRate = Double.parseDouble(params.get("tickRate"));
+        }
+
+        SessionManager manager = new SessionManager(threads, tickRate);
+        for (int i = 0; i < sessions; i++) {
+            InputSource input = (tick, engine) -> { };
+            if (params.containsKey("input")) {
+                try {
+                    // Scripts keep track of where they are, so every session needs its own
+                    input = ScriptedInput.fromFile(params.get("input"));
+                } catch (IOException e) {
+                    System.err.println("Could not read the input script: " + e.getMessage());
+                    System.exit(1);
+                }
+            }
+            GameEngine model = new GameManager(params.getOrDefault("levels", DEFAULT_LEVELS),
+                    new TickClock(Math.round(1_000_000_000L / tickRate)));
+            manager.start(model, input, maxTicks);
+        }
+
+        try {
+            while (manager.getMetrics().getActiveSessions() > 0) {
+                Thread.sleep(1000);
+                System.out.println(manager.getMetrics());
+                System.out.println();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        manager.shutdown();
+    }
+
+    /**
+     * Reads the --name=value arguments.
+     * @param args The command line arguments
+     * @return The values of the named arguments
+     */
+    static Map<String, String> parseNamed(String[] args) {
+        Map<String, String> params = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int split = arg.indexOf('=');
+                params.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return params;
+    }
+}
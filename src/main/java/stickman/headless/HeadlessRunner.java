@@ -0,0 +1,49 @@
+package stickman.headless;
+
+import stickman.model.GameEngine;
+import stickman.model.GameRun;
+
+/**
+ * Runs a game without a window, ticking the GameEngine as fast as possible and feeding it
+ * input from an InputSource. No JavaFX class is needed.
+ */
+public class HeadlessRunner {
+
+    /**
+     * The engine being simulated.
+     */
+    private final GameEngine engine;
+
+    /**
+     * Where the player input comes from.
+     */
+    private final InputSource input;
+
+    /**
+     * Creates a new HeadlessRunner object.
+     * @param engine The engine to simulate
+     * @param input The source of player input
+     */
+    public HeadlessRunner(GameEngine engine, InputSource input) {
+        this.engine = engine;
+        this.input = input;
+    }
+
+    /**
+     * Ticks the engine until the game stops or the tick limit is reached.
+     * @param maxTicks The maximum number of ticks to simulate
+     * @return The summary of the simulation
+     */
+    public SimulationResult run(long maxTicks) {
+        long start = System.nanoTime();
+        long tick = 0;
+        while (tick < maxTicks && this.engine.getGameState() instanceof GameRun) {
+            this.input.apply(tick, this.engine);
+            this.engine.tick();
+            tick++;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return SimulationResult.of(this.engine, tick, elapsed);
+    }
+}
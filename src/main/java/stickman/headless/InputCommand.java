@@ -0,0 +1,89 @@
+package stickman.headless;
+
+import stickman.model.GameEngine;
+
+/**
+ * The inputs a player can give to the GameEngine, with the keywords used for them in input scripts.
+ */
+public enum InputCommand {
+    JUMP("jump"),
+    MOVE_LEFT("left"),
+    MOVE_RIGHT("right"),
+    STOP_MOVING("stop"),
+    SHOOT("shoot"),
+    SAVE("save"),
+    LOAD("load"),
+    REWIND("rewind"),
+    RESUME("resume");
+
+    /**
+     * The keyword of the command in an input script.
+     */
+    private final String keyword;
+
+    /**
+     * Creates an InputCommand.
+     * @param keyword The keyword of the command in an input script
+     */
+    InputCommand(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     * Gets the keyword of the command in an input script.
+     * @return The keyword
+     */
+    public String getKeyword() {
+        return this.keyword;
+    }
+
+    /**
+     * Sends this input to the engine.
+     * @param engine The engine receiving the input
+     */
+    public void apply(GameEngine engine) {
+        switch (this) {
+            case JUMP:
+                engine.jump();
+                break;
+            case MOVE_LEFT:
+                engine.moveLeft();
+                break;
+            case MOVE_RIGHT:
+                engine.moveRight();
+                break;
+            case STOP_MOVING:
+                engine.stopMoving();
+                break;
+            case SHOOT:
+                engine.shoot();
+                break;
+            case SAVE:
+                engine.saveMemento();
+                break;
+            case LOAD:
+                engine.loadMemento();
+                break;
+            case REWIND:
+                engine.setRewinding(true);
+                break;
+            case RESUME:
+                engine.setRewinding(false);
+                break;
+        }
+    }
+
+    /**
+     * Finds the command with the given keyword.
+     * @param keyword The keyword from an input script
+     * @return The matching command
+     */
+    public static InputCommand fromKeyword(String keyword) {
+        for (InputCommand command : values()) {
+            if (command.keyword.equals(keyword)) {
+                return command;
+            }
+        }
+        throw new IllegalArgumentException("Unknown input command: " + keyword);
+    }
+}
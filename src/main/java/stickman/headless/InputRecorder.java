@@ -0,0 +1,248 @@
+package stickman.headless;
+
+import gamesaver.GameMemento;
+import stickman.level.Level;
+import stickman.model.GameEngine;
+import stickman.model.GameState;
+import stickman.model.Timer;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Wraps a GameEngine and records every input given to it, stamped with the number of ticks run
+ * before it arrived. Recordings are written in the ScriptedInput format, with a header naming the
+ * levels and the tick length and a footer holding the final state, so that a Replayer can run the
+ * game again and check it ends the same way.
+ * The game should be timed by a TickClock, otherwise its score depends on how fast it ran.
+ */
+public class InputRecorder implements GameEngine {
+
+    /**
+     * The engine receiving the inputs.
+     */
+    private final GameEngine engine;
+
+    /**
+     * The levels config file of the game.
+     */
+    private final String levels;
+
+    /**
+     * The length of a tick of the game, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The tick each recorded input arrived at.
+     */
+    private final List<Long> ticks;
+
+    /**
+     * The recorded inputs.
+     */
+    private final List<InputCommand> commands;
+
+    /**
+     * The number of ticks run so far.
+     */
+    private long tick;
+
+    /**
+     * Creates a new InputRecorder object.
+     * @param engine The engine to record the inputs of
+     * @param levels The levels config file the engine was created with
+     * @param tickNanos The length of a tick of the engine's clock, in nanoseconds
+     */
+    public InputRecorder(GameEngine engine, String levels, long tickNanos) {
+        this.engine = engine;
+        this.levels = levels;
+        this.tickNanos = tickNanos;
+        this.ticks = new ArrayList<>();
+        this.commands = new ArrayList<>();
+    }
+
+    /**
+     * Records an input at the current tick.
+     * @param command The input
+     */
+    private void record(InputCommand command) {
+        this.ticks.add(this.tick);
+        this.commands.add(command);
+    }
+
+    /**
+     * Gets the number of ticks run so far.
+     * @return The number of ticks
+     */
+    public long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Gets the number of inputs recorded so far.
+     * @return The number of inputs
+     */
+    public int getInputCount() {
+        return this.commands.size();
+    }
+
+    /**
+     * Writes the recording to a file.
+     * @param file The path of the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void write(String file) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            write(writer);
+        }
+    }
+
+    /**
+     * Writes the recording: a header, one "&lt;tick&gt; &lt;command&gt;" line per input and a footer
+     * with the state of the game now.
+     * @param writer Where to write the recording
+     * @throws IOException If the recording cannot be written
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(Replayer.HEADER + "\n");
+        writer.write("# " + Replayer.LEVELS + "=" + this.levels + "\n");
+        writer.write("# " + Replayer.TICK_NANOS + "=" + this.tickNanos + "\n");
+        for (int i = 0; i < this.commands.size(); i++) {
+            writer.write(this.ticks.get(i) + " " + this.commands.get(i).getKeyword() + "\n");
+        }
+        writer.write("# " + Replayer.TICKS + "=" + this.tick + "\n");
+        writer.write("# " + Replayer.TOTAL_POINTS + "=" + this.engine.getCurrentTotalPoint() + "\n");
+        writer.write("# " + Replayer.LEVEL_POINTS + "=" + this.engine.getCurrentLevelPoint() + "\n");
+        writer.write("# " + Replayer.LIVES + "=" + this.engine.getStickmanLives() + "\n");
+        writer.write("# " + Replayer.STATE_HASH + "=" + Replayer.stateHash(this.engine) + "\n");
+    }
+
+    @Override
+    public Level getCurrentLevel() {
+        return this.engine.getCurrentLevel();
+    }
+
+    @Override
+    public boolean jump() {
+        record(InputCommand.JUMP);
+        return this.engine.jump();
+    }
+
+    @Override
+    public boolean moveLeft() {
+        record(InputCommand.MOVE_LEFT);
+        return this.engine.moveLeft();
+    }
+
+    @Override
+    public boolean moveRight() {
+        record(InputCommand.MOVE_RIGHT);
+        return this.engine.moveRight();
+    }
+
+    @Override
+    public boolean stopMoving() {
+        record(InputCommand.STOP_MOVING);
+        return this.engine.stopMoving();
+    }
+
+    @Override
+    public void tick() {
+        this.engine.tick();
+        this.tick++;
+    }
+
+    @Override
+    public void shoot() {
+        record(InputCommand.SHOOT);
+        this.engine.shoot();
+    }
+
+    @Override
+    public void reset() {
+        this.engine.reset();
+    }
+
+    @Override
+    public Timer getTimer() {
+        return this.engine.getTimer();
+    }
+
+    @Override
+    public void updatePoint() {
+        this.engine.updatePoint();
+    }
+
+    @Override
+    public int getCurrentLevelPoint() {
+        return this.engine.getCurrentLevelPoint();
+    }
+
+    @Override
+    public void resetCurrentPoint() {
+        this.engine.resetCurrentPoint();
+    }
+
+    @Override
+    public int getCurrentTotalPoint() {
+        return this.engine.getCurrentTotalPoint();
+    }
+
+    @Override
+    public GameState getGameState() {
+        return this.engine.getGameState();
+    }
+
+    @Override
+    public int getStickmanLives() {
+        return this.engine.getStickmanLives();
+    }
+
+    @Override
+    public void setRewinding(boolean rewinding) {
+        record(rewinding ? InputCommand.REWIND : InputCommand.RESUME);
+        this.engine.setRewinding(rewinding);
+    }
+
+    @Override
+    public GameMemento saveMemento() {
+        record(InputCommand.SAVE);
+        return this.engine.saveMemento();
+    }
+
+    @Override
+    public void loadMemento() {
+        record(InputCommand.LOAD);
+        this.engine.loadMemento();
+    }
+
+    /**
+     * Saves straight away rather than in the background, so that the replay saves at the same tick.
+     * @param onSaved Called with the memento once it is saved, may be null
+     */
+    @Override
+    public void saveMementoInBackground(Consumer<GameMemento> onSaved) {
+        GameMemento gameMemento = saveMemento();
+        if (onSaved != null) {
+            onSaved.accept(gameMemento);
+        }
+    }
+
+    /**
+     * Loads straight away rather than in the background, so that the replay loads at the same tick.
+     * @param onLoaded Called once the game is loaded, may be null
+     */
+    @Override
+    public void loadMementoInBackground(Runnable onLoaded) {
+        loadMemento();
+        if (onLoaded != null) {
+            onLoaded.run();
+        }
+    }
+}
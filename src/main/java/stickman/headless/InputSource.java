@@ -0,0 +1,16 @@
+package stickman.headless;
+
+import stickman.model.GameEngine;
+
+/**
+ * A source of player input for a game running without a window.
+ */
+public interface InputSource {
+
+    /**
+     * Gives the engine all the input meant for the given tick. Called once per tick, before the engine ticks.
+     * @param tick The number of the tick about to run, starting from 0
+     * @param engine The engine to send the input to
+     */
+    void apply(long tick, GameEngine engine);
+}
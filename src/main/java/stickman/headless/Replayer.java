@@ -0,0 +1,212 @@
+package stickman.headless;
+
+import gamesaver.RewindBuffer;
+import stickman.entity.Entity;
+import stickman.model.GameEngine;
+import stickman.model.GameManager;
+import stickman.model.TickClock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays a recording made by an InputRecorder back through a new GameManager, as fast as possible,
+ * and checks that the game ends in exactly the same state as when it was recorded.
+ * The game is timed by a TickClock with the recorded tick length, so the score does not depend
+ * on how fast the replay runs. Recordings which rewind are replayed with a RewindBuffer of the default
+ * size, like the one the game is played with.
+ */
+public class Replayer {
+
+    /**
+     * The first line of every recording.
+     */
+    static final String HEADER = "# stickman input recording";
+
+    /**
+     * The property holding the levels config file.
+     */
+    static final String LEVELS = "levels";
+
+    /**
+     * The property holding the length of a tick in nanoseconds.
+     */
+    static final String TICK_NANOS = "tickNanos";
+
+    /**
+     * The property holding the number of ticks run.
+     */
+    static final String TICKS = "ticks";
+
+    /**
+     * The property holding the final total points.
+     */
+    static final String TOTAL_POINTS = "totalPoints";
+
+    /**
+     * The property holding the final points of the current level.
+     */
+    static final String LEVEL_POINTS = "levelPoints";
+
+    /**
+     * The property holding the final number of lives.
+     */
+    static final String LIVES = "lives";
+
+    /**
+     * The property holding the hash of the final state of the game.
+     */
+    static final String STATE_HASH = "stateHash";
+
+    /**
+     * The text of the recording.
+     */
+    private final String recording;
+
+    /**
+     * The "# name=value" properties of the recording.
+     */
+    private final Map<String, String> properties;
+
+    /**
+     * Whether the recording rewinds the game.
+     */
+    private boolean rewinds;
+
+    /**
+     * The engine of the latest replay.
+     */
+    private GameEngine engine;
+
+    /**
+     * Creates a new Replayer object.
+     * @param recording The text of the recording
+     * @throws IOException If the recording cannot be read
+     */
+    public Replayer(String recording) throws IOException {
+        this.recording = recording;
+        this.properties = new HashMap<>();
+
+        BufferedReader lines = new BufferedReader(new StringReader(recording));
+        String line = lines.readLine();
+        if (line == null || !line.trim().equals(HEADER)) {
+            throw new IllegalArgumentException("Not an input recording");
+        }
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.startsWith("#") && line.contains("=")) {
+                int split = line.indexOf('=');
+                this.properties.put(line.substring(1, split).trim(), line.substring(split + 1).trim());
+            } else if (line.endsWith(" " + InputCommand.REWIND.getKeyword())) {
+                this.rewinds = true;
+            }
+        }
+        if (!this.properties.containsKey(LEVELS) || !this.properties.containsKey(TICK_NANOS)
+                || !this.properties.containsKey(TICKS)) {
+            throw new IllegalArgumentException("The recording is missing its levels, tick length or tick count");
+        }
+    }
+
+    /**
+     * Reads a recording from a file.
+     * @param file The path of the recording
+     * @return The Replayer for the recording
+     * @throws IOException If the file cannot be read
+     */
+    public static Replayer fromFile(String file) throws IOException {
+        return new Replayer(new String(Files.readAllBytes(Paths.get(file))));
+    }
+
+    /**
+     * Runs the recorded game again, for exactly as many ticks as were recorded.
+     * @return The summary of the replay
+     * @throws IOException If the recorded inputs cannot be read
+     */
+    public SimulationResult replay() throws IOException {
+        // Scripts keep track of where they are, so every replay reads the inputs again
+        ScriptedInput input = ScriptedInput.fromReader(new StringReader(this.recording));
+        long ticks = Long.parseLong(this.properties.get(TICKS));
+        GameManager manager = new GameManager(this.properties.get(LEVELS),
+                new TickClock(Long.parseLong(this.properties.get(TICK_NANOS))));
+        if (this.rewinds) {
+            manager.setRewindBuffer(new RewindBuffer());
+        }
+        this.engine = manager;
+
+        long start = System.nanoTime();
+        // The recorder kept counting ticks after the game stopped, and inputs such as load still apply
+        for (long tick = 0; tick < ticks; tick++) {
+            input.apply(tick, this.engine);
+            this.engine.tick();
+        }
+        input.apply(ticks, this.engine);
+
+        return SimulationResult.of(this.engine, ticks, System.nanoTime() - start);
+    }
+
+    /**
+     * Replays the game and compares its final state with the recorded one.
+     * @return A description of every difference found, empty if the replay matches the recording
+     * @throws IOException If the recorded inputs cannot be read
+     */
+    public List<String> verify() throws IOException {
+        replay();
+
+        List<String> mismatches = new ArrayList<>();
+        compare(mismatches, TOTAL_POINTS, this.engine.getCurrentTotalPoint());
+        compare(mismatches, LEVEL_POINTS, this.engine.getCurrentLevelPoint());
+        compare(mismatches, LIVES, this.engine.getStickmanLives());
+        compare(mismatches, STATE_HASH, stateHash(this.engine));
+        return mismatches;
+    }
+
+    /**
+     * Compares a value of the replay with the recorded one.
+     * @param mismatches The list of differences to add to
+     * @param property The name of the recorded property
+     * @param actual The value found by the replay
+     */
+    private void compare(List<String> mismatches, String property, long actual) {
+        String expected = this.properties.get(property);
+        if (expected == null) {
+            mismatches.add(property + " was not recorded");
+        } else if (Long.parseLong(expected) != actual) {
+            mismatches.add(property + ": recorded " + expected + ", replayed " + actual);
+        }
+    }
+
+    /**
+     * Gets the engine of the latest replay, to inspect its final state.
+     * @return The engine, or null before the first replay
+     */
+    public GameEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Hashes the state of a game: the position and status of every entity of the current level,
+     * in order, along with the points and lives.
+     * @param engine The engine of the game
+     * @return The hash of the state
+     */
+    static long stateHash(GameEngine engine) {
+        long hash = engine.getCurrentTotalPoint();
+        hash = hash * 31 + engine.getCurrentLevelPoint();
+        hash = hash * 31 + engine.getStickmanLives();
+        hash = hash * 31 + engine.getGameState().getClass().getName().hashCode();
+        for (Entity entity : engine.getCurrentLevel().getEntities()) {
+            hash = hash * 31 + entity.getClass().getName().hashCode();
+            hash = hash * 31 + Double.doubleToLongBits(entity.getXPos());
+            hash = hash * 31 + Double.doubleToLongBits(entity.getYPos());
+            hash = hash * 31 + (entity.isActive() ? 1 : 0);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,116 @@
+package stickman.headless;
+
+import stickman.model.GameEngine;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Input read from a script. Every line of a script holds a tick number and the keyword of an
+ * InputCommand, e.g. "120 jump". Blank lines and lines starting with '#' are ignored.
+ * Commands for the same tick are applied in the order they appear.
+ */
+public class ScriptedInput implements InputSource {
+
+    /**
+     * The tick of each command, in ascending order.
+     */
+    private final long[] ticks;
+
+    /**
+     * The commands, parallel to ticks.
+     */
+    private final InputCommand[] commands;
+
+    /**
+     * The index of the next command to apply.
+     */
+    private int next;
+
+    /**
+     * Creates a ScriptedInput from commands and the ticks they happen on.
+     * @param ticks The tick of each command
+     * @param commands The commands
+     */
+    public ScriptedInput(List<Long> ticks, List<InputCommand> commands) {
+        if (ticks.size() != commands.size()) {
+            throw new IllegalArgumentException("Every command needs a tick");
+        }
+        this.ticks = new long[ticks.size()];
+        this.commands = new InputCommand[commands.size()];
+        for (int i = 0; i < this.ticks.length; i++) {
+            // Insertion sort on the tick keeps commands of the same tick in their original order
+            long tick = ticks.get(i);
+            int j = i - 1;
+            while (j >= 0 && this.ticks[j] > tick) {
+                this.ticks[j + 1] = this.ticks[j];
+                this.commands[j + 1] = this.commands[j];
+                j--;
+            }
+            this.ticks[j + 1] = tick;
+            this.commands[j + 1] = commands.get(i);
+        }
+    }
+
+    /**
+     * Reads a script from a file.
+     * @param file The path of the script
+     * @return The input described by the script
+     * @throws IOException If the file cannot be read
+     */
+    public static ScriptedInput fromFile(String file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return fromReader(reader);
+        }
+    }
+
+    /**
+     * Reads a script.
+     * @param reader The reader giving the script
+     * @return The input described by the script
+     * @throws IOException If the script cannot be read
+     */
+    public static ScriptedInput fromReader(Reader reader) throws IOException {
+        List<Long> ticks = new ArrayList<>();
+        List<InputCommand> commands = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected '<tick> <command>' but got: " + line);
+            }
+            ticks.add(Long.parseLong(parts[0]));
+            commands.add(InputCommand.fromKeyword(parts[1]));
+        }
+        return new ScriptedInput(ticks, commands);
+    }
+
+    @Override
+    public void apply(long tick, GameEngine engine) {
+        // Skip anything scheduled before the current tick
+        while (this.next < this.ticks.length && this.ticks[this.next] < tick) {
+            this.next++;
+        }
+        while (this.next < this.ticks.length && this.ticks[this.next] == tick) {
+            this.commands[this.next].apply(engine);
+            this.next++;
+        }
+    }
+
+    /**
+     * Gets the tick of the last command in the script.
+     * @return The last scripted tick, or -1 if the script is empty
+     */
+    public long getLastTick() {
+        return this.ticks.length == 0 ? -1 : this.ticks[this.ticks.length - 1];
+    }
+}
@@ -0,0 +1,164 @@
+package stickman.headless;
+
+import stickman.level.Level;
+import stickman.model.GameEngine;
+import stickman.model.GameRun;
+
+/**
+ * The summary of a game simulated without a window.
+ */
+public class SimulationResult {
+
+    /**
+     * How a simulated game ended.
+     */
+    public enum Outcome {
+        /** The last level was completed. */
+        WON,
+        /** The hero ran out of lives. */
+        LOST,
+        /** The tick limit was reached while the game was still running. */
+        UNFINISHED
+    }
+
+    /**
+     * How the game ended.
+     */
+    private final Outcome outcome;
+
+    /**
+     * The number of ticks simulated.
+     */
+    private final long ticks;
+
+    /**
+     * The wall-clock time taken by the simulation, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The total points of the completed levels.
+     */
+    private final int totalPoints;
+
+    /**
+     * The points of the level being played when the simulation ended.
+     */
+    private final int levelPoints;
+
+    /**
+     * The lives the hero had left.
+     */
+    private final int lives;
+
+    /**
+     * Creates a new SimulationResult object.
+     * @param outcome How the game ended
+     * @param ticks The number of ticks simulated
+     * @param elapsedNanos The time taken, in nanoseconds
+     * @param totalPoints The total points of the completed levels
+     * @param levelPoints The points of the current level
+     * @param lives The lives left
+     */
+    public SimulationResult(Outcome outcome, long ticks, long elapsedNanos, int totalPoints, int levelPoints,
+                            int lives) {
+        this.outcome = outcome;
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+        this.totalPoints = totalPoints;
+        this.levelPoints = levelPoints;
+        this.lives = lives;
+    }
+
+    /**
+     * Summarises the current state of a simulated game.
+     * @param engine The engine that was simulated
+     * @param ticks The number of ticks simulated
+     * @param elapsedNanos The time taken, in nanoseconds
+     * @return The summary of the simulation
+     */
+    public static SimulationResult of(GameEngine engine, long ticks, long elapsedNanos) {
+        return new SimulationResult(getOutcome(engine), ticks, elapsedNanos, engine.getCurrentTotalPoint(),
+                engine.getCurrentLevelPoint(), engine.getStickmanLives());
+    }
+
+    /**
+     * Works out how the game ended.
+     * @param engine The engine that was simulated
+     * @return The outcome of the game
+     */
+    private static Outcome getOutcome(GameEngine engine) {
+        if (engine.getGameState() instanceof GameRun) {
+            return Outcome.UNFINISHED;
+        }
+        if (engine.getCurrentLevel().getOutcome() == Level.Outcome.WON) {
+            return Outcome.WON;
+        }
+        return Outcome.LOST;
+    }
+
+    /**
+     * Gets how the game ended.
+     * @return The outcome of the game
+     */
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
+    /**
+     * Gets the number of ticks simulated.
+     * @return The number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Gets the wall-clock time taken by the simulation.
+     * @return The elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Gets the simulation speed.
+     * @return The number of ticks simulated per second of wall-clock time
+     */
+    public double getTicksPerSecond() {
+        if (this.elapsedNanos == 0) {
+            return 0;
+        }
+        return this.ticks * 1_000_000_000.0 / this.elapsedNanos;
+    }
+
+    /**
+     * Gets the total points of the completed levels.
+     * @return The total points
+     */
+    public int getTotalPoints() {
+        return this.totalPoints;
+    }
+
+    /**
+     * Gets the points of the level being played when the simulation ended.
+     * @return The level points
+     */
+    public int getLevelPoints() {
+        return this.levelPoints;
+    }
+
+    /**
+     * Gets the lives the hero had left.
+     * @return The number of lives
+     */
+    public int getLives() {
+        return this.lives;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Outcome: %s%nTicks: %d%nTicks/sec: %.1f%nTotal points: %d%nLevel points: %d%nLives: %d",
+                this.outcome, this.ticks, getTicksPerSecond(), this.totalPoints, this.levelPoints, this.lives);
+    }
+}
@@ -0,0 +1,186 @@
+package stickman.level;
+
+import gamesaver.MementoCodec;
+import stickman.entity.moving.enemy.DumbStrategy;
+import stickman.entity.moving.enemy.EnemyStrategy;
+import stickman.entity.moving.enemy.FollowStrategy;
+import stickman.entity.moving.enemy.Slime;
+import stickman.entity.still.Flag;
+import stickman.entity.still.Mushroom;
+import stickman.entity.still.Platform;
+import stickman.model.GameEngine;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the levels compiled by LevelCompiler. The file is memory-mapped and every entity is built straight
+ * from its record, so there is no text to parse at all.
+ * <p>
+ * A compiled level starts with a header (magic number, format version, the dimensions of the level, where
+ * and how large the hero starts, the target point, whether slimes tick in parallel and their activation
+ * radius, and where the flag is), followed by packed arrays of records, each preceded by its length:
+ * platforms and mushrooms (x and y), the sprite paths of the enemies, and enemies (x, y, index of their
+ * sprite path, whether they start left and their strategy). Numbers are big-endian.
+ * The entities are handed to the LevelBuilder in the same order as the JSON loaders do, so a compiled level
+ * is exactly the same level as its JSON file.
+ */
+public final class BinaryLevelLoader {
+
+    /**
+     * The extension of compiled levels.
+     */
+    public static final String EXTENSION = ".lvlbin";
+
+    /**
+     * The first four bytes of every compiled level, "STKL".
+     */
+    static final int MAGIC = 0x53544B4C;
+
+    /**
+     * The version of the layout of the file.
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * The strategy of an enemy without one.
+     */
+    static final byte NO_STRATEGY = 0;
+
+    /**
+     * The strategy of an enemy which goes backwards and forwards.
+     */
+    static final byte DUMB_STRATEGY = 1;
+
+    /**
+     * The strategy of an enemy which follows the hero.
+     */
+    static final byte FOLLOW_STRATEGY = 2;
+
+    private BinaryLevelLoader() {
+    }
+
+    /**
+     * Checks whether a file is a compiled level, by its extension.
+     * @param file The path of the file
+     * @return Whether the file is a compiled level
+     */
+    public static boolean isCompiled(String file) {
+        return file.endsWith(EXTENSION);
+    }
+
+    /**
+     * Finds the file to load a level from: the compiled version of a JSON level file when it sits next to it
+     * and is at least as new, or the file itself otherwise.
+     * @param file The path of a JSON level file or of a compiled level
+     * @return The path to load the level from
+     */
+    public static String findCompiled(String file) {
+        if (isCompiled(file) || !file.endsWith(".json")) {
+            return file;
+        }
+        Path json = Paths.get(file);
+        Path compiled = Paths.get(file.substring(0, file.length() - ".json".length()) + EXTENSION);
+        try {
+            if (Files.exists(compiled)
+                    && Files.getLastModifiedTime(compiled).compareTo(Files.getLastModifiedTime(json)) >= 0) {
+                return compiled.toString();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return file;
+    }
+
+    /**
+     * Reads a compiled level and generates a Level object from it.
+     * @param file The compiled level to read
+     * @param model The GameEngine the level is part of
+     * @return The corresponding Level object, or null if the file cannot be read
+     */
+    public static Level generateFromFile(String file, GameEngine model) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            LevelBuilder levelBuilder = new LevelBuilderImpl(file, model);
+            read(buffer, levelBuilder);
+            return levelBuilder.build();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Reads a compiled level into a builder, without building the level.
+     * @param buffer The compiled level
+     * @param levelBuilder The builder of the level
+     * @throws IOException If the buffer does not hold a compiled level
+     */
+    static void read(ByteBuffer buffer, LevelBuilder levelBuilder) throws IOException {
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a compiled level");
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported compiled level version " + version);
+            }
+
+            double width = buffer.getDouble();
+            double height = buffer.getDouble();
+            levelBuilder.setDimensions(width, height);
+            levelBuilder.setFloorHeight(buffer.getDouble());
+            double heroX = buffer.getDouble();
+            levelBuilder.setHero(heroX, MementoCodec.getString(buffer));
+            levelBuilder.setTargetPoint(buffer.getInt());
+            levelBuilder.setParallelTick(MementoCodec.getBoolean(buffer));
+            levelBuilder.setActivationRadius(buffer.getDouble());
+            Flag flag = new Flag(buffer.getDouble(), buffer.getDouble());
+
+            int platforms = buffer.getInt();
+            for (int i = 0; i < platforms; i++) {
+                levelBuilder.addStaticEntity(new Platform(buffer.getDouble(), buffer.getDouble()));
+            }
+
+            int mushrooms = buffer.getInt();
+            for (int i = 0; i < mushrooms; i++) {
+                Mushroom mushroom = new Mushroom(buffer.getDouble(), buffer.getDouble());
+                levelBuilder.addInteractable(mushroom);
+                levelBuilder.addStaticEntity(mushroom);
+            }
+
+            String[] paths = new String[buffer.getInt()];
+            for (int i = 0; i < paths.length; i++) {
+                paths[i] = MementoCodec.getString(buffer);
+            }
+
+            // Every enemy of a level shares the same strategies
+            EnemyStrategy dumb = new DumbStrategy();
+            EnemyStrategy follow = new FollowStrategy();
+            int enemies = buffer.getInt();
+            for (int i = 0; i < enemies; i++) {
+                double x = buffer.getDouble();
+                double y = buffer.getDouble();
+                String path = paths[buffer.getInt()];
+                boolean startLeft = MementoCodec.getBoolean(buffer);
+                byte strategy = buffer.get();
+                Slime enemy = new Slime(path, x, y, startLeft,
+                        strategy == DUMB_STRATEGY ? dumb : strategy == FOLLOW_STRATEGY ? follow : null);
+                levelBuilder.addInteractable(enemy);
+                levelBuilder.addEnemy(enemy);
+            }
+
+            levelBuilder.addInteractable(flag);
+            levelBuilder.addStaticEntity(flag);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("The compiled level is damaged", e);
+        }
+    }
+}
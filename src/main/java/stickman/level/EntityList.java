@@ -0,0 +1,127 @@
+package stickman.level;
+
+import stickman.entity.Entity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * The list of entities of a level. Besides the entities themselves, it carries the spatial index of the
+ * solid ones so that raycasts made against the list do not need to scan every entity.
+ * The level owning the list is responsible for keeping the index up to date.
+ * The entities are kept in an ArrayList, wrapped so that the list can count its structural changes.
+ */
+public class EntityList extends AbstractList<Entity> implements RandomAccess {
+
+    /**
+     * The entities of the list.
+     */
+    private final ArrayList<Entity> entities;
+
+    /**
+     * The spatial index of the solid entities in this list.
+     */
+    private SpatialGrid solidGrid;
+
+    /**
+     * Creates a new EntityList object.
+     * @param entities The entities to start with
+     */
+    public EntityList(Collection<? extends Entity> entities) {
+        this.entities = new ArrayList<>(entities);
+    }
+
+    /**
+     * Creates an empty EntityList object.
+     * @param capacity The number of entities to make room for
+     */
+    public EntityList(int capacity) {
+        this.entities = new ArrayList<>(capacity);
+    }
+
+    @Override
+    public Entity get(int index) {
+        return this.entities.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.entities.size();
+    }
+
+    @Override
+    public Entity set(int index, Entity entity) {
+        return this.entities.set(index, entity);
+    }
+
+    @Override
+    public void add(int index, Entity entity) {
+        this.entities.add(index, entity);
+        this.modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Entity> entities) {
+        this.modCount++;
+        return this.entities.addAll(entities);
+    }
+
+    @Override
+    public Entity remove(int index) {
+        this.modCount++;
+        return this.entities.remove(index);
+    }
+
+    @Override
+    public boolean remove(Object entity) {
+        int index = this.entities.indexOf(entity);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        this.modCount++;
+        this.entities.subList(fromIndex, toIndex).clear();
+    }
+
+    @Override
+    public int indexOf(Object entity) {
+        return this.entities.indexOf(entity);
+    }
+
+    @Override
+    public boolean contains(Object entity) {
+        return this.entities.contains(entity);
+    }
+
+    /**
+     * Gets the spatial index of the solid entities.
+     * @return The grid of solid entities, or null if none has been set
+     */
+    public SpatialGrid getSolidGrid() {
+        return this.solidGrid;
+    }
+
+    /**
+     * Sets the spatial index of the solid entities.
+     * @param solidGrid The grid of solid entities
+     */
+    public void setSolidGrid(SpatialGrid solidGrid) {
+        this.solidGrid = solidGrid;
+    }
+
+    /**
+     * Gets the number of times entities were added to or removed from the list. Comparing it with an
+     * earlier value tells whether the list still holds the same entities.
+     * @return The number of structural changes
+     */
+    public int getModCount() {
+        return this.modCount;
+    }
+}
@@ -0,0 +1,411 @@
+package stickman.level;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads JSON one token at a time, straight from a Reader, so that a document can be walked without being
+ * held in memory. Numbers are read as primitive doubles and commas and colons are skipped, the colon only
+ * telling a member name apart from a string value.
+ */
+class JsonPullParser {
+
+    /**
+     * The tokens of a JSON document.
+     */
+    enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        TRUE,
+        FALSE,
+        NULL,
+        END_DOCUMENT
+    }
+
+    /**
+     * The powers of ten a double holds exactly.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The reader of the document.
+     */
+    private final Reader reader;
+
+    /**
+     * The characters read but not parsed yet.
+     */
+    private final char[] buffer;
+
+    /**
+     * The position of the next character to parse in the buffer.
+     */
+    private int position;
+
+    /**
+     * The number of characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * The text of the latest name or string, reused between tokens.
+     */
+    private final StringBuilder text;
+
+    /**
+     * The characters of the latest number, reused between tokens.
+     */
+    private char[] number;
+
+    /**
+     * The value of the latest number.
+     */
+    private double value;
+
+    /**
+     * Creates a new JsonPullParser object.
+     * @param reader The reader of the document
+     */
+    JsonPullParser(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[64 * 1024];
+        this.text = new StringBuilder();
+        this.number = new char[32];
+    }
+
+    /**
+     * Reads the next token.
+     * @return The token
+     * @throws IOException If the document cannot be read or is not JSON
+     */
+    Token next() throws IOException {
+        int c = skipSeparators();
+        switch (c) {
+            case -1:
+                return Token.END_DOCUMENT;
+            case '{':
+                this.position++;
+                return Token.BEGIN_OBJECT;
+            case '}':
+                this.position++;
+                return Token.END_OBJECT;
+            case '[':
+                this.position++;
+                return Token.BEGIN_ARRAY;
+            case ']':
+                this.position++;
+                return Token.END_ARRAY;
+            case '"':
+                this.position++;
+                readString();
+                if (skipWhitespace() == ':') {
+                    this.position++;
+                    return Token.NAME;
+                }
+                return Token.STRING;
+            case 't':
+                readKeyword("true");
+                return Token.TRUE;
+            case 'f':
+                readKeyword("false");
+                return Token.FALSE;
+            case 'n':
+                readKeyword("null");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber();
+                    return Token.NUMBER;
+                }
+                throw new IOException("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Gets the text of the latest name or string.
+     * @return The text
+     */
+    String getString() {
+        return this.text.toString();
+    }
+
+    /**
+     * Checks whether the latest name or string is the given text, without making a String of it.
+     * @param expected The text to compare with
+     * @return Whether the text is the same
+     */
+    boolean isString(String expected) {
+        if (this.text.length() != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (this.text.charAt(i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the value of the latest number.
+     * @return The value
+     */
+    double getNumber() {
+        return this.value;
+    }
+
+    /**
+     * Reads a value which must be a number.
+     * @return The number
+     * @throws IOException If the value is not a number
+     */
+    double nextNumber() throws IOException {
+        expect(Token.NUMBER);
+        return this.value;
+    }
+
+    /**
+     * Reads a value which must be a boolean.
+     * @return The boolean
+     * @throws IOException If the value is not a boolean
+     */
+    boolean nextBoolean() throws IOException {
+        Token token = next();
+        if (token != Token.TRUE && token != Token.FALSE) {
+            throw new IOException("Expected a boolean but found " + token);
+        }
+        return token == Token.TRUE;
+    }
+
+    /**
+     * Reads a value which must be a string.
+     * @return The string
+     * @throws IOException If the value is not a string
+     */
+    String nextString() throws IOException {
+        expect(Token.STRING);
+        return getString();
+    }
+
+    /**
+     * Reads the next token, which must be the given one.
+     * @param expected The token expected
+     * @throws IOException If another token comes next
+     */
+    void expect(Token expected) throws IOException {
+        Token token = next();
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but found " + token);
+        }
+    }
+
+    /**
+     * Skips the next value, along with everything inside it if it is an object or an array.
+     * @throws IOException If the document cannot be read or is not JSON
+     */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = next();
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                depth++;
+            } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                depth--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw new IOException("Unexpected end of the document");
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Skips whitespace, commas and colons.
+     * @return The next character, which is not consumed, or -1 at the end of the document
+     * @throws IOException If the document cannot be read
+     */
+    private int skipSeparators() throws IOException {
+        while (true) {
+            int c = skipWhitespace();
+            if (c != ',' && c != ':') {
+                return c;
+            }
+            this.position++;
+        }
+    }
+
+    /**
+     * Skips whitespace.
+     * @return The next character, which is not consumed, or -1 at the end of the document
+     * @throws IOException If the document cannot be read
+     */
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            if (this.position == this.limit && !fill()) {
+                return -1;
+            }
+            char c = this.buffer[this.position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            this.position++;
+        }
+    }
+
+    /**
+     * Reads the next characters of the document into the buffer, once every character in it is parsed.
+     * @return Whether any character was read
+     * @throws IOException If the document cannot be read
+     */
+    private boolean fill() throws IOException {
+        int read = this.reader.read(this.buffer, 0, this.buffer.length);
+        this.position = 0;
+        this.limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    /**
+     * Reads the next character.
+     * @return The character
+     * @throws IOException If the document ends
+     */
+    private char read() throws IOException {
+        if (this.position == this.limit && !fill()) {
+            throw new IOException("Unexpected end of the document");
+        }
+        return this.buffer[this.position++];
+    }
+
+    /**
+     * Reads a string whose opening quote has been read, unescaping it into the text.
+     * @throws IOException If the string is not terminated
+     */
+    private void readString() throws IOException {
+        this.text.setLength(0);
+        while (true) {
+            char c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c != '\\') {
+                this.text.append(c);
+                continue;
+            }
+            c = read();
+            switch (c) {
+                case 'b':
+                    this.text.append('\b');
+                    break;
+                case 'f':
+                    this.text.append('\f');
+                    break;
+                case 'n':
+                    this.text.append('\n');
+                    break;
+                case 'r':
+                    this.text.append('\r');
+                    break;
+                case 't':
+                    this.text.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw new IOException("Invalid unicode escape");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    this.text.append((char) code);
+                    break;
+                default:
+                    // Quotes, backslashes and slashes stand for themselves
+                    this.text.append(c);
+            }
+        }
+    }
+
+    /**
+     * Reads a keyword such as true.
+     * @param keyword The keyword expected
+     * @throws IOException If the document holds something else
+     */
+    private void readKeyword(String keyword) throws IOException {
+        for (int i = 0; i < keyword.length(); i++) {
+            if (read() != keyword.charAt(i)) {
+                throw new IOException("Expected " + keyword);
+            }
+        }
+    }
+
+    /**
+     * Reads a number into the value. Numbers of up to 15 digits with a small exponent, such as every
+     * coordinate of a level, are one exact division or multiplication away from their correctly rounded
+     * double; any other number is left to Double.parseDouble, so both give the same result.
+     * @throws IOException If the number is malformed
+     */
+    private void readNumber() throws IOException {
+        int length = 0;
+        while (true) {
+            if (this.position == this.limit && !fill()) {
+                break;
+            }
+            char c = this.buffer[this.position];
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                break;
+            }
+            if (length == this.number.length) {
+                this.number = Arrays.copyOf(this.number, length * 2);
+            }
+            this.number[length++] = c;
+            this.position++;
+        }
+
+        int i = 0;
+        boolean negative = this.number[0] == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        for (; i < length; i++) {
+            char c = this.number[i];
+            if (c >= '0' && c <= '9') {
+                if (digits > 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) {
+                    exponent--;
+                }
+                if (digits > 15) {
+                    break;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i == length && digits <= 15 && exponent >= -22) {
+            double result = mantissa / POWERS_OF_TEN[-exponent];
+            this.value = negative ? -result : result;
+            return;
+        }
+        try {
+            this.value = Double.parseDouble(new String(this.number, 0, length));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number " + new String(this.number, 0, length), e);
+        }
+    }
+}
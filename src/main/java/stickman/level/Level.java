@@ -5,6 +5,7 @@ import observer.Observer;
 import stickman.entity.Entity;
 import stickman.entity.moving.player.Controllable;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -112,6 +113,19 @@ public interface Level extends Observer, PointReceiver, Prototype {
      */
     boolean getLevelStatus();
 
+    /**
+     * This method returns how the level ended, so that the GameManager does not have to look for the
+     * Win or Lose message among the entities
+     * @return RUNNING until the level is won or lost
+     */
+    Outcome getOutcome();
+
+    /**
+     * This method returns the tick the level was won or lost in, counting from 1
+     * @return The tick of the outcome, or -1 while the level is running
+     */
+    long getOutcomeTick();
+
     /**
      * This method returns a number of seconds that the game can be played without penalty. For every 1
      * second below this time,
@@ -133,4 +147,30 @@ public interface Level extends Observer, PointReceiver, Prototype {
     * */
     Level copy();
 
+    /**
+     * Writes the state of the level and its entities for a saved game.
+     * @param buffer Where to write the state
+     */
+    void encode(ByteBuffer buffer);
+
+    /**
+     * Writes the state of the level which changes as it is played, such as its points and outcome,
+     * without its entities.
+     * @param buffer Where to write the state
+     */
+    void encodeState(ByteBuffer buffer);
+
+    /**
+     * Reads back the state written by encodeState into this level.
+     * @param buffer The encoded state
+     */
+    void decodeState(ByteBuffer buffer);
+
+    /**
+     * The ways a level can end.
+     */
+    enum Outcome {
+        RUNNING, WON, LOST
+    }
+
 }
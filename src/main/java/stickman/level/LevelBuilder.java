@@ -60,6 +60,20 @@ public interface LevelBuilder {
      */
     LevelBuilder setTargetPoint(int targetPoint);
 
+    /**
+     * Sets whether the level ticks its isolated moving entities (such as slimes) in parallel.
+     * @param parallelTick Whether to tick in parallel
+     * @return This instance of LevelBuilder
+     */
+    LevelBuilder setParallelTick(boolean parallelTick);
+
+    /**
+     * Sets how far from the hero enemies keep being ticked. Enemies further away sleep.
+     * @param activationRadius The activation radius, or zero for enemies never to sleep
+     * @return This instance of LevelBuilder
+     */
+    LevelBuilder setActivationRadius(double activationRadius);
+
     /**
      * Builds a Level object based on the previously set parameters.
      * @return The corresponding Level object
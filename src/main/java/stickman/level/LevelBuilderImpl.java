@@ -31,22 +31,22 @@ public class LevelBuilderImpl implements LevelBuilder {
     /**
      * The default floor height.
      */
-    private static final double DEFAULT_FLOOR_HEIGHT = 300;
+    static final double DEFAULT_FLOOR_HEIGHT = 300;
 
     /**
      * The default level width.
      */
-    private static final double DEFAULT_LEVEL_WIDTH = 1000;
+    static final double DEFAULT_LEVEL_WIDTH = 1000;
 
     /**
      * The default level height.
      */
-    private static final double DEFAULT_LEVEL_HEIGHT = 500;
+    static final double DEFAULT_LEVEL_HEIGHT = 500;
 
     /**
      * Set the level's default target point to 30
      */
-    private static final int DEFAULT_LEVEL_TARGET_POINT = 30;
+    static final int DEFAULT_LEVEL_TARGET_POINT = 30;
 
     /**
      * The list of moving entities.
@@ -98,6 +98,15 @@ public class LevelBuilderImpl implements LevelBuilder {
      */
     private int targetPoint;
 
+    /**
+     * Whether the level ticks its isolated moving entities in parallel.
+     */
+    private boolean parallelTick;
+
+    /**
+     * How far from the hero enemies keep being ticked (zero for always).
+     */
+    private double activationRadius;
 
     /**
      * The GameEngine the level exists within.
@@ -169,10 +178,25 @@ public class LevelBuilderImpl implements LevelBuilder {
         return this;
     }
 
+    @Override
+    public LevelBuilder setParallelTick(boolean parallelTick) {
+        this.parallelTick = parallelTick;
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setActivationRadius(double activationRadius) {
+        this.activationRadius = activationRadius;
+        return this;
+    }
+
     @Override
     public Level build() {
-        return new LevelManager(model, file, height, width, floorHeight, heroX, heroSize, staticEntities, movingEntities, interactables,
-                this.targetPoint);
+        LevelManager level = new LevelManager(model, file, height, width, floorHeight, heroX, heroSize, staticEntities,
+                movingEntities, interactables, this.targetPoint);
+        level.setParallelTick(this.parallelTick);
+        level.setActivationRadius(this.activationRadius);
+        return level;
     }
 
     /**
@@ -212,6 +236,18 @@ public class LevelBuilderImpl implements LevelBuilder {
             levelBuilder.setDimensions(width, height);
             levelBuilder.setFloorHeight(floorHeight);
 
+            // Optional: levels with hordes of enemies can tick them in parallel
+            Object parallelTick = object.get("parallelTick");
+            if (parallelTick != null) {
+                levelBuilder.setParallelTick((boolean) parallelTick);
+            }
+
+            // Optional: enemies further than this from the hero sleep
+            Object activationRadius = object.get("activationRadius");
+            if (activationRadius != null) {
+                levelBuilder.setActivationRadius(((Number) activationRadius).doubleValue());
+            }
+
             JSONArray platforms = (JSONArray) object.get("platforms");
 
             Iterator<JSONObject> iterator = (Iterator<JSONObject>) platforms.iterator();
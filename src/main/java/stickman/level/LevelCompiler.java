@@ -0,0 +1,328 @@
+package stickman.level;
+
+import gamesaver.MementoCodec;
+import stickman.entity.Entity;
+import stickman.entity.Interactable;
+import stickman.entity.moving.MovingEntity;
+import stickman.entity.moving.enemy.DumbStrategy;
+import stickman.entity.moving.enemy.FollowStrategy;
+import stickman.entity.moving.enemy.Slime;
+import stickman.entity.still.Flag;
+import stickman.entity.still.Mushroom;
+import stickman.entity.still.Platform;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles JSON level files into the binary format read by BinaryLevelLoader. The compiler is a LevelBuilder
+ * the JSON file is read into, so it accepts exactly what the game does; building it gives the level as the
+ * compiled file will load.
+ * <p>
+ * Run it with --in=&lt;level.json&gt; and optionally --out=&lt;level.lvlbin&gt;, which defaults to the
+ * input file with the .lvlbin extension.
+ */
+public class LevelCompiler implements LevelBuilder {
+
+    /**
+     * The source file for the level.
+     */
+    private final String file;
+
+    /**
+     * The platforms of the level.
+     */
+    private final List<Platform> platforms;
+
+    /**
+     * The mushrooms of the level.
+     */
+    private final List<Mushroom> mushrooms;
+
+    /**
+     * The enemies of the level.
+     */
+    private final List<Slime> enemies;
+
+    /**
+     * The flag of the level.
+     */
+    private Flag flag;
+
+    /**
+     * The starting x-coordinate for the hero.
+     */
+    private double heroX;
+
+    /**
+     * The size of the hero.
+     */
+    private String heroSize;
+
+    /**
+     * The width of the level.
+     */
+    private double width;
+
+    /**
+     * The height of the level.
+     */
+    private double height;
+
+    /**
+     * The height of the floor in the level.
+     */
+    private double floorHeight;
+
+    /**
+     * The target point of the level.
+     */
+    private int targetPoint;
+
+    /**
+     * Whether the level ticks its isolated moving entities in parallel.
+     */
+    private boolean parallelTick;
+
+    /**
+     * How far from the hero enemies keep being ticked (zero for always).
+     */
+    private double activationRadius;
+
+    /**
+     * Creates a new LevelCompiler object.
+     * @param file The source file for the level
+     */
+    public LevelCompiler(String file) {
+        this.file = file;
+        this.platforms = new ArrayList<>();
+        this.mushrooms = new ArrayList<>();
+        this.enemies = new ArrayList<>();
+
+        this.floorHeight = LevelBuilderImpl.DEFAULT_FLOOR_HEIGHT;
+        this.width = LevelBuilderImpl.DEFAULT_LEVEL_WIDTH;
+        this.height = LevelBuilderImpl.DEFAULT_LEVEL_HEIGHT;
+        this.targetPoint = LevelBuilderImpl.DEFAULT_LEVEL_TARGET_POINT;
+    }
+
+    @Override
+    public LevelBuilder addEnemy(MovingEntity enemy) {
+        if (!(enemy instanceof Slime)) {
+            throw new IllegalArgumentException("Cannot compile a " + enemy.getClass().getSimpleName());
+        }
+        this.enemies.add((Slime) enemy);
+        return this;
+    }
+
+    @Override
+    public LevelBuilder addStaticEntity(Entity entity) {
+        if (entity instanceof Platform) {
+            this.platforms.add((Platform) entity);
+        } else if (entity instanceof Mushroom) {
+            this.mushrooms.add((Mushroom) entity);
+        } else if (entity instanceof Flag) {
+            this.flag = (Flag) entity;
+        } else {
+            throw new IllegalArgumentException("Cannot compile a " + entity.getClass().getSimpleName());
+        }
+        return this;
+    }
+
+    @Override
+    public LevelBuilder addInteractable(Interactable collectable) {
+        // Every interactable of a level file is also a static entity or an enemy, and is compiled as one
+        if (!(collectable instanceof Mushroom || collectable instanceof Flag || collectable instanceof Slime)) {
+            throw new IllegalArgumentException("Cannot compile a " + collectable.getClass().getSimpleName());
+        }
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setHero(double x, String size) {
+        this.heroX = x;
+        this.heroSize = size;
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setFloorHeight(double height) {
+        this.floorHeight = height;
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setDimensions(double width, double height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setTargetPoint(int targetPoint) {
+        if (targetPoint >= 0) {
+            this.targetPoint = targetPoint;
+        }
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setParallelTick(boolean parallelTick) {
+        this.parallelTick = parallelTick;
+        return this;
+    }
+
+    @Override
+    public LevelBuilder setActivationRadius(double activationRadius) {
+        this.activationRadius = activationRadius;
+        return this;
+    }
+
+    /**
+     * Builds the level as the compiled file will load, without a game.
+     * @return The level
+     * @throws IllegalStateException If the level has no flag
+     */
+    @Override
+    public Level build() {
+        LevelBuilder levelBuilder = new LevelBuilderImpl(this.file, null);
+        try {
+            BinaryLevelLoader.read(compile(), levelBuilder);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return levelBuilder.build();
+    }
+
+    /**
+     * Compiles the level.
+     * @return The compiled level, ready to be read
+     * @throws IllegalStateException If the level has no flag
+     */
+    public ByteBuffer compile() {
+        if (this.flag == null) {
+            throw new IllegalStateException("The level has no flag");
+        }
+        int capacity = 256 + 16 * (this.platforms.size() + this.mushrooms.size()) + 32 * this.enemies.size();
+        while (true) {
+            ByteBuffer buffer = ByteBuffer.allocate(capacity);
+            try {
+                compile(buffer);
+                buffer.flip();
+                return buffer;
+            } catch (BufferOverflowException e) {
+                capacity *= 2;
+            }
+        }
+    }
+
+    /**
+     * Writes the compiled level.
+     * @param buffer Where to write the level
+     * @throws BufferOverflowException If the buffer is too small
+     */
+    private void compile(ByteBuffer buffer) {
+        buffer.putInt(BinaryLevelLoader.MAGIC);
+        buffer.putInt(BinaryLevelLoader.FORMAT_VERSION);
+        buffer.putDouble(this.width);
+        buffer.putDouble(this.height);
+        buffer.putDouble(this.floorHeight);
+        buffer.putDouble(this.heroX);
+        MementoCodec.putString(this.heroSize, buffer);
+        buffer.putInt(this.targetPoint);
+        MementoCodec.putBoolean(this.parallelTick, buffer);
+        buffer.putDouble(this.activationRadius);
+        buffer.putDouble(this.flag.getXPos());
+        buffer.putDouble(this.flag.getYPos());
+
+        buffer.putInt(this.platforms.size());
+        for (Platform platform : this.platforms) {
+            buffer.putDouble(platform.getXPos());
+            buffer.putDouble(platform.getYPos());
+        }
+
+        buffer.putInt(this.mushrooms.size());
+        for (Mushroom mushroom : this.mushrooms) {
+            buffer.putDouble(mushroom.getXPos());
+            buffer.putDouble(mushroom.getYPos());
+        }
+
+        // Levels only use a handful of sprites, so enemies refer to them by index
+        Map<String, Integer> paths = new LinkedHashMap<>();
+        for (Slime enemy : this.enemies) {
+            paths.putIfAbsent(enemy.getImagePath(), paths.size());
+        }
+        buffer.putInt(paths.size());
+        for (String path : paths.keySet()) {
+            MementoCodec.putString(path, buffer);
+        }
+
+        buffer.putInt(this.enemies.size());
+        for (Slime enemy : this.enemies) {
+            buffer.putDouble(enemy.getXPos());
+            buffer.putDouble(enemy.getYPos());
+            buffer.putInt(paths.get(enemy.getImagePath()));
+            MementoCodec.putBoolean(enemy.isMovingLeft(), buffer);
+            if (enemy.getStrategy() instanceof FollowStrategy) {
+                buffer.put(BinaryLevelLoader.FOLLOW_STRATEGY);
+            } else if (enemy.getStrategy() instanceof DumbStrategy) {
+                buffer.put(BinaryLevelLoader.DUMB_STRATEGY);
+            } else {
+                buffer.put(BinaryLevelLoader.NO_STRATEGY);
+            }
+        }
+    }
+
+    /**
+     * Compiles a JSON level file.
+     * @param in The JSON file to read
+     * @param out The compiled file to write
+     * @throws IOException If either file cannot be read or written, or the JSON file is not a level
+     */
+    public static void compile(String in, String out) throws IOException {
+        LevelCompiler compiler = new LevelCompiler(out);
+        StreamingLevelLoader.read(in, compiler);
+        ByteBuffer compiled = compiler.compile();
+        try (FileChannel channel = FileChannel.open(Paths.get(out), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (compiled.hasRemaining()) {
+                channel.write(compiled);
+            }
+        }
+    }
+
+    /**
+     * Compiles the JSON level file given by --in into the file given by --out.
+     * @param args Command line arguments passed to the program
+     * @throws IOException If either file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        String in = null;
+        String out = null;
+        for (String arg : args) {
+            if (arg.startsWith("--in=")) {
+                in = arg.substring("--in=".length());
+            } else if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            }
+        }
+        if (in == null) {
+            System.err.println("Usage: LevelCompiler --in=<level.json> [--out=<level" + BinaryLevelLoader.EXTENSION + ">]");
+            System.exit(1);
+        }
+        if (out == null) {
+            out = (in.endsWith(".json") ? in.substring(0, in.length() - ".json".length()) : in)
+                    + BinaryLevelLoader.EXTENSION;
+        }
+        long start = System.nanoTime();
+        compile(in, out);
+        System.out.printf("Level %s compiled to %s in %d ms\n", in, out, (System.nanoTime() - start) / 1_000_000);
+    }
+}
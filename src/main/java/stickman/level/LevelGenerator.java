@@ -0,0 +1,496 @@
+package stickman.level;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import stickman.entity.moving.enemy.DumbStrategy;
+import stickman.entity.moving.enemy.EnemyStrategy;
+import stickman.entity.moving.enemy.FollowStrategy;
+import stickman.entity.moving.enemy.Slime;
+import stickman.entity.still.Flag;
+import stickman.entity.still.Mushroom;
+import stickman.entity.still.Platform;
+import stickman.model.GameEngine;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Generates large levels procedurally, for stress testing and benchmarking. The same seed and
+ * settings always give the same level. Levels are built through the LevelBuilder, and can also be
+ * written out in the JSON format read by LevelBuilderImpl.generateFromFile.
+ * <p>
+ * Platforms are laid out as horizontal runs of 20 pixel blocks at random heights above the floor,
+ * slimes walk on the floor and mushrooms sit either on the floor or on top of a platform.
+ */
+public class LevelGenerator {
+
+    /**
+     * The size of a platform block.
+     */
+    private static final double BLOCK_SIZE = 20;
+
+    /**
+     * The longest run of platform blocks generated.
+     */
+    private static final int MAX_RUN_LENGTH = 12;
+
+    /**
+     * The highest a platform is placed above the floor, in blocks.
+     */
+    private static final int MAX_PLATFORM_ROWS = 10;
+
+    /**
+     * The distance kept clear of generated entities at the ends of the level.
+     */
+    private static final double EDGE_MARGIN = 300;
+
+    /**
+     * The x-coordinate the hero starts at.
+     */
+    private static final double HERO_X = 50;
+
+    /**
+     * The seed of the random layout.
+     */
+    private long seed;
+
+    /**
+     * The width of the level.
+     */
+    private double width;
+
+    /**
+     * The height of the level.
+     */
+    private double height;
+
+    /**
+     * The height of the floor.
+     */
+    private double floorHeight;
+
+    /**
+     * The number of platform blocks.
+     */
+    private int platformCount;
+
+    /**
+     * The number of slimes walking side to side.
+     */
+    private int dumbSlimeCount;
+
+    /**
+     * The number of slimes following the hero.
+     */
+    private int followSlimeCount;
+
+    /**
+     * The number of mushrooms.
+     */
+    private int mushroomCount;
+
+    /**
+     * The target point of the level.
+     */
+    private int targetPoint;
+
+    /**
+     * The smallest x-coordinate an enemy starts at.
+     */
+    private double enemyMinX;
+
+    /**
+     * Whether the level ticks its slimes in parallel.
+     */
+    private boolean parallelTick;
+
+    /**
+     * How far from the hero enemies keep being ticked (zero for always).
+     */
+    private double activationRadius;
+
+    /**
+     * Creates a LevelGenerator with the settings of a small level.
+     * @param seed The seed of the random layout
+     */
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+        this.width = 2000;
+        this.height = 700;
+        this.floorHeight = 400;
+        this.platformCount = 40;
+        this.dumbSlimeCount = 3;
+        this.followSlimeCount = 2;
+        this.mushroomCount = 1;
+        this.targetPoint = 30;
+        this.enemyMinX = HERO_X + EDGE_MARGIN;
+    }
+
+    /**
+     * Creates a LevelGenerator for a level with about the given number of entities: 70% platforms,
+     * 20% dumb slimes, 5% following slimes and 5% mushrooms, with a width giving the same density
+     * as the shipped levels.
+     * @param entityCount The number of entities wanted
+     * @param seed The seed of the random layout
+     * @return The configured generator
+     */
+    public static LevelGenerator ofSize(int entityCount, long seed) {
+        int platforms = entityCount * 70 / 100;
+        int dumb = entityCount * 20 / 100;
+        int follow = entityCount * 5 / 100;
+        int mushrooms = Math.max(0, entityCount - platforms - dumb - follow);
+        return new LevelGenerator(seed)
+                .setWidth(Math.max(2000, entityCount * BLOCK_SIZE))
+                .setPlatformCount(platforms)
+                .setDumbSlimeCount(dumb)
+                .setFollowSlimeCount(follow)
+                .setMushroomCount(mushrooms);
+    }
+
+    /**
+     * Sets the seed of the random layout.
+     * @param seed The seed
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the width of the level.
+     * @param width The width
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setWidth(double width) {
+        this.width = width;
+        return this;
+    }
+
+    /**
+     * Sets the height of the level and of its floor.
+     * @param height The height of the level
+     * @param floorHeight The height of the floor
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setHeight(double height, double floorHeight) {
+        this.height = height;
+        this.floorHeight = floorHeight;
+        return this;
+    }
+
+    /**
+     * Sets the number of platform blocks.
+     * @param platformCount The number of platforms
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setPlatformCount(int platformCount) {
+        this.platformCount = platformCount;
+        return this;
+    }
+
+    /**
+     * Sets the number of slimes using the "dumb" strategy.
+     * @param dumbSlimeCount The number of dumb slimes
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setDumbSlimeCount(int dumbSlimeCount) {
+        this.dumbSlimeCount = dumbSlimeCount;
+        return this;
+    }
+
+    /**
+     * Sets the number of slimes using the "follow" strategy.
+     * @param followSlimeCount The number of following slimes
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setFollowSlimeCount(int followSlimeCount) {
+        this.followSlimeCount = followSlimeCount;
+        return this;
+    }
+
+    /**
+     * Sets the number of mushrooms.
+     * @param mushroomCount The number of mushrooms
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setMushroomCount(int mushroomCount) {
+        this.mushroomCount = mushroomCount;
+        return this;
+    }
+
+    /**
+     * Sets the target point of the level.
+     * @param targetPoint The target point
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setTargetPoint(int targetPoint) {
+        this.targetPoint = targetPoint;
+        return this;
+    }
+
+    /**
+     * Sets the smallest x-coordinate an enemy starts at, to keep them away from the hero.
+     * @param enemyMinX The smallest x-coordinate of an enemy
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setEnemyMinX(double enemyMinX) {
+        this.enemyMinX = enemyMinX;
+        return this;
+    }
+
+    /**
+     * Sets whether the level ticks its slimes in parallel.
+     * @param parallelTick Whether to tick in parallel
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setParallelTick(boolean parallelTick) {
+        this.parallelTick = parallelTick;
+        return this;
+    }
+
+    /**
+     * Sets how far from the hero enemies keep being ticked. Enemies further away sleep.
+     * @param activationRadius The activation radius, or zero for enemies never to sleep
+     * @return This instance of LevelGenerator
+     */
+    public LevelGenerator setActivationRadius(double activationRadius) {
+        this.activationRadius = activationRadius;
+        return this;
+    }
+
+    /**
+     * Builds the level.
+     * @param source The name given to the level (used when it resets)
+     * @param model The GameEngine the level is part of
+     * @return The generated level
+     */
+    public Level generate(String source, GameEngine model) {
+        LevelBuilder builder = new LevelBuilderImpl(source, model)
+                .setDimensions(this.width, this.height)
+                .setFloorHeight(this.floorHeight)
+                .setHero(HERO_X, "normal")
+                .setTargetPoint(this.targetPoint)
+                .setParallelTick(this.parallelTick)
+                .setActivationRadius(this.activationRadius);
+
+        Layout layout = layout();
+
+        for (int i = 0; i < this.platformCount; i++) {
+            builder.addStaticEntity(new Platform(layout.platformX[i], layout.platformY[i]));
+        }
+        for (int i = 0; i < this.mushroomCount; i++) {
+            Mushroom mushroom = new Mushroom(layout.mushroomX[i], layout.mushroomY[i]);
+            builder.addInteractable(mushroom);
+            builder.addStaticEntity(mushroom);
+        }
+
+        EnemyStrategy dumb = new DumbStrategy();
+        EnemyStrategy follow = new FollowStrategy();
+        for (int i = 0; i < layout.enemyX.length; i++) {
+            boolean follows = i >= this.dumbSlimeCount;
+            Slime slime = new Slime(slimeImage(follows, i), layout.enemyX[i], layout.enemyY,
+                    layout.enemyStartLeft[i], follows ? follow : dumb);
+            builder.addInteractable(slime);
+            builder.addEnemy(slime);
+        }
+
+        Flag flag = new Flag(layout.flagX, layout.flagY);
+        builder.addInteractable(flag);
+        builder.addStaticEntity(flag);
+
+        return builder.build();
+    }
+
+    /**
+     * Writes the level in the JSON format of the level files.
+     * @param file The path of the file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void writeJson(String file) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            writeJson(writer);
+        }
+    }
+
+    /**
+     * Writes the level in the JSON format of the level files.
+     * @param writer Where to write the level
+     * @throws IOException If the level cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    public void writeJson(Writer writer) throws IOException {
+        Layout layout = layout();
+
+        JSONObject level = new JSONObject();
+        level.put("levelTargetPoint", (long) this.targetPoint);
+        level.put("stickmanSize", "normal");
+        JSONObject stickmanPos = new JSONObject();
+        stickmanPos.put("x", HERO_X);
+        level.put("stickmanPos", stickmanPos);
+        level.put("cloudVelocity", 3.2);
+
+        JSONObject dimensions = new JSONObject();
+        dimensions.put("width", this.width);
+        dimensions.put("height", this.height);
+        dimensions.put("floorHeight", this.floorHeight);
+        level.put("levelDimensions", dimensions);
+        if (this.parallelTick) {
+            level.put("parallelTick", true);
+        }
+        if (this.activationRadius > 0) {
+            level.put("activationRadius", this.activationRadius);
+        }
+
+        JSONArray platforms = new JSONArray();
+        for (int i = 0; i < this.platformCount; i++) {
+            platforms.add(point(layout.platformX[i], layout.platformY[i]));
+        }
+        level.put("platforms", platforms);
+
+        JSONArray mushrooms = new JSONArray();
+        for (int i = 0; i < this.mushroomCount; i++) {
+            mushrooms.add(point(layout.mushroomX[i], layout.mushroomY[i]));
+        }
+        level.put("mushrooms", mushrooms);
+
+        JSONArray enemies = new JSONArray();
+        for (int i = 0; i < layout.enemyX.length; i++) {
+            boolean follows = i >= this.dumbSlimeCount;
+            JSONObject enemy = point(layout.enemyX[i], layout.enemyY);
+            enemy.put("path", slimeImage(follows, i));
+            enemy.put("startLeft", layout.enemyStartLeft[i]);
+            enemy.put("strategy", follows ? "follow" : "dumb");
+            enemies.add(enemy);
+        }
+        level.put("enemies", enemies);
+
+        level.put("flag", point(layout.flagX, layout.flagY));
+
+        level.writeJSONString(writer);
+    }
+
+    /**
+     * Generates a level and writes it to a JSON file.
+     * Arguments use the --name=value form: --out, --entities and --seed, plus the --parallelTick flag.
+     * @param args Command line arguments passed to the program
+     * @throws IOException If the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String out = "levels/generated.json";
+        int entities = 10000;
+        long seed = 0;
+        boolean parallelTick = false;
+        for (String arg : args) {
+            if (arg.startsWith("--out=")) {
+                out = arg.substring("--out=".length());
+            } else if (arg.startsWith("--entities=")) {
+                entities = Integer.parseInt(arg.substring("--entities=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.equals("--parallelTick")) {
+                parallelTick = true;
+            }
+        }
+        ofSize(entities, seed).setParallelTick(parallelTick).writeJson(out);
+        System.out.printf("Level with %d entities written to %s\n", entities, out);
+    }
+
+    /**
+     * Creates a JSON object holding a position.
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The JSON object
+     */
+    @SuppressWarnings("unchecked")
+    private static JSONObject point(double x, double y) {
+        JSONObject point = new JSONObject();
+        point.put("x", x);
+        point.put("y", y);
+        return point;
+    }
+
+    /**
+     * Picks the sprite of a slime. Yellow slimes follow, blue and green ones don't, like in the shipped levels.
+     * @param follows Whether the slime follows the hero
+     * @param index The index of the slime
+     * @return The sprite path
+     */
+    private static String slimeImage(boolean follows, int index) {
+        if (follows) {
+            return "slimeYa.png";
+        }
+        return index % 2 == 0 ? "slimeBa.png" : "slimeGa.png";
+    }
+
+    /**
+     * Works out where every entity goes. Each call with the same settings gives the same layout.
+     * @return The positions of the entities
+     */
+    private Layout layout() {
+        Random random = new Random(this.seed);
+        Layout layout = new Layout(this.platformCount, this.mushroomCount, this.dumbSlimeCount + this.followSlimeCount);
+
+        // Platforms come in runs of adjacent blocks, lined up on the block grid
+        int columns = Math.max(1, (int) ((this.width - 2 * EDGE_MARGIN) / BLOCK_SIZE));
+        int placed = 0;
+        while (placed < this.platformCount) {
+            int run = Math.min(this.platformCount - placed, 1 + random.nextInt(MAX_RUN_LENGTH));
+            double x = EDGE_MARGIN + random.nextInt(columns) * BLOCK_SIZE;
+            double y = this.floorHeight - BLOCK_SIZE * (2 + random.nextInt(MAX_PLATFORM_ROWS - 1));
+            for (int i = 0; i < run; i++) {
+                layout.platformX[placed] = x + i * BLOCK_SIZE;
+                layout.platformY[placed] = y;
+                placed++;
+            }
+        }
+
+        for (int i = 0; i < this.mushroomCount; i++) {
+            if (this.platformCount > 0 && random.nextBoolean()) {
+                int platform = random.nextInt(this.platformCount);
+                layout.mushroomX[i] = layout.platformX[platform];
+                layout.mushroomY[i] = layout.platformY[platform] - BLOCK_SIZE;
+            } else {
+                layout.mushroomX[i] = EDGE_MARGIN + random.nextDouble() * Math.max(0, this.width - 2 * EDGE_MARGIN);
+                layout.mushroomY[i] = this.floorHeight - BLOCK_SIZE;
+            }
+        }
+
+        layout.enemyY = this.floorHeight - BLOCK_SIZE;
+        for (int i = 0; i < layout.enemyX.length; i++) {
+            layout.enemyX[i] = this.enemyMinX + random.nextDouble() * Math.max(0, this.width - EDGE_MARGIN - this.enemyMinX);
+            layout.enemyStartLeft[i] = random.nextBoolean();
+        }
+
+        layout.flagX = this.width - 100;
+        layout.flagY = this.floorHeight - 40;
+        return layout;
+    }
+
+    /**
+     * The positions worked out for a level.
+     */
+    private static class Layout {
+        private final double[] platformX;
+        private final double[] platformY;
+        private final double[] mushroomX;
+        private final double[] mushroomY;
+        private final double[] enemyX;
+        private final boolean[] enemyStartLeft;
+        private double enemyY;
+        private double flagX;
+        private double flagY;
+
+        private Layout(int platforms, int mushrooms, int enemies) {
+            this.platformX = new double[platforms];
+            this.platformY = new double[platforms];
+            this.mushroomX = new double[mushrooms];
+            this.mushroomY = new double[mushrooms];
+            this.enemyX = new double[enemies];
+            this.enemyStartLeft = new boolean[enemies];
+        }
+    }
+}
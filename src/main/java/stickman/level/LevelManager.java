@@ -1,8 +1,11 @@
 package stickman.level;
 
+import gamesaver.MementoCodec;
+import observer.EventQueue;
 import observer.Observer;
 import observer.Subject;
 import stickman.entity.*;
+import stickman.entity.moving.IsolatedTickable;
 import stickman.entity.moving.MovingEntity;
 import stickman.entity.moving.other.Bullet;
 import stickman.entity.moving.other.Projectile;
@@ -13,10 +16,12 @@ import stickman.entity.still.Win;
 import stickman.model.GameEngine;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * + Implementation of the Level interface. Manages the running of
@@ -33,13 +38,95 @@ public class LevelManager implements Level, Subject {
     /**
      * A list of all the entities in the level.
      */
-    private List<Entity> entities;
+    private EntityList entities;
+
+    /**
+     * Whether the entity with a given id is still in the entities list.
+     */
+    private BitSet alive;
+
+    /**
+     * The id handed out to the next entity when there is no free id to reuse.
+     */
+    private int nextEntityId;
+
+    /**
+     * Ids of removed entities which can be handed out again.
+     */
+    private int[] freeEntityIds;
+
+    /**
+     * The number of ids in freeEntityIds.
+     */
+    private int freeEntityIdCount;
+
+    /**
+     * Ids of entities removed since the last clean up. They are only reused once the side lists
+     * no longer reference their entities.
+     */
+    private int[] retiredEntityIds;
+
+    /**
+     * The number of ids in retiredEntityIds.
+     */
+    private int retiredEntityIdCount;
+
+    /**
+     * The spatial index of the solid entities in the level, used by the raycasts.
+     */
+    private SpatialGrid solidGrid;
+
+    /**
+     * Whether the grid of solid entities is shared with a copy of the level, and must be copied before it changes.
+     */
+    private boolean solidGridShared;
 
     /**
      * A list of all the moving entities in the level.
      */
     private List<MovingEntity> movingEntities;
 
+    /**
+     * Whether the isolated moving entities are ticked in parallel.
+     */
+    private boolean parallelTick;
+
+    /**
+     * The isolated moving entities ticked in parallel this tick.
+     */
+    private IsolatedTickable[] parallelBatch;
+
+    /**
+     * The fewest isolated entities worth splitting the tick across threads for.
+     */
+    private static final int PARALLEL_TICK_THRESHOLD = 256;
+
+    /**
+     * How far from the hero an enemy has to be to stop being ticked.
+     */
+    private double activationRadius;
+
+    /**
+     * The x-coordinate of the hero at the start of the current tick, which decides who is awake.
+     */
+    private double wakeX;
+
+    /**
+     * The y-coordinate of the hero at the start of the current tick, which decides who is awake.
+     */
+    private double wakeY;
+
+    /**
+     * The queue the level and its entities notify their observers through. Notifications made during
+     * a tick are delivered, once per observer, when the tick's simulation is over.
+     */
+    private EventQueue events;
+
+    /**
+     * Resets the game, deferred until the observers have heard about the hero's death.
+     */
+    private final Runnable resetModel;
+
     /**
      * A list of all the entities that can interact with the player.
      */
@@ -50,6 +137,31 @@ public class LevelManager implements Level, Subject {
      */
     private List<Projectile> projectiles;
 
+    /**
+     * Broadphase of the interactables, used to find the ones the hero may be touching.
+     */
+    private SortAndSweep<Interactable> interactableSweep;
+
+    /**
+     * Broadphase of the moving entities, used to find the ones a projectile may be hitting.
+     */
+    private SortAndSweep<MovingEntity> movingSweep;
+
+    /**
+     * Reused list of interactables that may collide with the hero.
+     */
+    private List<Interactable> interactableCandidates;
+
+    /**
+     * Reused list of moving entities that may collide with a projectile.
+     */
+    private List<MovingEntity> movingCandidates;
+
+    /**
+     * Reused list of solid entities that may collide with a projectile.
+     */
+    private List<Entity> solidCandidates;
+
     /**
      * The height of the level.
      */
@@ -70,6 +182,21 @@ public class LevelManager implements Level, Subject {
      */
     private boolean active;
 
+    /**
+     * How the level ended, if it has.
+     */
+    private Outcome outcome;
+
+    /**
+     * The tick the level was won or lost in.
+     */
+    private long outcomeTick;
+
+    /**
+     * The number of ticks the level has run.
+     */
+    private long ticks;
+
     /**
      * The name of the file the level is from.
      */
@@ -95,6 +222,21 @@ public class LevelManager implements Level, Subject {
      * */
     private int points;
 
+    /**
+     * The points of the objects which died since the queue was last drained.
+     */
+    private int[] queuedPoints;
+
+    /**
+     * The number of queued points.
+     */
+    private int queuedPointCount;
+
+    /**
+     * The points awarded during the current or latest tick.
+     */
+    private int tickPoints;
+
     /**
     * SIze of the hero in String
     * */
@@ -130,7 +272,6 @@ public class LevelManager implements Level, Subject {
         this.height = height;
         this.width = width;
         this.floorHeight = floorHeight;
-        this.entities = entities;
         this.movingEntities = movingEntities;
         this.interactables = interactables;
 
@@ -141,14 +282,47 @@ public class LevelManager implements Level, Subject {
         this.movingEntities.add(this.hero);
 
         // Ensure entities has all entities (including moving ones)
-        this.entities.addAll(movingEntities);
-        this.entities = new ArrayList<>(new HashSet<>(entities));
+        entities.addAll(movingEntities);
+        // Give every entity a dense id, in list order. An entity listed twice already has its id the second
+        // time, which is how duplicates are removed while keeping the order the level always iterates in
+        this.alive = new BitSet(entities.size());
+        this.freeEntityIds = new int[16];
+        this.retiredEntityIds = new int[16];
+        this.queuedPoints = new int[16];
+        for (int i = 0; i < entities.size(); i++) {
+            entities.get(i).setEntityId(-1);
+        }
+        this.entities = new EntityList(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity.getEntityId() < 0) {
+                assignEntityId(entity);
+                this.entities.add(entity);
+            }
+        }
+
+        // Index the solid entities so that the raycasts do not have to scan the whole level
+        this.solidGrid = new SpatialGrid(this.entities, width, height);
+        this.entities.setSolidGrid(this.solidGrid);
+
+        // Broadphases for the collisions, with their reusable candidate lists
+        this.interactableSweep = new SortAndSweep<>(this.interactables);
+        this.movingSweep = new SortAndSweep<>(this.movingEntities);
+        this.interactableCandidates = new ArrayList<>();
+        this.movingCandidates = new ArrayList<>();
+        this.solidCandidates = new ArrayList<>();
+        this.parallelBatch = new IsolatedTickable[0];
+        this.activationRadius = Double.POSITIVE_INFINITY;
 
         // This provides a check whether the level is running
         this.active = true;
+        this.outcome = Outcome.RUNNING;
+        this.outcomeTick = -1;
 
         // Initialise the list of levels
         this.observers = new ArrayList<>();
+        this.events = new EventQueue();
+        this.resetModel = this::resetGame;
 
         // Set default target point to
         if (targetPoint >= 0) {
@@ -163,6 +337,108 @@ public class LevelManager implements Level, Subject {
         // attach the entities with this level
         attachLevelToSubjects();
     }
+    /**
+     * Creates a level without any entities, for copy() and decode() to fill in.
+     * @param model The game model
+     * @param filename The source file of the level
+     * @param height The height of the level
+     * @param width The width of the level
+     * @param floorHeight The height of the floor
+     * @param heroSize The size the hero starts at
+     * @param targetPoint The target point of the level
+     */
+    private LevelManager(GameEngine model, String filename, double height, double width, double floorHeight,
+                         String heroSize, int targetPoint) {
+        this.model = model;
+        this.filename = filename;
+        this.height = height;
+        this.width = width;
+        this.floorHeight = floorHeight;
+        this.heroSize = heroSize;
+        this.targetPoint = targetPoint;
+        this.active = true;
+        this.outcome = Outcome.RUNNING;
+        this.outcomeTick = -1;
+        this.activationRadius = Double.POSITIVE_INFINITY;
+
+        this.observers = new ArrayList<>();
+        this.events = new EventQueue();
+        this.resetModel = this::resetGame;
+
+        this.movingEntities = new ArrayList<>();
+        this.interactables = new ArrayList<>();
+        this.projectiles = new ArrayList<>();
+        this.interactableCandidates = new ArrayList<>();
+        this.movingCandidates = new ArrayList<>();
+        this.solidCandidates = new ArrayList<>();
+        this.parallelBatch = new IsolatedTickable[0];
+        this.queuedPoints = new int[16];
+    }
+
+    /**
+     * Adds an entity of a copied or decoded level to the side lists it belongs to. Moving entities go to the
+     * moving list and every other entity to the given list of still entities.
+     * @param entity The entity, which is not the hero
+     * @param stillEntities The still entities of the level so far
+     */
+    private void sortEntity(Entity entity, List<Entity> stillEntities) {
+        if (entity instanceof MovingEntity) {
+            this.movingEntities.add((MovingEntity) entity);
+        } else {
+            stillEntities.add(entity);
+        }
+        if (entity instanceof Interactable) {
+            this.interactables.add((Interactable) entity);
+        }
+        if (entity instanceof Projectile) {
+            this.projectiles.add((Projectile) entity);
+        }
+    }
+
+    /**
+     * Gives a copied or decoded level its hero and its entities list: the still entities first, then the
+     * moving ones and the hero last, which is the order levels have always been copied in.
+     * @param stillEntities The still entities of the level
+     * @param hero The hero of the level
+     */
+    private void setEntities(List<Entity> stillEntities, Controllable hero) {
+        this.hero = hero;
+        this.hero.setLevel(this);
+        this.hero.attach(this);
+        this.hero.setEventQueue(this.events);
+        this.movingEntities.add(this.hero);
+
+        this.entities = new EntityList(stillEntities.size() + this.movingEntities.size());
+        this.entities.addAll(stillEntities);
+        this.entities.addAll(this.movingEntities);
+
+        this.interactableSweep = new SortAndSweep<>(this.interactables);
+        this.movingSweep = new SortAndSweep<>(this.movingEntities);
+    }
+
+    /**
+     * Copies the state of the level which is not given to the constructors.
+     * @param level The level to copy the state to
+     */
+    private void copyStateTo(LevelManager level) {
+        level.points = this.points;
+        level.active = this.active;
+        level.outcome = this.outcome;
+        level.outcomeTick = this.outcomeTick;
+        level.ticks = this.ticks;
+        level.parallelTick = this.parallelTick;
+        level.activationRadius = this.activationRadius;
+    }
+
+    /**
+     * Resets the game the level belongs to, if any.
+     */
+    private void resetGame() {
+        if (this.model != null) {
+            this.model.reset();
+        }
+    }
+
     /**
     * Because the level is the observer of entities, we have this function to attach this level to those entities
      * who are the subject
@@ -171,6 +447,7 @@ public class LevelManager implements Level, Subject {
         for (Entity entity: this.entities) {
             if (entity != null) {
                 entity.attach(this);
+                entity.setEventQueue(this.events);
             }
         }
     }
@@ -198,49 +475,335 @@ public class LevelManager implements Level, Subject {
             return;
         }
 
-        for (MovingEntity entity : this.movingEntities) {
-            entity.tick(this.entities, this.hero.getXPos(), this.floorHeight);
+        // Notifications wait until the simulation of the tick is over, so that observers never run in the
+        // middle of the collision loops and ten deaths cost one update
+        this.events.begin();
+        this.tickPoints = 0;
+        this.ticks++;
+
+        // Decide who is awake from where the hero starts the tick, whatever order entities move in
+        this.wakeX = this.hero.getXPos();
+        this.wakeY = this.hero.getYPos();
+
+        if (this.parallelTick) {
+            this.tickMovingEntitiesInParallel();
+        } else {
+            // Indexed loops keep the tick free of iterator allocations
+            for (int i = 0; i < this.movingEntities.size(); i++) {
+                MovingEntity entity = this.movingEntities.get(i);
+                if (this.isAwake(entity)) {
+                    entity.tick(this.entities, this.hero.getXPos(), this.floorHeight);
+                }
+            }
         }
 
         this.manageCollisions();
 
+        // Deliver before the clean up, while the dead entities are still there to be scored
+        this.events.end();
+
         // Remove inactive entities
         this.clearOutInactive();
     }
 
+    /**
+     * Ticks the moving entities in two phases, giving exactly the same result as ticking them in order.
+     * First, the isolated entities coming before the hero are ticked in parallel: each one works out its
+     * tick from the platforms, which never move, and the hero's position, which has not changed yet, while
+     * nothing in the level changes; then each one takes its new state in turn.
+     * Then every other moving entity is ticked in order, as usual.
+     */
+    private void tickMovingEntitiesInParallel() {
+        int count = 0;
+        for (int i = 0; i < this.movingEntities.size(); i++) {
+            MovingEntity entity = this.movingEntities.get(i);
+            if (entity == this.hero) {
+                break;
+            }
+            if (entity instanceof IsolatedTickable && this.isAwake(entity)) {
+                if (count == this.parallelBatch.length) {
+                    this.parallelBatch = Arrays.copyOf(this.parallelBatch, Math.max(16, count * 2));
+                }
+                this.parallelBatch[count++] = (IsolatedTickable) entity;
+            }
+        }
+
+        IsolatedTickable[] batch = this.parallelBatch;
+        double heroX = this.hero.getXPos();
+        if (count >= PARALLEL_TICK_THRESHOLD) {
+            IntStream.range(0, count).parallel()
+                    .forEach(i -> batch[i].prepareTick(this.entities, heroX, this.floorHeight));
+            for (int i = 0; i < count; i++) {
+                batch[i].applyTick();
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                batch[i].tick(this.entities, heroX, this.floorHeight);
+            }
+        }
+        Arrays.fill(batch, 0, count, null);
+
+        boolean heroReached = false;
+        for (int i = 0; i < this.movingEntities.size(); i++) {
+            MovingEntity entity = this.movingEntities.get(i);
+            heroReached |= entity == this.hero;
+            if ((heroReached || !(entity instanceof IsolatedTickable)) && this.isAwake(entity)) {
+                entity.tick(this.entities, this.hero.getXPos(), this.floorHeight);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a moving entity is ticked this tick. Enemies further than the activation radius from
+     * the hero sleep: they keep their state but do not move until the hero comes close again.
+     * The hero and projectiles are always awake.
+     * @param entity The moving entity
+     * @return Whether the entity is ticked
+     */
+    private boolean isAwake(MovingEntity entity) {
+        if (entity == this.hero || entity instanceof Projectile || this.activationRadius == Double.POSITIVE_INFINITY) {
+            return true;
+        }
+        double dx = entity.getXPos() - this.wakeX;
+        double dy = entity.getYPos() - this.wakeY;
+        return dx * dx + dy * dy <= this.activationRadius * this.activationRadius;
+    }
+
+    /**
+     * Sets how far from the hero enemies keep being ticked. Enemies further away sleep until the hero
+     * comes close again.
+     * @param activationRadius The activation radius, or infinity to always tick every enemy
+     */
+    public void setActivationRadius(double activationRadius) {
+        this.activationRadius = activationRadius > 0 ? activationRadius : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Gets how far from the hero enemies keep being ticked.
+     * @return The activation radius (infinity when enemies never sleep)
+     */
+    public double getActivationRadius() {
+        return this.activationRadius;
+    }
+
+    /**
+     * Sets whether the isolated moving entities (such as slimes) are ticked in parallel.
+     * Only worth it for levels with thousands of them.
+     * @param parallelTick Whether to tick in parallel
+     */
+    public void setParallelTick(boolean parallelTick) {
+        this.parallelTick = parallelTick;
+    }
+
+    /**
+     * Gets whether the isolated moving entities are ticked in parallel.
+     * @return Whether the level ticks in parallel
+     */
+    public boolean isParallelTick() {
+        return this.parallelTick;
+    }
+
     /**
      * Removes inactive entities from all the lists.
+     * Package-private so that the benchmarks can time it on its own.
+     */
+    void clearOutInactive() {
+        // Compact every list in place rather than with removeIf, which allocates a lambda per call
+        int kept = 0;
+        for (int i = 0; i < this.entities.size(); i++) {
+            Entity entity = this.entities.get(i);
+            if (entity.isActive()) {
+                this.entities.set(kept++, entity);
+            } else {
+                removeFromSolidGrid(entity);
+                retireEntityId(entity);
+            }
+        }
+        truncate(this.entities, kept);
+        retainLevelEntities(this.movingEntities);
+        retainLevelEntities(this.interactables);
+        retainLevelEntities(this.projectiles);
+        this.interactableSweep.removeInactive();
+        this.movingSweep.removeInactive();
+
+        // Nothing references the removed entities anymore, so their ids can be reused
+        while (this.retiredEntityIdCount > 0) {
+            this.freeEntityIds = push(this.freeEntityIds, this.freeEntityIdCount++,
+                    this.retiredEntityIds[--this.retiredEntityIdCount]);
+        }
+    }
+
+    /**
+     * Removes the entries of a side list which are no longer in the level's entities, in one linear pass.
+     * @param list The list to compact
+     * @param <T> The type of entity in the list
+     */
+    private <T extends Entity> void retainLevelEntities(List<T> list) {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++) {
+            T entity = list.get(i);
+            if (isInLevel(entity)) {
+                list.set(kept++, entity);
+            }
+        }
+        truncate(list, kept);
+    }
+
+    /**
+     * Checks whether an entity is in the level's entities list.
+     * @param entity The entity to check
+     * @return Whether the entity is still part of the level
+     */
+    private boolean isInLevel(Entity entity) {
+        int id = entity.getEntityId();
+        return id >= 0 && this.alive.get(id);
+    }
+
+    /**
+     * Adds an entity to the level, giving it an id and indexing it if it is solid.
+     * @param entity The entity to add
+     */
+    private void addEntity(Entity entity) {
+        entity.setEventQueue(this.events);
+        assignEntityId(entity);
+        this.entities.add(entity);
+        if (entity.isSolid()) {
+            ownSolidGrid().insert(entity);
+        }
+    }
+
+    /**
+     * Removes an entity from the entities list.
+     * @param entity The entity to remove
+     */
+    private void removeEntity(Entity entity) {
+        if (this.entities.remove(entity)) {
+            removeFromSolidGrid(entity);
+            retireEntityId(entity);
+        }
+    }
+
+    /**
+     * Removes an entity from the grid of solid entities, if it is solid.
+     * @param entity The entity to remove
+     */
+    private void removeFromSolidGrid(Entity entity) {
+        if (entity.isSolid()) {
+            ownSolidGrid().remove(entity);
+        }
+    }
+
+    /**
+     * Gets the grid of solid entities in order to change it. A grid shared with a copy of the level is
+     * copied first, so that neither level sees the other's changes.
+     * @return The grid, owned by this level only
+     */
+    private SpatialGrid ownSolidGrid() {
+        if (this.solidGridShared) {
+            this.solidGrid = new SpatialGrid(this.solidGrid);
+            this.entities.setSolidGrid(this.solidGrid);
+            this.solidGridShared = false;
+        }
+        return this.solidGrid;
+    }
+
+    /**
+     * Gives an entity the lowest free id and marks it as alive.
+     * @param entity The entity joining the level
+     */
+    private void assignEntityId(Entity entity) {
+        int id;
+        if (this.freeEntityIdCount > 0) {
+            id = this.freeEntityIds[--this.freeEntityIdCount];
+        } else {
+            id = this.nextEntityId++;
+        }
+        entity.setEntityId(id);
+        this.alive.set(id);
+    }
+
+    /**
+     * Marks an entity as no longer in the level. Its id is reused after the next clean up.
+     * The entity loses its id straight away, so a stale reference can never be mistaken for
+     * the entity which gets the id next.
+     * @param entity The entity leaving the level
+     */
+    private void retireEntityId(Entity entity) {
+        int id = entity.getEntityId();
+        if (id >= 0 && this.alive.get(id)) {
+            this.alive.clear(id);
+            this.retiredEntityIds = push(this.retiredEntityIds, this.retiredEntityIdCount++, id);
+            entity.setEntityId(-1);
+        }
+    }
+
+    /**
+     * Stores a value in an int stack, growing it when full.
+     * @param stack The stack
+     * @param index The position to write to
+     * @param value The value to store
+     * @return The stack, or a larger copy of it
+     */
+    private static int[] push(int[] stack, int index, int value) {
+        if (index == stack.length) {
+            int[] grown = new int[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, stack.length);
+            stack = grown;
+        }
+        stack[index] = value;
+        return stack;
+    }
+
+    /**
+     * Removes every element of a list from the given size onwards, starting from the end so nothing is shifted.
+     * @param list The list to shorten
+     * @param size The new size of the list
      */
-    private void clearOutInactive() {
-        this.entities.removeIf(x -> !x.isActive());
-        this.movingEntities.removeIf(x -> !this.entities.contains(x));
-        this.interactables.removeIf(x -> !this.entities.contains(x));
-        this.projectiles.removeIf(x -> !this.entities.contains(x));
+    private static void truncate(List<?> list, int size) {
+        for (int i = list.size() - 1; i >= size; i--) {
+            list.remove(i);
+        }
     }
 
     /**
      * Calls interact methods on interactables and projectiles.
+     * Package-private so that the benchmarks can time it on its own.
      */
-    private void manageCollisions() {
-        if (!entities.contains(this.hero)) {
+    void manageCollisions() {
+        if (!isInLevel(this.hero)) {
             System.out.println("Doesnt have hero");
             return;
         }
         // Collision between hero and other entity
-        for (Interactable interactable : this.interactables) {
+        // Only the interactables overlapping the hero along x are tested
+        this.interactableSweep.sort();
+        this.interactableSweep.query(this.hero, this.interactableCandidates);
+        for (int i = 0; i < this.interactableCandidates.size(); i++) {
+            Interactable interactable = this.interactableCandidates.get(i);
             if (interactable.checkCollide(this.hero)) {
                 interactable.interact(this.hero);
             }
         }
 
+        if (this.projectiles.isEmpty()) {
+            return;
+        }
+
         // Collision between bullet and moving entity (not hero)
-        for (Projectile projectile : this.projectiles) {
-            projectile.movingCollision(this.movingEntities.stream().filter(x -> x != hero).collect(Collectors.toList()));
+        this.movingSweep.sort();
+        for (int i = 0; i < this.projectiles.size(); i++) {
+            Projectile projectile = this.projectiles.get(i);
+            this.movingSweep.query(projectile, this.movingCandidates);
+            this.movingCandidates.remove(this.hero);
+            projectile.movingCollision(this.movingCandidates);
         }
 
         // Collision between bullet and other entity
-        for (Projectile projectile : this.projectiles) {
-            projectile.staticCollision(this.entities.stream().filter(x -> x != hero).collect(Collectors.toList()));
+        // Only solid entities stop a bullet, so the solid grid gives every candidate
+        for (int i = 0; i < this.projectiles.size(); i++) {
+            Projectile projectile = this.projectiles.get(i);
+            this.solidGrid.query(projectile, this.solidCandidates);
+            projectile.staticCollision(this.solidCandidates);
         }
     }
 
@@ -294,9 +857,8 @@ public class LevelManager implements Level, Subject {
     @Override
     public void reset() {
         notifyObservers();
-        if (this.model != null) {
-            this.model.reset();
-        }
+        // The game is only reset once the observers have been told
+        this.events.defer(this.resetModel);
     }
 
     @Override
@@ -313,9 +875,10 @@ public class LevelManager implements Level, Subject {
 
         Projectile bullet = new Bullet(x, this.hero.getYPos() + (2 * this.hero.getWidth() / 3), this.hero.isLeftFacing());
 
-        this.entities.add(bullet);
+        addEntity(bullet);
         this.movingEntities.add(bullet);
         this.projectiles.add(bullet);
+        this.movingSweep.add(bullet);
     }
 
     @Override
@@ -327,8 +890,9 @@ public class LevelManager implements Level, Subject {
     public void win() {
         // Once won, we are going to shut down the game
         this.active = false;
+        this.end(Outcome.WON);
         // Once done, the level is going to show the winning message
-        this.entities.add(new Win(hero.getXPos() - 200, hero.getYPos() - 200));
+        addEntity(new Win(hero.getXPos() - 200, hero.getYPos() - 200));
         // We must now notify the observers that the game has won
         notifyObservers();
     }
@@ -336,18 +900,40 @@ public class LevelManager implements Level, Subject {
     public void lose() {
         // Once won, we are going to shut down the game
         this.active = false;
+        this.end(Outcome.LOST);
         // Once done, the level is going to show the losing message
-        this.entities.add(new Lose(hero.getXPos(), hero.getYPos() - 200));
+        addEntity(new Lose(hero.getXPos(), hero.getYPos() - 200));
         // We must now notify the observers that the game has lost
         notifyObservers();
     }
 
 
+    /**
+     * Records how the level ended. Whichever of winning or losing happens first is the outcome.
+     * @param outcome How the level ended
+     */
+    private void end(Outcome outcome) {
+        if (this.outcome == Outcome.RUNNING) {
+            this.outcome = outcome;
+            this.outcomeTick = this.ticks;
+        }
+    }
+
     @Override
     public boolean getLevelStatus() {
         return this.active;
     }
 
+    @Override
+    public Outcome getOutcome() {
+        return this.outcome;
+    }
+
+    @Override
+    public long getOutcomeTick() {
+        return this.outcomeTick;
+    }
+
     @Override
     public int getTargetPoint() {
         return this.targetPoint;
@@ -379,8 +965,8 @@ public class LevelManager implements Level, Subject {
 
     @Override
     public void notifyObservers() {
-        // run update with the observer to let it knows about the level updates
-        this.observers.forEach(Observer::update);
+        // run update with the observer to let it knows about the level updates (at the end of the tick)
+        this.events.post(this);
     }
 
     @Override
@@ -388,31 +974,53 @@ public class LevelManager implements Level, Subject {
         return this.observers;
     }
 
+    @Override
+    public void setEventQueue(EventQueue eventQueue) {
+        // The level always batches its own notifications, so only a shared queue replaces its own
+        if (eventQueue != null) {
+            this.events = eventQueue;
+            for (Entity entity : this.entities) {
+                entity.setEventQueue(eventQueue);
+            }
+        }
+    }
+
+    /**
+     * Gets the queue the level and its entities notify their observers through.
+     * @return The event queue
+     */
+    public EventQueue getEventQueue() {
+        return this.events;
+    }
+
     @Override
     public void update() {
         // Update the points from the entities
-        updatePointsFromDeadEntities();
+        drainQueuedPoints();
     }
 
     /**
-    * This function takes responsibility to update the points of the game. It will read thru dead entities
-     * and then add points to the level
+    * This function takes responsibility to update the points of the game. Point givers queue their points
+     * as they die, so only the deaths since the last update are looked at. The dead entities themselves are
+     * cleared out at the end of the tick
     * */
-    private void updatePointsFromDeadEntities() {
-        // For the level, we will have to update our points by looking into dead entities
-        // Once we have looked into those entities, we shall remove them
-        for (int i = this.entities.size()-1; i >= 0 ; i--) {
-            // Now we are going to test whether that this entity is the point giver to absorb the points
-            // And that whether this entity has been found dead
-            if (this.entities.get(i) instanceof PointGiver && !this.entities.get(i).isActive()) {
-
-                // We now absorb the points from the the entity
-                ((PointGiver) this.entities.get(i)).givePoint(this);
-
-                // We now remove it from the level since it is useless now anyway
-                this.entities.remove(this.entities.get(i));
+    private void drainQueuedPoints() {
+        for (int i = 0; i < this.queuedPointCount; i++) {
+            int point = this.queuedPoints[i];
+            absorbPoint(point);
+            if (point >= 0) {
+                this.tickPoints += point;
             }
         }
+        this.queuedPointCount = 0;
+    }
+
+    /**
+     * Gets the points awarded during the current tick, or the latest one between ticks.
+     * @return The points awarded
+     */
+    public int getTickPoints() {
+        return this.tickPoints;
     }
 
     @Override
@@ -427,45 +1035,185 @@ public class LevelManager implements Level, Subject {
         }
     }
 
+    @Override
+    public void queuePoint(int point) {
+        this.queuedPoints = push(this.queuedPoints, this.queuedPointCount++, point);
+    }
+
 
+    /**
+     * Copies the level. Immutable entities, such as platforms, are shared with the copy instead of being
+     * copied, and so is the grid of solid entities when it only holds immutable ones. Every other entity is
+     * copied, keeping its id, in the same order as the level has always copied them: still entities first,
+     * then moving ones and the hero last. The copied entities are observed by the copy only, so nothing
+     * they do reaches this level; whoever else observes the hero, such as the game, observes the copied hero.
+     * @return The copy of the level
+     */
     @Override
     public LevelManager copy() {
-        List<Entity> tempEntities = new ArrayList<>();
-        List<MovingEntity> tempMovingEntities = new ArrayList<>();
-        List<Interactable> tempInteractables = new ArrayList<>();
-        List<Projectile> tempProjectile = new ArrayList<>();
-        for (Entity entity : entities) {
-            Entity sampleEntity = entity.copy();
-            if (!(entity instanceof MovingEntity)) {
-                tempEntities.add(sampleEntity);
-            } else if (!(entity instanceof Controllable)) {
-                tempMovingEntities.add((MovingEntity) sampleEntity);
+        LevelManager level = copyFor(this.model);
+        this.observers.forEach(level::attach);
+        for (Observer observer : this.hero.getObservers()) {
+            if (observer != this) {
+                level.hero.attach(observer);
             }
-            if (entity instanceof Interactable) {
-                tempInteractables.add((Interactable) sampleEntity);
+        }
+        return level;
+    }
+
+    /**
+     * Copies the level for another game, like copy() but without the observers of the level or the hero.
+     * The copied entities, the hero included, are observed by the copy only.
+     * @param model The game the copy belongs to
+     * @return The copy of the level
+     */
+    LevelManager copyFor(GameEngine model) {
+        LevelManager level = new LevelManager(model, this.filename, this.height, this.width, this.floorHeight,
+                this.heroSize, this.targetPoint);
+        copyStateTo(level);
+
+        // Immutable entities are shared, every other entity is copied and keeps its id
+        List<Entity> stillEntities = new ArrayList<>(this.entities.size());
+        boolean solidsShared = true;
+        for (int i = 0; i < this.entities.size(); i++) {
+            Entity entity = this.entities.get(i);
+            if (entity.isImmutable()) {
+                stillEntities.add(entity);
+                continue;
             }
-            if (entity instanceof Projectile) {
-                tempProjectile.add((Projectile) sampleEntity);
+            if (entity instanceof Controllable) {
+                continue;
             }
+            Entity copy = entity.copy();
+            copy.setEntityId(entity.getEntityId());
+            copy.attach(level);
+            copy.setEventQueue(level.events);
+            solidsShared &= !copy.isSolid();
+            level.sortEntity(copy, stillEntities);
         }
+        Controllable hero = (Controllable) this.hero.copy();
+        hero.setEntityId(this.hero.getEntityId());
+        level.setEntities(stillEntities, hero);
+
+        level.alive = (BitSet) this.alive.clone();
+        level.nextEntityId = this.nextEntityId;
+        level.freeEntityIds = this.freeEntityIds.clone();
+        level.freeEntityIdCount = this.freeEntityIdCount;
+        level.retiredEntityIds = this.retiredEntityIds.clone();
+        level.retiredEntityIdCount = this.retiredEntityIdCount;
+
+        // While it only holds shared entities, the grid is shared too, until either level changes it.
+        // A level whose grid is already shared, such as a template, is not written to by being copied
+        if (solidsShared) {
+            level.solidGrid = this.solidGrid;
+            level.solidGridShared = true;
+            if (!this.solidGridShared) {
+                this.solidGridShared = true;
+            }
+        } else {
+            level.solidGrid = new SpatialGrid(level.entities, level.width, level.height);
+        }
+        level.entities.setSolidGrid(level.solidGrid);
+        return level;
+    }
 
-        LevelManager level = new LevelManager (this.model, this.filename, this.height, this.width,
-                this.floorHeight, this.hero.getXPos(),
-                this.heroSize, tempEntities, tempMovingEntities, tempInteractables,
-                this.targetPoint);
-//        this.hero.setLevel(level);
-        level.points = this.points;
-        // Attach observers as we are copying
-        this.observers.forEach((level::attach));
-        level.projectiles.addAll(tempProjectile);
-        level.active = this.active;
-        level.entities.remove(level.hero);
-        level.movingEntities.remove(level.hero);
-        level.hero = (Controllable) this.hero.copy();
-        level.hero.setLevel(level);
-        level.hero.attach(level);
-        level.movingEntities.add(level.hero);
-        level.entities.add(level.hero);
+    /**
+     * Turns the level into a template, which is only ever copied and never played. The level stops observing
+     * its entities and forgets its own observers, so nothing played in a copy reaches it, and its grid is
+     * marked as shared up front, so that copying it never writes to it and several threads can copy it at once.
+     */
+    void makeTemplate() {
+        for (int i = 0; i < this.entities.size(); i++) {
+            Entity entity = this.entities.get(i);
+            entity.detach(this);
+            entity.setEventQueue(null);
+        }
+        this.observers.clear();
+        this.solidGridShared = true;
+    }
+
+    @Override
+    public void encode(ByteBuffer buffer) {
+        MementoCodec.putString(this.filename, buffer);
+        buffer.putDouble(this.height);
+        buffer.putDouble(this.width);
+        buffer.putDouble(this.floorHeight);
+        MementoCodec.putString(this.heroSize, buffer);
+        buffer.putInt(this.targetPoint);
+        encodeState(buffer);
+
+        this.hero.encode(buffer);
+        buffer.putInt(this.entities.size() - 1);
+        for (int i = 0; i < this.entities.size(); i++) {
+            Entity entity = this.entities.get(i);
+            if (entity != this.hero) {
+                MementoCodec.putEntity(entity, buffer);
+            }
+        }
+    }
+
+    @Override
+    public void encodeState(ByteBuffer buffer) {
+        buffer.putInt(this.points);
+        MementoCodec.putBoolean(this.active, buffer);
+        buffer.put((byte) this.outcome.ordinal());
+        buffer.putLong(this.outcomeTick);
+        buffer.putLong(this.ticks);
+        MementoCodec.putBoolean(this.parallelTick, buffer);
+        buffer.putDouble(this.activationRadius);
+    }
+
+    @Override
+    public void decodeState(ByteBuffer buffer) {
+        this.points = buffer.getInt();
+        this.active = MementoCodec.getBoolean(buffer);
+        this.outcome = Outcome.values()[buffer.get()];
+        this.outcomeTick = buffer.getLong();
+        this.ticks = buffer.getLong();
+        this.parallelTick = MementoCodec.getBoolean(buffer);
+        this.activationRadius = buffer.getDouble();
+    }
+
+    /**
+     * Reads back a level written by encode. The level ends up just like a copy of the level which was
+     * encoded, except that its entities get new ids.
+     * @param buffer The encoded level
+     * @param model The game the level belongs to, which observes the level and its hero
+     * @return The level
+     */
+    public static LevelManager decode(ByteBuffer buffer, GameEngine model) {
+        String filename = MementoCodec.getString(buffer);
+        double height = buffer.getDouble();
+        double width = buffer.getDouble();
+        double floorHeight = buffer.getDouble();
+        String heroSize = MementoCodec.getString(buffer);
+        int targetPoint = buffer.getInt();
+        LevelManager level = new LevelManager(model, filename, height, width, floorHeight, heroSize, targetPoint);
+        level.decodeState(buffer);
+
+        StickMan hero = StickMan.decode(buffer);
+        int count = buffer.getInt();
+        List<Entity> stillEntities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entity entity = MementoCodec.getEntity(buffer);
+            entity.attach(level);
+            entity.setEventQueue(level.events);
+            level.sortEntity(entity, stillEntities);
+        }
+        if (model instanceof Observer) {
+            level.attach((Observer) model);
+            hero.attach((Observer) model);
+        }
+        level.setEntities(stillEntities, hero);
+
+        level.alive = new BitSet(level.entities.size());
+        level.freeEntityIds = new int[16];
+        level.retiredEntityIds = new int[16];
+        for (Entity entity : level.entities) {
+            level.assignEntityId(entity);
+        }
+        level.solidGrid = new SpatialGrid(level.entities, width, height);
+        level.entities.setSolidGrid(level.solidGrid);
         return level;
     }
 }
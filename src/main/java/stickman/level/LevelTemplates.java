@@ -0,0 +1,122 @@
+package stickman.level;
+
+import stickman.model.GameEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps every level file parsed once, as a template level which is never played, so that starting a level
+ * again (after the hero dies, for example) is a copy of its template rather than reading and parsing its
+ * file. Templates are keyed by the path of the file and remember when it was last modified, so a file
+ * edited meanwhile is parsed again. Platforms and the other immutable entities, along with the grid of
+ * solid entities, are shared between a template and the levels started from it.
+ * The templates are shared by every game, so they can be used from several threads at once: a template has no
+ * observers and is never written to once it is built, and the levels started from it only observe their own copies.
+ */
+public final class LevelTemplates {
+
+    /**
+     * The templates, by the path of their file.
+     */
+    private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    /**
+     * The thread levels are prefetched on. A single thread keeps a prefetch from competing with the game
+     * for more than one processor.
+     */
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private LevelTemplates() {
+    }
+
+    /**
+     * Starts a level from its template, parsing its file first if it was never parsed or has changed since.
+     * @param file The JSON file of the level, or the level compiled by LevelCompiler
+     * @param model The game the level belongs to
+     * @return The new level, or null if the file cannot be read
+     */
+    public static Level instantiate(String file, GameEngine model) {
+        long modified = lastModified(file);
+        Template template = TEMPLATES.get(file);
+        if (template == null || template.modified != modified) {
+            Level level = BinaryLevelLoader.isCompiled(file) ? BinaryLevelLoader.generateFromFile(file, null)
+                    : StreamingLevelLoader.generateFromFile(file, null);
+            if (!(level instanceof LevelManager)) {
+                return level;
+            }
+            ((LevelManager) level).makeTemplate();
+            template = new Template(modified, (LevelManager) level);
+            TEMPLATES.put(file, template);
+        }
+        return template.level.copyFor(model);
+    }
+
+    /**
+     * Starts a level from its template in the background, parsing its file first if needed, so that the
+     * level is ready by the time the game gets to it. Cancelling the future before the loader thread gets to
+     * it skips building the level.
+     * @param file The JSON file of the level, or the level compiled by LevelCompiler
+     * @param model The game the level belongs to
+     * @return The new level once it is built, or null if the file cannot be read
+     */
+    public static CompletableFuture<Level> prefetch(String file, GameEngine model) {
+        return CompletableFuture.supplyAsync(() -> instantiate(file, model), LOADER);
+    }
+
+    /**
+     * Forgets every template, so that every level file is parsed again the next time it is used.
+     */
+    public static void clear() {
+        TEMPLATES.clear();
+    }
+
+    /**
+     * Gets when a file was last modified.
+     * @param file The path of the file
+     * @return The time of the last modification in epoch milliseconds, or -1 if it cannot be read
+     */
+    private static long lastModified(String file) {
+        try {
+            return Files.getLastModifiedTime(Paths.get(file)).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A level parsed from its file, along with when the file was last modified.
+     */
+    private static class Template {
+
+        /**
+         * When the file was last modified, in epoch milliseconds.
+         */
+        private final long modified;
+
+        /**
+         * The level parsed from the file, which is only ever copied.
+         */
+        private final LevelManager level;
+
+        /**
+         * Creates a new Template object.
+         * @param modified When the file was last modified
+         * @param level The level parsed from the file
+         */
+        private Template(long modified, LevelManager level) {
+            this.modified = modified;
+            this.level = level;
+        }
+    }
+}
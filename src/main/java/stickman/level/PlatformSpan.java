@@ -0,0 +1,126 @@
+package stickman.level;
+
+import stickman.entity.Entity;
+import stickman.entity.GameObject;
+import stickman.entity.still.Platform;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A row of platforms which touch or overlap each other, at the same height, seen as a single solid by the
+ * grid of solid entities. Nothing can fit between the platforms of a span, so a ray or a box hits the span
+ * exactly when it hits one of them, at the same distance. The only exception is a horizontal ray cast from
+ * inside the span, which is handled by horizontalRaycast. Spans are never part of the level's entities:
+ * the platforms are still what is drawn, saved and copied.
+ */
+final class PlatformSpan extends GameObject {
+
+    /**
+     * The platforms of the span's row, sorted by x-coordinate. The span is made of the ones from first to last.
+     */
+    private final Platform[] blocks;
+
+    /**
+     * The x-coordinates of the platforms of the row, sorted.
+     */
+    private final double[] lefts;
+
+    /**
+     * The index of the first platform of the span.
+     */
+    private final int first;
+
+    /**
+     * The index after the last platform of the span.
+     */
+    private final int last;
+
+    /**
+     * Creates a new PlatformSpan object out of a run of touching or overlapping platforms in a row.
+     * @param blocks The platforms of the row, all of the same size, sorted by x-coordinate
+     * @param lefts The x-coordinates of the platforms, sorted
+     * @param first The index of the first platform of the span
+     * @param last The index after the last platform of the span
+     */
+    PlatformSpan(Platform[] blocks, double[] lefts, int first, int last) {
+        super(null, lefts[first], blocks[first].getYPos(), blocks[first].getHeight(),
+                lefts[last - 1] + blocks[first].getWidth() - lefts[first], Layer.FOREGROUND);
+        this.blocks = blocks;
+        this.lefts = lefts;
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Gets the platforms of the span.
+     * @return The platforms, from left to right
+     */
+    List<Platform> getBlocks() {
+        return Arrays.asList(this.blocks).subList(this.first, this.last);
+    }
+
+    /**
+     * Checks whether a platform is one of the span's.
+     * @param entity The entity to look for
+     * @return Whether the entity is a platform of the span
+     */
+    boolean contains(Entity entity) {
+        for (int i = this.first; i < this.last; i++) {
+            if (this.blocks[i] == entity) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the distance to the nearest platform of the span in the path of a horizontal ray, for a source
+     * which overlaps the span itself and sits between its y-coordinates. The platforms are all as wide, so
+     * the distances grow with their x-coordinates and the nearest one is found by binary search.
+     * @param x The x-coordinate of the source
+     * @param width The width of the source
+     * @param left Whether the ray goes to the left
+     * @param res The distance to return if nothing is closer
+     * @return The distance to the nearest platform in the ray's path
+     */
+    double horizontalRaycast(double x, double width, boolean left, double res) {
+        double blockWidth = this.blocks[this.first].getWidth();
+        // The first platform whose distance to the right is not negative (or last one to the left)
+        int low = this.first;
+        int high = this.last;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            boolean inPath = left ? x - (this.lefts[middle] + blockWidth) >= 0
+                    : this.lefts[middle] - (x + width) >= 0;
+            if (inPath == left) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (left && low > this.first) {
+            res = Math.min(res, x - (this.lefts[low - 1] + blockWidth));
+        } else if (!left && low < this.last) {
+            res = Math.min(res, this.lefts[low] - (x + width));
+        }
+        return res;
+    }
+
+    @Override
+    public boolean isSolid() {
+        return true;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    @Override
+    public PlatformSpan copy() {
+        // Spans never change, so copies of a grid can share them
+        return this;
+    }
+}
@@ -14,4 +14,10 @@ public interface PointReceiver {
      * @return the current point
      * */
     void absorbPoint(int point);
+    /**
+     * This function queues the points of an object which has just died. They are absorbed
+     * when the receiver next drains its queue
+     * @param point the points of the object
+     * */
+    void queuePoint(int point);
 }
@@ -0,0 +1,273 @@
+package stickman.level;
+
+import stickman.entity.Entity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sort-and-sweep broadphase along the x-axis. Entities are kept sorted by their left edge, so the
+ * entities that may overlap a box are found with a binary search and a short sweep instead of a scan
+ * of the whole level. The order is kept between ticks, which makes re-sorting almost linear since
+ * entities only move a little every frame.
+ * Candidates are always handed out in the order the entities were added, so that the narrowphase
+ * behaves exactly as if it walked the original list.
+ * @param <T> The type of entity stored
+ */
+public class SortAndSweep<T extends Entity> {
+
+    /**
+     * The initial capacity of the arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The entities, sorted by x-coordinate.
+     */
+    private Entity[] entities;
+
+    /**
+     * The order in which each entity was added, parallel to entities.
+     */
+    private long[] sequences;
+
+    /**
+     * The number of entities stored.
+     */
+    private int size;
+
+    /**
+     * The sequence number handed out to the next entity added.
+     */
+    private long nextSequence;
+
+    /**
+     * The widest entity ever added. Bounds how far left of a box an overlapping entity can start.
+     */
+    private double maxWidth;
+
+    /**
+     * Whether the entities may be in any order, as when they were just taken from a list.
+     */
+    private boolean shuffled;
+
+    /**
+     * Scratch array for the candidates of a query.
+     */
+    private Entity[] candidates;
+
+    /**
+     * Scratch array for the sequence numbers of the candidates of a query.
+     */
+    private long[] candidateSequences;
+
+    /**
+     * Creates an empty SortAndSweep object.
+     */
+    public SortAndSweep() {
+        this.entities = new Entity[INITIAL_CAPACITY];
+        this.sequences = new long[INITIAL_CAPACITY];
+        this.candidates = new Entity[INITIAL_CAPACITY];
+        this.candidateSequences = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Creates a SortAndSweep object holding the given entities, in list order.
+     * @param entities The entities to add
+     */
+    public SortAndSweep(List<? extends T> entities) {
+        this();
+        for (int i = 0; i < entities.size(); i++) {
+            add(entities.get(i));
+        }
+        this.shuffled = true;
+    }
+
+    /**
+     * Adds an entity after all the entities already added.
+     * @param entity The entity to add
+     */
+    public void add(T entity) {
+        if (this.size == this.entities.length) {
+            Entity[] grownEntities = new Entity[this.size * 2];
+            long[] grownSequences = new long[this.size * 2];
+            System.arraycopy(this.entities, 0, grownEntities, 0, this.size);
+            System.arraycopy(this.sequences, 0, grownSequences, 0, this.size);
+            this.entities = grownEntities;
+            this.sequences = grownSequences;
+        }
+        this.entities[this.size] = entity;
+        this.sequences[this.size] = this.nextSequence++;
+        this.size++;
+        this.maxWidth = Math.max(this.maxWidth, entity.getWidth());
+    }
+
+    /**
+     * Removes a single entity.
+     * @param entity The entity to remove
+     */
+    public void remove(T entity) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.entities[i] == entity) {
+                System.arraycopy(this.entities, i + 1, this.entities, i, this.size - i - 1);
+                System.arraycopy(this.sequences, i + 1, this.sequences, i, this.size - i - 1);
+                this.entities[--this.size] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes every inactive entity in a single pass.
+     */
+    public void removeInactive() {
+        int kept = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.entities[i].isActive()) {
+                this.entities[kept] = this.entities[i];
+                this.sequences[kept] = this.sequences[i];
+                kept++;
+            }
+        }
+        for (int i = kept; i < this.size; i++) {
+            this.entities[i] = null;
+        }
+        this.size = kept;
+    }
+
+    /**
+     * Re-sorts the entities by their current x-coordinate. Must be called after entities have moved
+     * and before querying.
+     */
+    public void sort() {
+        if (this.shuffled) {
+            // On entities in any order, such as those of a copied level, an insertion sort would be quadratic
+            mergeSort();
+            this.shuffled = false;
+            return;
+        }
+        // Insertion sort: linear when the entities are still almost in order from the last tick
+        for (int i = 1; i < this.size; i++) {
+            Entity entity = this.entities[i];
+            long sequence = this.sequences[i];
+            double x = entity.getXPos();
+            int j = i - 1;
+            while (j >= 0 && this.entities[j].getXPos() > x) {
+                this.entities[j + 1] = this.entities[j];
+                this.sequences[j + 1] = this.sequences[j];
+                j--;
+            }
+            this.entities[j + 1] = entity;
+            this.sequences[j + 1] = sequence;
+        }
+    }
+
+    /**
+     * Collects every entity whose horizontal extent overlaps the box, in the order they were added.
+     * @param box The entity to find candidates for
+     * @param out The list to fill with candidates (cleared first)
+     */
+    @SuppressWarnings("unchecked")
+    public void query(Entity box, List<T> out) {
+        out.clear();
+        double left = box.getXPos();
+        double right = box.getXPos() + box.getWidth();
+
+        // Nothing starting further left than the widest entity can reach the box (one pixel of slack for rounding)
+        int i = lowerBound(left - this.maxWidth - 1);
+        int count = 0;
+        for (; i < this.size && this.entities[i].getXPos() <= right; i++) {
+            Entity entity = this.entities[i];
+            if (entity.getXPos() + entity.getWidth() >= left) {
+                if (count == this.candidates.length) {
+                    Entity[] grownCandidates = new Entity[count * 2];
+                    long[] grownSequences = new long[count * 2];
+                    System.arraycopy(this.candidates, 0, grownCandidates, 0, count);
+                    System.arraycopy(this.candidateSequences, 0, grownSequences, 0, count);
+                    this.candidates = grownCandidates;
+                    this.candidateSequences = grownSequences;
+                }
+                // Insert by sequence number so the candidates come out in the original order
+                int j = count - 1;
+                while (j >= 0 && this.candidateSequences[j] > this.sequences[i]) {
+                    this.candidates[j + 1] = this.candidates[j];
+                    this.candidateSequences[j + 1] = this.candidateSequences[j];
+                    j--;
+                }
+                this.candidates[j + 1] = entity;
+                this.candidateSequences[j + 1] = this.sequences[i];
+                count++;
+            }
+        }
+
+        for (int k = 0; k < count; k++) {
+            out.add((T) this.candidates[k]);
+            this.candidates[k] = null;
+        }
+    }
+
+    /**
+     * Gets the number of entities stored.
+     * @return The number of entities
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Sorts the entities by their x-coordinate with a merge sort. It is stable like the insertion sort,
+     * so both leave entities at the same x-coordinate in the same order.
+     */
+    private void mergeSort() {
+        double[] xs = new double[this.size];
+        int[] order = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            xs[i] = this.entities[i].getXPos();
+            order[i] = i;
+        }
+        int[] buffer = new int[this.size];
+        for (int width = 1; width < this.size; width *= 2) {
+            for (int low = 0; low < this.size - width; low += width * 2) {
+                int middle = low + width;
+                int high = Math.min(low + width * 2, this.size);
+                int left = low;
+                int right = middle;
+                for (int k = low; k < high; k++) {
+                    // Taking from the left run on ties is what keeps the sort stable
+                    if (right >= high || (left < middle && xs[order[left]] <= xs[order[right]])) {
+                        buffer[k] = order[left++];
+                    } else {
+                        buffer[k] = order[right++];
+                    }
+                }
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+
+        Entity[] entities = Arrays.copyOf(this.entities, this.size);
+        long[] sequences = Arrays.copyOf(this.sequences, this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.entities[i] = entities[order[i]];
+            this.sequences[i] = sequences[order[i]];
+        }
+    }
+
+    /**
+     * Finds the first sorted position whose x-coordinate is at least the given value.
+     * @param x The x-coordinate to search for
+     * @return The index of the first entity at or right of x
+     */
+    private int lowerBound(double x) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (this.entities[mid].getXPos() < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,575 @@
+package stickman.level;
+
+import stickman.entity.Entity;
+import stickman.entity.still.Platform;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the solid entities of a level. Every cell stores the solids overlapping it, so a
+ * raycast only has to visit the cells along the ray's row (or column) instead of every entity in the level.
+ * Entities outside of the grid's bounds are clamped into the border cells.
+ * <p>
+ * Levels are mostly built out of rows of touching platforms, so the platforms given to the constructor are
+ * merged into PlatformSpans first: the grid then holds one solid per row of platforms rather than one per
+ * platform, and every query gives exactly the same result as with the platforms themselves.
+ */
+public class SpatialGrid {
+
+    /**
+     * The default side length of a cell, in pixels.
+     */
+    public static final double DEFAULT_CELL_SIZE = 64;
+
+    /**
+     * The initial capacity of a cell once something is inserted in it.
+     */
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    /**
+     * The side length of a cell.
+     */
+    private final double cellSize;
+
+    /**
+     * The x-coordinate of the left edge of the grid.
+     */
+    private final double originX;
+
+    /**
+     * The y-coordinate of the top edge of the grid.
+     */
+    private final double originY;
+
+    /**
+     * The number of columns in the grid.
+     */
+    private final int columns;
+
+    /**
+     * The number of rows in the grid.
+     */
+    private final int rows;
+
+    /**
+     * The entities stored in each cell, indexed by row * columns + column. Empty cells are null.
+     */
+    private final Entity[][] cells;
+
+    /**
+     * The number of entities stored in each cell.
+     */
+    private final int[] counts;
+
+    /**
+     * The leftmost column of each row that has ever held an entity.
+     */
+    private final int[] rowFirstColumn;
+
+    /**
+     * The rightmost column of each row that has ever held an entity.
+     */
+    private final int[] rowLastColumn;
+
+    /**
+     * The top row of each column that has ever held an entity.
+     */
+    private final int[] columnFirstRow;
+
+    /**
+     * The bottom row of each column that has ever held an entity.
+     */
+    private final int[] columnLastRow;
+
+    /**
+     * Creates a grid covering the level and all of the given solid entities.
+     * @param entities The entities of the level (only solid ones are inserted)
+     * @param width The width of the level
+     * @param height The height of the level
+     */
+    public SpatialGrid(List<Entity> entities, double width, double height) {
+        this(entities, width, height, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a grid covering the level and all of the given solid entities.
+     * @param entities The entities of the level (only solid ones are inserted)
+     * @param width The width of the level
+     * @param height The height of the level
+     * @param cellSize The side length of a cell
+     */
+    public SpatialGrid(List<Entity> entities, double width, double height, double cellSize) {
+        double minX = 0;
+        double minY = 0;
+        double maxX = width;
+        double maxY = height;
+        for (Entity entity : entities) {
+            if (entity != null && entity.isSolid()) {
+                minX = Math.min(minX, entity.getXPos());
+                minY = Math.min(minY, entity.getYPos());
+                maxX = Math.max(maxX, entity.getXPos() + entity.getWidth());
+                maxY = Math.max(maxY, entity.getYPos() + entity.getHeight());
+            }
+        }
+
+        this.cellSize = cellSize;
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        this.cells = new Entity[this.columns * this.rows][];
+        this.counts = new int[this.columns * this.rows];
+        this.rowFirstColumn = new int[this.rows];
+        this.rowLastColumn = new int[this.rows];
+        this.columnFirstRow = new int[this.columns];
+        this.columnLastRow = new int[this.columns];
+        Arrays.fill(this.rowFirstColumn, this.columns);
+        Arrays.fill(this.rowLastColumn, -1);
+        Arrays.fill(this.columnFirstRow, this.rows);
+        Arrays.fill(this.columnLastRow, -1);
+
+        Map<Double, Row> platformRows = new HashMap<>();
+        for (Entity entity : entities) {
+            if (entity instanceof Platform && entity.isSolid()) {
+                addToRow(platformRows, (Platform) entity);
+            } else {
+                insert(entity);
+            }
+        }
+        for (Row row : platformRows.values()) {
+            insertRow(row);
+        }
+    }
+
+    /**
+     * Creates a copy of a grid holding the same entities, which can be changed without affecting the original.
+     * @param other The grid to copy
+     */
+    public SpatialGrid(SpatialGrid other) {
+        this.cellSize = other.cellSize;
+        this.originX = other.originX;
+        this.originY = other.originY;
+        this.columns = other.columns;
+        this.rows = other.rows;
+        this.cells = new Entity[other.cells.length][];
+        for (int cell = 0; cell < this.cells.length; cell++) {
+            if (other.cells[cell] != null) {
+                this.cells[cell] = other.cells[cell].clone();
+            }
+        }
+        this.counts = other.counts.clone();
+        this.rowFirstColumn = other.rowFirstColumn.clone();
+        this.rowLastColumn = other.rowLastColumn.clone();
+        this.columnFirstRow = other.columnFirstRow.clone();
+        this.columnLastRow = other.columnLastRow.clone();
+    }
+
+    /**
+     * Adds an entity to every cell it overlaps. Entities that are not solid are ignored.
+     * @param entity The entity to add
+     */
+    public void insert(Entity entity) {
+        if (entity == null || !entity.isSolid()) {
+            return;
+        }
+        insertIntoCells(entity);
+    }
+
+    /**
+     * Removes an entity from every cell it overlaps. A platform merged into a span is taken out of it, and
+     * the rest of the span is merged again.
+     * @param entity The entity to remove
+     */
+    public void remove(Entity entity) {
+        if (entity == null || !entity.isSolid()) {
+            return;
+        }
+        if (entity instanceof Platform) {
+            // A span holding the platform overlaps the cell of its top left corner
+            int cell = row(entity.getYPos()) * this.columns + column(entity.getXPos());
+            for (int i = 0; i < this.counts[cell]; i++) {
+                Entity solid = this.cells[cell][i];
+                if (solid instanceof PlatformSpan && ((PlatformSpan) solid).contains(entity)) {
+                    removeFromCells(solid);
+                    Map<Double, Row> platformRows = new HashMap<>();
+                    for (Platform block : ((PlatformSpan) solid).getBlocks()) {
+                        if (block != entity) {
+                            addToRow(platformRows, block);
+                        }
+                    }
+                    for (Row row : platformRows.values()) {
+                        insertRow(row);
+                    }
+                    return;
+                }
+            }
+        }
+        removeFromCells(entity);
+    }
+
+    /**
+     * Adds a platform to the row of the platforms of the same size at the same y-coordinate, which are merged
+     * into spans once they are all added. Every platform of a level file is the same size, but platforms of
+     * another size than the first one of their row are added to the grid on their own instead.
+     * @param platformRows The rows, by their y-coordinate
+     * @param platform The platform to add
+     */
+    private void addToRow(Map<Double, Row> platformRows, Platform platform) {
+        Row row = platformRows.get(platform.getYPos());
+        if (row == null) {
+            row = new Row(platform);
+            platformRows.put(platform.getYPos(), row);
+        }
+        if (!row.add(platform)) {
+            insertIntoCells(platform);
+        }
+    }
+
+    /**
+     * Merges the platforms of a row which touch or overlap each other into spans, and adds the spans (or the
+     * platforms left on their own) to the grid. Only the x-coordinates are sorted, which is much cheaper
+     * than sorting the platforms, and each platform is then put in the place of its x-coordinate.
+     * @param row The row of platforms
+     */
+    private void insertRow(Row row) {
+        double[] sorted = Arrays.copyOf(row.xs, row.size);
+        Arrays.sort(sorted);
+
+        // Platforms at the same x-coordinate take the places of that x-coordinate in turn
+        Platform[] blocks = new Platform[row.size];
+        int[] taken = new int[row.size];
+        for (int i = 0; i < row.size; i++) {
+            int first = firstIndexOf(sorted, row.xs[i]);
+            blocks[first + taken[first]++] = row.platforms[i];
+        }
+
+        int start = 0;
+        for (int i = 1; i <= row.size; i++) {
+            // The right edge of a span has to come out of its x-coordinate and width exactly
+            if (i == row.size || sorted[i] > sorted[i - 1] + row.width
+                    || sorted[start] + ((sorted[i] + row.width) - sorted[start]) != sorted[i] + row.width) {
+                if (i - start == 1) {
+                    insertIntoCells(blocks[start]);
+                } else {
+                    insertIntoCells(new PlatformSpan(blocks, sorted, start, i));
+                }
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Finds the first place of an x-coordinate in sorted x-coordinates.
+     * @param sorted The sorted x-coordinates
+     * @param x The x-coordinate, which is one of them
+     * @return The index of the first x-coordinate which is not lower than x
+     */
+    private static int firstIndexOf(double[] sorted, double x) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds a solid entity to every cell it overlaps.
+     * @param entity The entity to add
+     */
+    private void insertIntoCells(Entity entity) {
+        int firstColumn = column(entity.getXPos());
+        int lastColumn = column(entity.getXPos() + entity.getWidth());
+        int firstRow = row(entity.getYPos());
+        int lastRow = row(entity.getYPos() + entity.getHeight());
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * this.columns + c;
+                if (this.cells[cell] == null) {
+                    this.cells[cell] = new Entity[INITIAL_CELL_CAPACITY];
+                } else if (this.counts[cell] == this.cells[cell].length) {
+                    Entity[] grown = new Entity[this.counts[cell] * 2];
+                    System.arraycopy(this.cells[cell], 0, grown, 0, this.counts[cell]);
+                    this.cells[cell] = grown;
+                }
+                this.cells[cell][this.counts[cell]++] = entity;
+            }
+            // Rays never need to go past the last occupied cell of a row or column
+            this.rowFirstColumn[r] = Math.min(this.rowFirstColumn[r], firstColumn);
+            this.rowLastColumn[r] = Math.max(this.rowLastColumn[r], lastColumn);
+        }
+        for (int c = firstColumn; c <= lastColumn; c++) {
+            this.columnFirstRow[c] = Math.min(this.columnFirstRow[c], firstRow);
+            this.columnLastRow[c] = Math.max(this.columnLastRow[c], lastRow);
+        }
+    }
+
+    /**
+     * Removes a solid entity from every cell it overlaps.
+     * @param entity The entity to remove
+     */
+    private void removeFromCells(Entity entity) {
+        int firstColumn = column(entity.getXPos());
+        int lastColumn = column(entity.getXPos() + entity.getWidth());
+        int firstRow = row(entity.getYPos());
+        int lastRow = row(entity.getYPos() + entity.getHeight());
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * this.columns + c;
+                Entity[] bucket = this.cells[cell];
+                for (int i = 0; i < this.counts[cell]; i++) {
+                    if (bucket[i] == entity) {
+                        // Keep the bucket order so that queries stay deterministic
+                        System.arraycopy(bucket, i + 1, bucket, i, this.counts[cell] - i - 1);
+                        bucket[--this.counts[cell]] = null;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the distance to the nearest solid entity sharing y-coordinates with the source.
+     * Gives exactly the same result as scanning every solid entity in the level.
+     * @param source The entity casting the ray
+     * @param left Whether the ray goes to the left
+     * @param res The distance to return if nothing is closer
+     * @return The distance to the nearest solid entity in the ray's path
+     */
+    public double horizontalRaycast(Entity source, boolean left, double res) {
+        if (res <= 0) {
+            // Distances are never negative, so nothing can get any closer
+            return res;
+        }
+        double x = source.getXPos();
+        double y = source.getYPos();
+        double width = source.getWidth();
+        double height = source.getHeight();
+        int firstRow = row(y);
+        int lastRow = row(y + height);
+
+        // Only the columns which ever held something in these rows can hold a hit
+        int firstOccupied = this.columns;
+        int lastOccupied = -1;
+        for (int r = firstRow; r <= lastRow; r++) {
+            firstOccupied = Math.min(firstOccupied, this.rowFirstColumn[r]);
+            lastOccupied = Math.max(lastOccupied, this.rowLastColumn[r]);
+        }
+
+        int step = left ? -1 : 1;
+        int start = left ? Math.min(column(x), lastOccupied) : Math.max(column(x + width), firstOccupied);
+        // A span is in every cell it overlaps, but its platforms only need to be searched once
+        Entity searched = null;
+
+        for (int c = start; c >= firstOccupied && c <= lastOccupied; c += step) {
+            // Entities first met in this column are at least this far away (one cell of slack for rounding)
+            double nearest = left ? x - (this.originX + (c + 2) * this.cellSize)
+                    : this.originX + (c - 1) * this.cellSize - (x + width);
+            if (c > 0 && c < this.columns - 1 && nearest > res) {
+                break;
+            }
+            for (int r = firstRow; r <= lastRow; r++) {
+                int cell = r * this.columns + c;
+                Entity[] bucket = this.cells[cell];
+                for (int i = 0; i < this.counts[cell]; i++) {
+                    Entity entity = bucket[i];
+                    if (entity != source && y < entity.getYPos() + entity.getHeight()
+                            && y + height > entity.getYPos()) {
+                        double distance = entity.getXPos() - (x + width);
+
+                        if (left) {
+                            distance = x - (entity.getXPos() + entity.getWidth());
+                        }
+
+                        if (distance >= 0) {
+                            res = Math.min(res, distance);
+                        } else if (entity != searched && entity instanceof PlatformSpan) {
+                            // A source inside a span can still face some of its platforms
+                            res = ((PlatformSpan) entity).horizontalRaycast(x, width, left, res);
+                            searched = entity;
+                        }
+                    }
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Returns the distance to the nearest solid entity sharing x-coordinates with the source.
+     * Gives exactly the same result as scanning every solid entity in the level.
+     * @param source The entity casting the ray
+     * @param up Whether the ray goes upwards
+     * @param res The distance to return if nothing is closer
+     * @return The distance to the nearest solid entity in the ray's path
+     */
+    public double verticalRaycast(Entity source, boolean up, double res) {
+        if (res <= 0) {
+            // Distances are never negative, so nothing can get any closer
+            return res;
+        }
+        double x = source.getXPos();
+        double y = source.getYPos();
+        double width = source.getWidth();
+        double height = source.getHeight();
+        int firstColumn = column(x);
+        int lastColumn = column(x + width);
+
+        // Only the rows which ever held something in these columns can hold a hit
+        int firstOccupied = this.rows;
+        int lastOccupied = -1;
+        for (int c = firstColumn; c <= lastColumn; c++) {
+            firstOccupied = Math.min(firstOccupied, this.columnFirstRow[c]);
+            lastOccupied = Math.max(lastOccupied, this.columnLastRow[c]);
+        }
+
+        int step = up ? -1 : 1;
+        int start = up ? Math.min(row(y), lastOccupied) : Math.max(row(y + height), firstOccupied);
+
+        for (int r = start; r >= firstOccupied && r <= lastOccupied; r += step) {
+            // Entities first met in this row are at least this far away (one cell of slack for rounding)
+            double nearest = up ? y - (this.originY + (r + 2) * this.cellSize)
+                    : this.originY + (r - 1) * this.cellSize - (y + height);
+            if (r > 0 && r < this.rows - 1 && nearest > res) {
+                break;
+            }
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * this.columns + c;
+                Entity[] bucket = this.cells[cell];
+                for (int i = 0; i < this.counts[cell]; i++) {
+                    Entity entity = bucket[i];
+                    if (entity != source && x < entity.getXPos() + entity.getWidth()
+                            && x + width > entity.getXPos()) {
+                        double distance = entity.getYPos() - (y + height);
+
+                        if (up) {
+                            distance = y - (entity.getYPos() + entity.getHeight());
+                        }
+
+                        if (distance >= 0) {
+                            res = Math.min(res, distance);
+                        }
+                    }
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Collects the solid entities sharing a cell with the box. Every entity overlapping the box is
+     * collected, possibly more than once, along with some that are merely close to it.
+     * @param box The entity to find candidates for
+     * @param out The list to fill with candidates (cleared first)
+     */
+    public void query(Entity box, List<Entity> out) {
+        out.clear();
+        int firstColumn = column(box.getXPos());
+        int lastColumn = column(box.getXPos() + box.getWidth());
+        int firstRow = row(box.getYPos());
+        int lastRow = row(box.getYPos() + box.getHeight());
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * this.columns + c;
+                for (int i = 0; i < this.counts[cell]; i++) {
+                    out.add(this.cells[cell][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts an x-coordinate into a column, clamped to the grid.
+     * @param x The x-coordinate
+     * @return The column containing x
+     */
+    private int column(double x) {
+        int column = (int) Math.floor((x - this.originX) / this.cellSize);
+        return Math.max(0, Math.min(this.columns - 1, column));
+    }
+
+    /**
+     * Converts a y-coordinate into a row, clamped to the grid.
+     * @param y The y-coordinate
+     * @return The row containing y
+     */
+    private int row(double y) {
+        int row = (int) Math.floor((y - this.originY) / this.cellSize);
+        return Math.max(0, Math.min(this.rows - 1, row));
+    }
+
+    /**
+     * The platforms of a level sharing a y-coordinate and a size, which may be merged into spans.
+     */
+    private static final class Row {
+
+        /**
+         * The width of the platforms of the row.
+         */
+        private final double width;
+
+        /**
+         * The height of the platforms of the row.
+         */
+        private final double height;
+
+        /**
+         * The platforms of the row, in the order they were added.
+         */
+        private Platform[] platforms;
+
+        /**
+         * The x-coordinates of the platforms, in the same order.
+         */
+        private double[] xs;
+
+        /**
+         * The number of platforms in the row.
+         */
+        private int size;
+
+        /**
+         * Creates an empty row for platforms like the given one.
+         * @param platform A platform of the row
+         */
+        private Row(Platform platform) {
+            this.width = platform.getWidth();
+            this.height = platform.getHeight();
+            this.platforms = new Platform[16];
+            this.xs = new double[16];
+        }
+
+        /**
+         * Adds a platform to the row, if it is of the row's size.
+         * @param platform The platform to add
+         * @return Whether the platform was added
+         */
+        private boolean add(Platform platform) {
+            if (platform.getWidth() != this.width || platform.getHeight() != this.height
+                    || Double.isNaN(platform.getXPos())) {
+                return false;
+            }
+            if (this.size == this.platforms.length) {
+                this.platforms = Arrays.copyOf(this.platforms, this.size * 2);
+                this.xs = Arrays.copyOf(this.xs, this.size * 2);
+            }
+            this.platforms[this.size] = platform;
+            this.xs[this.size++] = platform.getXPos();
+            return true;
+        }
+    }
+}
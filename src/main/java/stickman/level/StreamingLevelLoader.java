@@ -0,0 +1,236 @@
+package stickman.level;
+
+import stickman.entity.moving.enemy.DumbStrategy;
+import stickman.entity.moving.enemy.EnemyStrategy;
+import stickman.entity.moving.enemy.FollowStrategy;
+import stickman.entity.moving.enemy.Slime;
+import stickman.entity.still.Flag;
+import stickman.entity.still.Mushroom;
+import stickman.entity.still.Platform;
+import stickman.level.JsonPullParser.Token;
+import stickman.model.GameEngine;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a level file in the same JSON format as LevelBuilderImpl.generateFromFile, without building a
+ * JSON tree of it first: the file is read token by token and every platform, mushroom and enemy is built
+ * as soon as its object has been read, so only the entities themselves are ever held in memory.
+ * <p>
+ * The entities are handed to the LevelBuilder in the same order as generateFromFile does (platforms,
+ * mushrooms, enemies and then the flag) whatever order the file lists them in, so both loaders build
+ * exactly the same level. Numbers may be written with or without a fraction.
+ */
+public final class StreamingLevelLoader {
+
+    private StreamingLevelLoader() {
+    }
+
+    /**
+     * Reads a json file and generates a Level object from it.
+     * @param file The JSON file to read
+     * @param model The GameEngine the level is part of
+     * @return The corresponding Level object, or null if the file cannot be read
+     */
+    public static Level generateFromFile(String file, GameEngine model) {
+        try {
+            LevelBuilder levelBuilder = new LevelBuilderImpl(file, model);
+            read(file, levelBuilder);
+            return levelBuilder.build();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Reads a level file into a builder, without building the level.
+     * @param file The JSON file to read
+     * @param levelBuilder The builder of the level
+     * @throws IOException If the file cannot be read or is not a level
+     */
+    static void read(String file, LevelBuilder levelBuilder) throws IOException {
+        try (Reader reader = new BufferedReader(new FileReader(file), 64 * 1024)) {
+            read(new JsonPullParser(reader), levelBuilder);
+        }
+    }
+
+    /**
+     * Reads a level document into a builder, without building the level.
+     * @param json The parser of the document
+     * @param levelBuilder The builder of the level
+     * @throws IOException If the document is not a level
+     */
+    private static void read(JsonPullParser json, LevelBuilder levelBuilder) throws IOException {
+        List<Platform> platforms = new ArrayList<>();
+        List<Mushroom> mushrooms = new ArrayList<>();
+        List<Slime> enemies = new ArrayList<>();
+        Flag flag = null;
+        String heroSize = null;
+        double heroX = 0;
+        double[] point = new double[2];
+
+        json.expect(Token.BEGIN_OBJECT);
+        Token token;
+        while ((token = json.next()) == Token.NAME) {
+            if (json.isString("stickmanSize")) {
+                heroSize = json.nextString();
+            } else if (json.isString("stickmanPos")) {
+                readPoint(json, point);
+                heroX = point[0];
+            } else if (json.isString("levelTargetPoint")) {
+                levelBuilder.setTargetPoint((int) json.nextNumber());
+            } else if (json.isString("levelDimensions")) {
+                readDimensions(json, levelBuilder);
+            } else if (json.isString("parallelTick")) {
+                levelBuilder.setParallelTick(json.nextBoolean());
+            } else if (json.isString("activationRadius")) {
+                levelBuilder.setActivationRadius(json.nextNumber());
+            } else if (json.isString("platforms")) {
+                json.expect(Token.BEGIN_ARRAY);
+                while (json.next() == Token.BEGIN_OBJECT) {
+                    readPointFields(json, point);
+                    platforms.add(new Platform(point[0], point[1]));
+                }
+            } else if (json.isString("mushrooms")) {
+                json.expect(Token.BEGIN_ARRAY);
+                while (json.next() == Token.BEGIN_OBJECT) {
+                    readPointFields(json, point);
+                    mushrooms.add(new Mushroom(point[0], point[1]));
+                }
+            } else if (json.isString("enemies")) {
+                readEnemies(json, enemies);
+            } else if (json.isString("flag")) {
+                readPoint(json, point);
+                flag = new Flag(point[0], point[1]);
+            } else {
+                json.skipValue();
+            }
+        }
+        if (token != Token.END_OBJECT) {
+            throw new IOException("Expected the end of the level but found " + token);
+        }
+        if (flag == null) {
+            throw new IOException("The level has no flag");
+        }
+
+        levelBuilder.setHero(heroX, heroSize);
+        for (Platform platform : platforms) {
+            levelBuilder.addStaticEntity(platform);
+        }
+        for (Mushroom mushroom : mushrooms) {
+            levelBuilder.addInteractable(mushroom);
+            levelBuilder.addStaticEntity(mushroom);
+        }
+        for (Slime enemy : enemies) {
+            levelBuilder.addInteractable(enemy);
+            levelBuilder.addEnemy(enemy);
+        }
+        levelBuilder.addInteractable(flag);
+        levelBuilder.addStaticEntity(flag);
+    }
+
+    /**
+     * Reads an object holding an x and a y.
+     * @param json The parser, before the object
+     * @param point Where to put the x and the y
+     * @throws IOException If the value is not an object
+     */
+    private static void readPoint(JsonPullParser json, double[] point) throws IOException {
+        json.expect(Token.BEGIN_OBJECT);
+        readPointFields(json, point);
+    }
+
+    /**
+     * Reads the members of an object holding an x and a y, up to the end of the object.
+     * @param json The parser, inside the object
+     * @param point Where to put the x and the y
+     * @throws IOException If a member is malformed
+     */
+    private static void readPointFields(JsonPullParser json, double[] point) throws IOException {
+        point[0] = 0;
+        point[1] = 0;
+        while (json.next() == Token.NAME) {
+            if (json.isString("x")) {
+                point[0] = json.nextNumber();
+            } else if (json.isString("y")) {
+                point[1] = json.nextNumber();
+            } else {
+                json.skipValue();
+            }
+        }
+    }
+
+    /**
+     * Reads the dimensions of the level.
+     * @param json The parser, before the dimensions object
+     * @param levelBuilder The builder of the level
+     * @throws IOException If the value is not an object
+     */
+    private static void readDimensions(JsonPullParser json, LevelBuilder levelBuilder) throws IOException {
+        double width = 0;
+        double height = 0;
+        json.expect(Token.BEGIN_OBJECT);
+        while (json.next() == Token.NAME) {
+            if (json.isString("width")) {
+                width = json.nextNumber();
+            } else if (json.isString("height")) {
+                height = json.nextNumber();
+            } else if (json.isString("floorHeight")) {
+                levelBuilder.setFloorHeight(json.nextNumber());
+            } else {
+                json.skipValue();
+            }
+        }
+        levelBuilder.setDimensions(width, height);
+    }
+
+    /**
+     * Reads the array of enemies.
+     * @param json The parser, before the array
+     * @param enemies The list to add the enemies to
+     * @throws IOException If the value is not an array of enemies
+     */
+    private static void readEnemies(JsonPullParser json, List<Slime> enemies) throws IOException {
+        // Every enemy of a level shares the same strategies
+        EnemyStrategy dumb = new DumbStrategy();
+        EnemyStrategy follow = new FollowStrategy();
+
+        json.expect(Token.BEGIN_ARRAY);
+        while (json.next() == Token.BEGIN_OBJECT) {
+            double x = 0;
+            double y = 0;
+            String image = null;
+            boolean startLeft = false;
+            EnemyStrategy strategy = null;
+            while (json.next() == Token.NAME) {
+                if (json.isString("x")) {
+                    x = json.nextNumber();
+                } else if (json.isString("y")) {
+                    y = json.nextNumber();
+                } else if (json.isString("path")) {
+                    image = json.nextString();
+                } else if (json.isString("startLeft")) {
+                    startLeft = json.nextBoolean();
+                } else if (json.isString("strategy")) {
+                    json.expect(Token.STRING);
+                    if (json.isString("dumb")) {
+                        strategy = dumb;
+                    } else if (json.isString("follow")) {
+                        strategy = follow;
+                    }
+                } else {
+                    json.skipValue();
+                }
+            }
+            enemies.add(new Slime(image, x, y, startLeft, strategy));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package stickman.model;
+
+/**
+ * Accumulator deciding how many simulation ticks to run for each rendered frame, so that the
+ * simulation advances at a fixed rate whatever the frame rate is. When rendering falls behind,
+ * several ticks are run in one frame (up to a limit, after which the lost time is dropped);
+ * when rendering is ahead, frames run no tick at all.
+ * Physics constants are expressed per tick, so the tick rate also sets the speed of the game.
+ * The default of 120 ticks per second matches the speed the game was tuned for: the window used
+ * to start two 17 ms timelines which both ticked the model.
+ */
+public class FixedTimestep {
+
+    /**
+     * The default number of simulation ticks per second.
+     */
+    public static final double DEFAULT_TICK_RATE = 120;
+
+    /**
+     * The default maximum number of ticks run in a single frame.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+
+    /**
+     * The length of a tick in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The maximum number of ticks run in a single frame.
+     */
+    private final int maxCatchUpTicks;
+
+    /**
+     * The time which has passed but has not been simulated yet, in nanoseconds.
+     */
+    private long accumulatedNanos;
+
+    /**
+     * The time of the previous frame, in nanoseconds.
+     */
+    private long lastFrameNanos;
+
+    /**
+     * Whether a frame has been seen yet.
+     */
+    private boolean started;
+
+    /**
+     * The number of ticks dropped because the simulation could not catch up.
+     */
+    private long droppedTicks;
+
+    /**
+     * Creates a FixedTimestep object with the default tick rate and catch-up limit.
+     */
+    public FixedTimestep() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP_TICKS);
+    }
+
+    /**
+     * Creates a new FixedTimestep object.
+     * @param tickRate The number of simulation ticks per second
+     * @param maxCatchUpTicks The maximum number of ticks run in a single frame
+     */
+    public FixedTimestep(double tickRate, int maxCatchUpTicks) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("The tick rate must be positive");
+        }
+        if (maxCatchUpTicks < 1) {
+            throw new IllegalArgumentException("At least one tick must be allowed per frame");
+        }
+        this.tickNanos = Math.round(1_000_000_000L / tickRate);
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    /**
+     * Accounts for the time passed since the previous frame and returns the number of ticks to run.
+     * @param nowNanos The current time in nanoseconds (e.g. System.nanoTime())
+     * @return The number of simulation ticks to run this frame
+     */
+    public int advance(long nowNanos) {
+        if (!this.started) {
+            this.started = true;
+            this.lastFrameNanos = nowNanos;
+            return 0;
+        }
+        this.accumulatedNanos += Math.max(0, nowNanos - this.lastFrameNanos);
+        this.lastFrameNanos = nowNanos;
+
+        long ticks = this.accumulatedNanos / this.tickNanos;
+        this.accumulatedNanos -= ticks * this.tickNanos;
+
+        if (ticks > this.maxCatchUpTicks) {
+            // Too far behind: give up on the extra time rather than spiralling
+            this.droppedTicks += ticks - this.maxCatchUpTicks;
+            ticks = this.maxCatchUpTicks;
+        }
+        return (int) ticks;
+    }
+
+    /**
+     * Gets the length of a tick.
+     * @return The length of a tick in nanoseconds
+     */
+    public long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    /**
+     * Gets the number of ticks dropped because the simulation was too far behind.
+     * @return The number of dropped ticks
+     */
+    public long getDroppedTicks() {
+        return this.droppedTicks;
+    }
+}
@@ -1,8 +1,11 @@
 package stickman.model;
 
+import gamesaver.GameMemento;
 import gamesaver.MementoOriginator;
 import stickman.level.Level;
 
+import java.util.function.Consumer;
+
 /**
  * Interface for the GameEngine. Describes the necessary behaviour
  * for running the game.
@@ -87,4 +90,25 @@ public interface GameEngine extends MementoOriginator {
     * */
     int getStickmanLives();
 
+    /**
+     * Starts or stops rewinding. While rewinding, every tick steps the game back by one tick instead of running
+     * it, for as far back as the game keeps its history.
+     * @param rewinding Whether to rewind
+     */
+    void setRewinding(boolean rewinding);
+
+    /**
+     * Saves the game in two steps: its state is captured straight away, which is cheap, then handed to the
+     * caretaker on a background thread, so that a slow caretaker (such as a save file) does not hold up a frame.
+     * @param onSaved Called on the background thread with the memento once the caretaker has it, may be null
+     */
+    void saveMementoInBackground(Consumer<GameMemento> onSaved);
+
+    /**
+     * Loads the last saved game on a background thread. The game carries on meanwhile, and the loaded level
+     * replaces the current one at the start of the first tick after it is ready.
+     * @param onLoaded Called on the game's thread once the loaded level is in place, may be null
+     */
+    void loadMementoInBackground(Runnable onLoaded);
+
 }
@@ -7,23 +7,33 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
-import stickman.entity.Entity;
-import stickman.entity.still.Lose;
-import stickman.entity.still.Win;
 import stickman.level.*;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Implementation of GameEngine. Manages the running of the game.
  */
 public class GameManager implements GameEngine, Observer {
 
+    /**
+     * How long the saver thread of a game waits for more work before it ends, in seconds.
+     */
+    private static final long SAVER_KEEP_ALIVE_SECONDS = 5;
+
     /**
      * The current level
      */
@@ -77,18 +87,59 @@ public class GameManager implements GameEngine, Observer {
     * */
     private GameMementoCaretaker gameMementoCaretaker;
 
+    /**
+     * The clock of the timer when it only moves with the ticks of the game, null otherwise
+     */
+    private TickClock tickClock;
+
+    /**
+     * The history of the last ticks, to rewind through. Null if the game keeps no history
+     */
+    private RewindBuffer rewindBuffer;
+
+    /**
+     * Whether the game is rewinding instead of running
+     */
+    private boolean rewinding;
+
+    /**
+     * A game loaded in the background, waiting for the next tick to replace the current one
+     */
+    private final AtomicReference<LoadedGame> loadedGame = new AtomicReference<>();
+
+    /**
+     * The thread this game's saves and loads run on in the background. A single thread keeps them in the order
+     * they were asked for, so that a load always sees the saves asked for before it. Every game has its own,
+     * so a slow save of one game never holds up another game's.
+     */
+    private final ThreadPoolExecutor saver;
+
+    /**
+     * The next level, built in the background while the current one is played. Null if there is none
+     */
+    private PrefetchedLevel nextLevel;
+
 
     /**
      * Creates a GameManager object.
      * @param levels The config file containing the names of all the levels
      */
     public GameManager(String levels) {
+        this(levels, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a GameManager object whose timer reads the given clock.
+     * @param levels The config file containing the names of all the levels
+     * @param clock The clock the game's timer reads the time from
+     */
+    public GameManager(String levels, Clock clock) {
         /*
         * This leads us to the levels.json file, where all config files are stored there
         * */
         this.levelFileNames = this.readConfigFile(levels);
         this.levelIndex = 0;
-        this.level = LevelBuilderImpl.generateFromFile(levelFileNames.get(this.levelIndex), this);
+        this.level = LevelTemplates.instantiate(levelFileNames.get(this.levelIndex), this);
         if (this.level != null) {
             this.level.getStickman().attach(this);
         }
@@ -98,10 +149,22 @@ public class GameManager implements GameEngine, Observer {
         this.subjects.add((Subject) this.level);
         // Now we attach this class to this new level to update
         this.subjects.get(this.levelIndex).attach(this);
-        timer = new Timer();
+        timer = new Timer(clock);
+        if (clock instanceof TickClock) {
+            this.tickClock = (TickClock) clock;
+        }
         this.previousSeconds = timer.convertTimeCountToSeconds();
         this.gameState = new GameRun();
         this.gameMementoCaretaker = new GameMementoCaretakerImpl();
+        // The thread ends once it has been idle for a while, so a game which is dropped leaves nothing running
+        this.saver = new ThreadPoolExecutor(1, 1, SAVER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "game-saver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.saver.allowCoreThreadTimeOut(true);
+        prefetchNextLevel();
     }
 
     @Override
@@ -132,6 +195,21 @@ public class GameManager implements GameEngine, Observer {
     @Override
     public void tick() {
 
+        // A game loaded in the background goes in between two ticks, so that no tick sees half of it
+        LoadedGame loaded = this.loadedGame.getAndSet(null);
+        if (loaded != null) {
+            restoreMemento(loaded.memento, loaded.level);
+            if (loaded.onLoaded != null) {
+                loaded.onLoaded.run();
+            }
+        }
+
+        // Rewinding also works once the game has stopped, to step back before the hero died
+        if (this.rewinding && this.rewindBuffer != null) {
+            rewind();
+            return;
+        }
+
         if (this.gameState instanceof GameStop) {
             return;
         }
@@ -143,6 +221,87 @@ public class GameManager implements GameEngine, Observer {
         this.previousSeconds = this.timer.convertTimeCountToSeconds();
 
         this.level.tick();
+
+        if (this.tickClock != null) {
+            this.tickClock.advance();
+        }
+
+        if (this.rewindBuffer != null) {
+            recordFrame();
+        }
+    }
+
+    /**
+     * Records the state of the game at the end of a tick, to rewind to later.
+     */
+    private void recordFrame() {
+        this.rewindBuffer.record(this.level, this.gameState, this.timer.convertTimeCountToSeconds(),
+                this.stickmanLives, this.currentPoint, this.totalPoint, this.levelIndex);
+    }
+
+    /**
+     * Steps the game back by one tick, if the rewind buffer goes back that far.
+     */
+    private void rewind() {
+        Level rewound = this.rewindBuffer.rewind(this.level, this);
+        if (rewound == null) {
+            return;
+        }
+        Level previous = this.level;
+        this.level = rewound;
+        this.gameState = this.rewindBuffer.getGameState();
+        this.timer.rollTimeToSeconds(this.rewindBuffer.getTimerSeconds());
+        this.previousSeconds = this.timer.convertTimeCountToSeconds();
+        this.stickmanLives = this.rewindBuffer.getLives();
+        this.currentPoint = this.rewindBuffer.getCurrentPoint();
+        this.totalPoint = this.rewindBuffer.getTotalPoint();
+        this.levelIndex = this.rewindBuffer.getLevelIndex();
+        if (rewound != previous) {
+            adoptObservers(previous);
+            // The keyframe may belong to another level than the one being built in the background
+            prefetchNextLevel();
+        }
+    }
+
+    /**
+     * Hands the level decoded from a keyframe the observers of the level it replaced. The decoded level and
+     * hero are only observed by the game, so whoever else observed them, such as the window, is attached and
+     * told about the new level.
+     * @param previous The level the decoded one replaced
+     */
+    private void adoptObservers(Level previous) {
+        if (previous instanceof Subject && this.level instanceof Subject) {
+            Subject levelSubject = (Subject) this.level;
+            for (Observer observer : ((Subject) previous).getObservers()) {
+                if (!levelSubject.getObservers().contains(observer)) {
+                    levelSubject.attach(observer);
+                    observer.update();
+                }
+            }
+        }
+        List<Observer> heroObservers = this.level.getStickman().getObservers();
+        for (Observer observer : previous.getStickman().getObservers()) {
+            if (observer != previous && !heroObservers.contains(observer)) {
+                this.level.getStickman().attach(observer);
+            }
+        }
+    }
+
+    /**
+     * Keeps the history of the game in a rewind buffer from now on, so that it can be rewound.
+     * @param rewindBuffer The rewind buffer, or null to keep no history
+     */
+    public void setRewindBuffer(RewindBuffer rewindBuffer) {
+        this.rewindBuffer = rewindBuffer;
+        if (rewindBuffer != null) {
+            rewindBuffer.clear();
+            recordFrame();
+        }
+    }
+
+    @Override
+    public void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
     }
 
     @Override
@@ -163,7 +322,7 @@ public class GameManager implements GameEngine, Observer {
         }
         this.currentPoint = 0;
         // Reset the level as usual
-        this.level = LevelBuilderImpl.generateFromFile(this.level.getSource(), this);
+        this.level = LevelTemplates.instantiate(this.level.getSource(), this);
 
 
         // When reset the game, we also need to reattach the level to the game
@@ -191,7 +350,7 @@ public class GameManager implements GameEngine, Observer {
         if (this.levelIndex < this.levelFileNames.size()-1) {
             // This level has been loaded and good to go
             this.levelIndex ++;
-            this.level = LevelBuilderImpl.generateFromFile(this.levelFileNames.get(this.levelIndex), this);
+            this.level = takeNextLevel();
             if (level instanceof Subject) {
                 System.out.println("Subject Attached");
                 Subject newLevel = (Subject) this.level;
@@ -200,13 +359,62 @@ public class GameManager implements GameEngine, Observer {
                 newLevel.attach(this);
             }
             status = true;
+            prefetchNextLevel();
         }
 
         return status;
     }
 
     /**
-     * Retrieves the list of level filenames from a config file
+     * Starts building the level after the current one in the background, unless it is already being built.
+     * A level being built for another index, since a load or a rewind moved the game to another level, is
+     * cancelled, which skips building it if it has not started yet.
+     */
+    private void prefetchNextLevel() {
+        int next = this.levelIndex + 1;
+        if (this.nextLevel != null && this.nextLevel.index == next) {
+            return;
+        }
+        if (this.nextLevel != null) {
+            this.nextLevel.future.cancel(false);
+            this.nextLevel = null;
+        }
+        if (next < this.levelFileNames.size()) {
+            this.nextLevel = new PrefetchedLevel(next, LevelTemplates.prefetch(this.levelFileNames.get(next), this));
+        }
+    }
+
+    /**
+     * Gets the current level from the background if it was built there, or builds it now otherwise.
+     * A level still being built is waited for, since it is further along than starting over, but one built
+     * for another index than the current one is thrown away.
+     * @return The current level
+     */
+    private Level takeNextLevel() {
+        PrefetchedLevel prefetched = this.nextLevel;
+        this.nextLevel = null;
+        if (prefetched != null && prefetched.index != this.levelIndex) {
+            prefetched.future.cancel(false);
+            prefetched = null;
+        }
+        if (prefetched != null) {
+            try {
+                Level level = prefetched.future.get();
+                if (level != null) {
+                    return level;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        return LevelTemplates.instantiate(this.levelFileNames.get(this.levelIndex), this);
+    }
+
+    /**
+     * Retrieves the list of level filenames from a config file. Levels may be JSON files or levels compiled
+     * by LevelCompiler, and a JSON file whose compiled version sits next to it is loaded from that instead
      * @param config The config file
      * @return The list of level names
      */
@@ -248,7 +456,7 @@ public class GameManager implements GameEngine, Observer {
             // Get level file names
             while (iterator.hasNext()) {
                 String file = iterator.next();
-                res.add("levels/" + file);
+                res.add(BinaryLevelLoader.findCompiled("levels/" + file));
             }
 
         } catch (IOException e) {
@@ -282,27 +490,19 @@ public class GameManager implements GameEngine, Observer {
             /*
              * Now, because there are 2 main situations when the level stops running
              *   1. The hero wins
-             *   2. The hero dies (Not implemented yet)
+             *   2. The hero dies
              * */
-            // To make sure that the game has won(or lost),
-            // We are going to look into the list of entities to see if we can get the
-            // Win (or lose) object
-            for (Entity entity : this.level.getEntities()) {
-                // Check if this entity is the win object
-                if (entity instanceof Win) {
-                    // IF it is correct, then we break the loop and
-                    if (loadNextLevel()) {
-                        System.out.printf("Level has been updated : %s\n", this.levelFileNames.get(this.levelIndex));
-                    } else {
-                        // If we cannot load the next level
-                        this.gameState = this.gameState.stop();
-                    }
-                    break;
-                } else if (entity instanceof Lose) {
-                    // If the level can not run anymore
+            // The level keeps track of how it ended, so there is no need to look for the Win (or Lose) object
+            if (this.level.getOutcome() == Level.Outcome.WON) {
+                if (loadNextLevel()) {
+                    System.out.printf("Level has been updated : %s\n", this.levelFileNames.get(this.levelIndex));
+                } else {
+                    // If we cannot load the next level
                     this.gameState = this.gameState.stop();
-                    break;
                 }
+            } else if (this.level.getOutcome() == Level.Outcome.LOST) {
+                // If the level can not run anymore
+                this.gameState = this.gameState.stop();
             }
             // Once loaded with the next level, we shall reset the timer
             this.timer.setStartingTimeToNow();
@@ -377,33 +577,169 @@ public class GameManager implements GameEngine, Observer {
         return this.stickmanLives;
     }
 
+    /**
+     * Replaces the caretaker keeping the saved game, for example with one saving to a file.
+     * @param gameMementoCaretaker The new caretaker
+     */
+    public void setGameMementoCaretaker(GameMementoCaretaker gameMementoCaretaker) {
+        this.gameMementoCaretaker = gameMementoCaretaker;
+    }
+
     @Override
     public GameMemento saveMemento() {
-        // Creates new memento
-        GameMemento gameMemento = new GameMementoImpl(level, gameState, this.timer.convertTimeCountToSeconds(),
-                this.stickmanLives, this.currentPoint, this.totalPoint, this.levelIndex);
+        GameMemento gameMemento = captureMemento();
         this.gameMementoCaretaker.overwriteMemento(gameMemento);
         return gameMemento;
     }
 
     @Override
     public void loadMemento() {
-        if (this.gameMementoCaretaker.getMostRecentMemento() != null) {
+        // Fetched once, since a caretaker backed by a file decodes the memento every time
+        GameMemento gameMemento = this.gameMementoCaretaker.getMostRecentMemento();
+        if (gameMemento != null) {
 //            reset();
-            GameMemento gameMemento = this.gameMementoCaretaker.getMostRecentMemento();
-            this.level = gameMemento.getLevel();
-            this.gameState = gameMemento.getGameState();
-            // Sets the timer to the second
-            this.timer.rollTimeToSeconds(gameMemento.getTimerSeconds());
-            this.stickmanLives = gameMemento.getLives();
-            this.currentPoint = gameMemento.getCurrentPoint();
-            this.totalPoint = gameMemento.getTotalPoint();
-            this.levelIndex = gameMemento.getLevelIndex();
-            if (this.level instanceof Subject) {
-                ((Subject) this.level).notifyObservers();
-            }
+            restoreMemento(gameMemento, gameMemento.getLevel());
         } else {
             System.out.println("You need to save to Load the game");
         }
     }
+
+    @Override
+    public void saveMementoInBackground(Consumer<GameMemento> onSaved) {
+        // Capturing the state is only a copy of the level, whose immutable entities are shared
+        GameMemento gameMemento = captureMemento();
+        GameMementoCaretaker caretaker = this.gameMementoCaretaker;
+        this.saver.execute(() -> {
+            caretaker.overwriteMemento(gameMemento);
+            if (onSaved != null) {
+                onSaved.accept(gameMemento);
+            }
+        });
+    }
+
+    @Override
+    public void loadMementoInBackground(Runnable onLoaded) {
+        GameMementoCaretaker caretaker = this.gameMementoCaretaker;
+        this.saver.execute(() -> {
+            GameMemento gameMemento = caretaker.getMostRecentMemento();
+            if (gameMemento != null) {
+                // Copying (or decoding) the level is the slow part, so it is done here rather than at the swap.
+                // The memento's level is only ever read once it is captured, so it is safe to copy it on this
+                // thread; the copy belongs to the game once the tick takes it over
+                this.loadedGame.set(new LoadedGame(gameMemento, gameMemento.getLevel(), onLoaded));
+            } else {
+                System.out.println("You need to save to Load the game");
+            }
+        });
+    }
+
+    /**
+     * Waits for the saves and loads asked for so far to finish, for example before closing a save file.
+     */
+    public void awaitBackgroundSaves() {
+        try {
+            this.saver.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Captures the state of the game in a new memento, without handing it to the caretaker.
+     * @return The memento
+     */
+    public GameMemento captureMemento() {
+        return new GameMementoImpl(level, gameState, this.timer.convertTimeCountToSeconds(),
+                this.stickmanLives, this.currentPoint, this.totalPoint, this.levelIndex);
+    }
+
+    /**
+     * Puts the game back to the state of a memento which did not come from the caretaker, such as one
+     * recovered from an autosave journal.
+     * @param gameMemento The memento
+     */
+    public void restoreMemento(GameMemento gameMemento) {
+        restoreMemento(gameMemento, gameMemento.getLevel());
+    }
+
+    /**
+     * Puts the game back to the state of a memento.
+     * @param gameMemento The memento
+     * @param level The level of the memento, which the game takes over
+     */
+    private void restoreMemento(GameMemento gameMemento, Level level) {
+        this.level = level;
+        this.gameState = gameMemento.getGameState();
+        // Sets the timer to the second
+        this.timer.rollTimeToSeconds(gameMemento.getTimerSeconds());
+        this.stickmanLives = gameMemento.getLives();
+        this.currentPoint = gameMemento.getCurrentPoint();
+        this.totalPoint = gameMemento.getTotalPoint();
+        this.levelIndex = gameMemento.getLevelIndex();
+        prefetchNextLevel();
+        if (this.level instanceof Subject) {
+            ((Subject) this.level).notifyObservers();
+        }
+    }
+
+    /**
+     * A level being built in the background, along with the index of the level it is built for.
+     */
+    private static class PrefetchedLevel {
+
+        /**
+         * The index of the level being built.
+         */
+        private final int index;
+
+        /**
+         * The level, once built.
+         */
+        private final CompletableFuture<Level> future;
+
+        /**
+         * Creates a new PrefetchedLevel object.
+         * @param index The index of the level being built
+         * @param future The level, once built
+         */
+        private PrefetchedLevel(int index, CompletableFuture<Level> future) {
+            this.index = index;
+            this.future = future;
+        }
+    }
+
+    /**
+     * A game loaded in the background, along with the level copied from it.
+     */
+    private static class LoadedGame {
+
+        /**
+         * The memento loaded.
+         */
+        private final GameMemento memento;
+
+        /**
+         * The level of the memento, for the game to take over.
+         */
+        private final Level level;
+
+        /**
+         * What to call once the game is in place, may be null.
+         */
+        private final Runnable onLoaded;
+
+        /**
+         * Creates a new LoadedGame object.
+         * @param memento The memento loaded
+         * @param level The level of the memento
+         * @param onLoaded What to call once the game is in place
+         */
+        private LoadedGame(GameMemento memento, Level level, Runnable onLoaded) {
+            this.memento = memento;
+            this.level = level;
+            this.onLoaded = onLoaded;
+        }
+    }
 }
\ No newline at end of file
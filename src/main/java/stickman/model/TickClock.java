@@ -0,0 +1,101 @@
+package stickman.model;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock which only moves when the game ticks, by the length of one tick each time.
+ * A game timed by a TickClock scores the same whatever speed it is simulated at, which is what
+ * makes recorded games replay exactly. GameManager advances its TickClock at the end of every tick.
+ */
+public class TickClock extends Clock {
+
+    /**
+     * The length of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The time the clock starts at, in epoch milliseconds.
+     */
+    private final long originMillis;
+
+    /**
+     * The number of ticks which have passed.
+     */
+    private long ticks;
+
+    /**
+     * Creates a TickClock running at the default tick rate and starting at the epoch.
+     */
+    public TickClock() {
+        this(Math.round(1_000_000_000L / FixedTimestep.DEFAULT_TICK_RATE));
+    }
+
+    /**
+     * Creates a TickClock starting at the epoch.
+     * @param tickNanos The length of a tick in nanoseconds
+     */
+    public TickClock(long tickNanos) {
+        this(tickNanos, 0);
+    }
+
+    /**
+     * Creates a new TickClock object.
+     * @param tickNanos The length of a tick in nanoseconds
+     * @param originMillis The time the clock starts at, in epoch milliseconds
+     */
+    public TickClock(long tickNanos, long originMillis) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("The length of a tick must be positive");
+        }
+        this.tickNanos = tickNanos;
+        this.originMillis = originMillis;
+    }
+
+    /**
+     * Moves the clock forward by one tick.
+     */
+    public void advance() {
+        this.ticks++;
+    }
+
+    /**
+     * Gets the number of ticks which have passed.
+     * @return The number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Gets the length of a tick.
+     * @return The length of a tick in nanoseconds
+     */
+    public long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    @Override
+    public long millis() {
+        return this.originMillis + this.ticks * this.tickNanos / 1_000_000;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(this.originMillis).plusNanos(this.ticks * this.tickNanos);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        // The time is all that matters to the game, so every zone gives the same clock
+        return this;
+    }
+}
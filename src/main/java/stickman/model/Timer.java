@@ -1,16 +1,28 @@
 package stickman.model;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 
-public class Timer {
+public class Timer implements TimeElapse {
     /**
      * When the game starts, we record the start time so that we will be able to have a counter of time
      * For more info about this, please visit : http://tutorials.jenkov.com/java-date-time/instant.html
+     * The time is kept as epoch milliseconds so that reading the timer every tick does not allocate
+     * Instant and Duration objects.
+     * Every game has its own timer, so that several games can run side by side.
      * */
-    private static Instant startingTime;
+    private long startingMillis;
+    /**
+     * The clock the timer reads the time from
+     * */
+    private final Clock clock;
     public Timer () {
-        startingTime = Instant.now();
+        this(Clock.systemUTC());
+    }
+    public Timer(Clock clock) {
+        this.clock = clock;
+        this.startingMillis = clock.millis();
     }
     public Timer(Instant startingTime) {
         // Preset the time first in case if the inserted time is not working
@@ -18,51 +30,58 @@ public class Timer {
         /*
          * We can only go backwards
          * */
-        if (startingTime != null && Instant.now().compareTo(startingTime) >= 0) {
-            Timer.startingTime = startingTime;
+        if (startingTime != null && this.clock.millis() >= startingTime.toEpochMilli()) {
+            this.startingMillis = startingTime.toEpochMilli();
         }
     }
 
-    public static long convertTimeCountToSeconds() {
+    @Override
+    public long convertTimeCountToSeconds() {
         // Get the current running time and then compare to the starting time
-        Instant currentTime = Instant.now();
-
-        return Duration.between(startingTime, currentTime).toSeconds();
+        return (this.clock.millis() - this.startingMillis) / 1000;
     }
 
 
-    public static Duration convertTimeCountToDuration() {
+    @Override
+    public Duration convertTimeCountToDuration() {
         // Get the current running time and then compare to the starting time
-        Instant currentTime = Instant.now();
-        return Duration.between(startingTime, currentTime);
+        return Duration.ofMillis(this.clock.millis() - this.startingMillis);
     }
 
 
-    public static Instant getCurrentTime() {
-        return Instant.now();
+    @Override
+    public Instant getCurrentTime() {
+        return this.clock.instant();
     }
 
+    @Override
+    public Instant getStartingTime() {
+        return Instant.ofEpochMilli(this.startingMillis);
+    }
 
 
-    public static void setStartingTimeToNow() {
-        startingTime = Instant.now();
+    @Override
+    public void setStartingTimeToNow() {
+        this.startingMillis = this.clock.millis();
     }
 
 
-    public static void setStartingTime(Instant startingTime) {
+    @Override
+    public void setStartingTime(Instant startingTime) {
         /*
          * We can only go backwards
          * */
-        if (startingTime != null && Timer.startingTime.compareTo(startingTime) >= 0) {
-            Timer.startingTime = startingTime;
+        if (startingTime != null && this.startingMillis >= startingTime.toEpochMilli()) {
+            this.startingMillis = startingTime.toEpochMilli();
         }
     }
 
 
-    public static void rollTimeToSeconds(long seconds) {
+    @Override
+    public void rollTimeToSeconds(long seconds) {
         setStartingTimeToNow();
         // rolls rolls back the time
-        startingTime = startingTime.minusSeconds(seconds);
+        this.startingMillis -= seconds * 1000;
     }
 
 }
@@ -0,0 +1,195 @@
+package stickman.server;
+
+import stickman.headless.InputSource;
+import stickman.headless.SimulationResult;
+import stickman.model.GameEngine;
+import stickman.model.GameRun;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * One game hosted by a SessionManager. A session owns its GameEngine (and so its level, timer and
+ * save slot) and is only ever ticked by one scheduler thread at a time, so sessions never share state.
+ */
+public class GameSession {
+
+    /**
+     * The id of the session within its manager.
+     */
+    private final long id;
+
+    /**
+     * The engine being simulated.
+     */
+    private final GameEngine engine;
+
+    /**
+     * Where the player input comes from.
+     */
+    private final InputSource input;
+
+    /**
+     * The most ticks to simulate before the session ends.
+     */
+    private final long maxTicks;
+
+    /**
+     * The length of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The manager hosting the session, which collects its metrics.
+     */
+    private final SessionManager manager;
+
+    /**
+     * Completed with the summary of the game once the session ends.
+     */
+    private final CompletableFuture<SimulationResult> result;
+
+    /**
+     * The number of ticks simulated so far.
+     */
+    private long ticks;
+
+    /**
+     * When the first tick was due, in nanoseconds.
+     */
+    private final long startNanos;
+
+    /**
+     * Whether the session was asked to stop before the game ends.
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * The scheduled task ticking the session.
+     */
+    private volatile ScheduledFuture<?> future;
+
+    /**
+     * Creates a new GameSession object.
+     * @param id The id of the session
+     * @param engine The engine to simulate
+     * @param input The source of player input
+     * @param maxTicks The most ticks to simulate
+     * @param tickNanos The length of a tick in nanoseconds
+     * @param startNanos When the first tick is due, in nanoseconds
+     * @param manager The manager hosting the session
+     */
+    GameSession(long id, GameEngine engine, InputSource input, long maxTicks, long tickNanos, long startNanos,
+                SessionManager manager) {
+        this.id = id;
+        this.engine = engine;
+        this.input = input;
+        this.maxTicks = maxTicks;
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+        this.manager = manager;
+        this.result = new CompletableFuture<>();
+    }
+
+    /**
+     * Records the task ticking the session, so that it can be cancelled when the session ends.
+     * @param future The scheduled task
+     */
+    void scheduled(ScheduledFuture<?> future) {
+        this.future = future;
+        if (this.result.isDone()) {
+            // Stopped before the task was even recorded
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Runs one tick of the session. Called by the scheduler at a fixed rate.
+     */
+    void tick() {
+        if (this.result.isDone()) {
+            return;
+        }
+        if (this.stopRequested) {
+            finish();
+            return;
+        }
+        try {
+            // How late this tick is compared to when it was due
+            long lag = System.nanoTime() - (this.startNanos + this.ticks * this.tickNanos);
+            this.manager.recordTick(Math.max(0, lag));
+
+            this.input.apply(this.ticks, this.engine);
+            this.engine.tick();
+            this.ticks++;
+
+            if (this.ticks >= this.maxTicks || !(this.engine.getGameState() instanceof GameRun)) {
+                finish();
+            }
+        } catch (RuntimeException e) {
+            // A failing session must not take the scheduler thread down with it
+            e.printStackTrace();
+            this.result.completeExceptionally(e);
+            end();
+        }
+    }
+
+    /**
+     * Stops the session before the game ends. The session ends on its next tick, with the state of
+     * the game so far as its result.
+     */
+    public void stop() {
+        this.stopRequested = true;
+    }
+
+    /**
+     * Completes the session with the current state of the game.
+     */
+    private void finish() {
+        this.result.complete(SimulationResult.of(this.engine, this.ticks, System.nanoTime() - this.startNanos));
+        end();
+    }
+
+    /**
+     * Cancels the ticking of the session and lets the manager know it has ended.
+     */
+    private void end() {
+        ScheduledFuture<?> scheduled = this.future;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        this.manager.sessionEnded(this);
+    }
+
+    /**
+     * Gets the id of the session.
+     * @return The id
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the engine being simulated. It must not be used while the session is running.
+     * @return The engine
+     */
+    public GameEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Gets the summary of the game, available once the session has ended.
+     * @return The future summary of the game
+     */
+    public CompletableFuture<SimulationResult> getResult() {
+        return this.result;
+    }
+
+    /**
+     * Checks whether the session has ended.
+     * @return Whether the session has ended
+     */
+    public boolean isDone() {
+        return this.result.isDone();
+    }
+}
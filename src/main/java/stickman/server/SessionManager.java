@@ -0,0 +1,170 @@
+package stickman.server;
+
+import stickman.headless.InputSource;
+import stickman.model.FixedTimestep;
+import stickman.model.GameEngine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hosts many games in one JVM, each ticked at a fixed rate on a small pool of scheduler threads.
+ * Every session has its own GameEngine, so games do not share any state.
+ * The manager keeps metrics of how many sessions it completes and of how late ticks start.
+ */
+public class SessionManager {
+
+    /**
+     * The threads ticking the sessions.
+     */
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * The length of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The sessions still running, by id.
+     */
+    private final Map<Long, GameSession> sessions;
+
+    /**
+     * The id given to the next session.
+     */
+    private final AtomicLong nextSessionId;
+
+    /**
+     * When the manager was created, in nanoseconds.
+     */
+    private final long startNanos;
+
+    /**
+     * The number of sessions which have ended.
+     */
+    private final LongAdder completedSessions;
+
+    /**
+     * The number of ticks run across all sessions.
+     */
+    private final LongAdder ticks;
+
+    /**
+     * The sum of how late every tick started, in nanoseconds.
+     */
+    private final LongAdder totalTickLagNanos;
+
+    /**
+     * The largest lag of any tick, in nanoseconds.
+     */
+    private final AtomicLong maxTickLagNanos;
+
+    /**
+     * Creates a SessionManager with one thread per processor, ticking at the default tick rate.
+     */
+    public SessionManager() {
+        this(Runtime.getRuntime().availableProcessors(), FixedTimestep.DEFAULT_TICK_RATE);
+    }
+
+    /**
+     * Creates a new SessionManager object.
+     * @param threads The number of threads ticking the sessions
+     * @param tickRate The number of ticks per second of every session
+     */
+    public SessionManager(int threads, double tickRate) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("The tick rate must be positive");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-session-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Ended sessions should not linger in the queue until their next tick was due
+        this.scheduler.setRemoveOnCancelPolicy(true);
+
+        this.tickNanos = Math.round(1_000_000_000L / tickRate);
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextSessionId = new AtomicLong();
+        this.startNanos = System.nanoTime();
+        this.completedSessions = new LongAdder();
+        this.ticks = new LongAdder();
+        this.totalTickLagNanos = new LongAdder();
+        this.maxTickLagNanos = new AtomicLong();
+    }
+
+    /**
+     * Starts ticking a game at the manager's tick rate.
+     * @param engine The engine of the game, which must not be used by anything else while the session runs
+     * @param input The source of player input
+     * @param maxTicks The most ticks to run before the session ends
+     * @return The session
+     */
+    public GameSession start(GameEngine engine, InputSource input, long maxTicks) {
+        long start = System.nanoTime();
+        GameSession session = new GameSession(this.nextSessionId.getAndIncrement(), engine, input, maxTicks,
+                this.tickNanos, start, this);
+        this.sessions.put(session.getId(), session);
+        ScheduledFuture<?> future = this.scheduler.scheduleAtFixedRate(session::tick, 0, this.tickNanos,
+                TimeUnit.NANOSECONDS);
+        session.scheduled(future);
+        return session;
+    }
+
+    /**
+     * Gets a running session.
+     * @param id The id of the session
+     * @return The session, or null if there is no such session running
+     */
+    public GameSession getSession(long id) {
+        return this.sessions.get(id);
+    }
+
+    /**
+     * Gets a snapshot of the manager's metrics.
+     * @return The current metrics
+     */
+    public SessionMetrics getMetrics() {
+        return new SessionMetrics(this.sessions.size(), this.completedSessions.sum(),
+                System.nanoTime() - this.startNanos, this.ticks.sum(), this.totalTickLagNanos.sum(),
+                this.maxTickLagNanos.get());
+    }
+
+    /**
+     * Stops every session and the scheduler threads. Sessions which have not ended never complete.
+     */
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+        this.sessions.clear();
+    }
+
+    /**
+     * Records a tick of a session.
+     * @param lagNanos How late the tick started, in nanoseconds
+     */
+    void recordTick(long lagNanos) {
+        this.ticks.increment();
+        this.totalTickLagNanos.add(lagNanos);
+        this.maxTickLagNanos.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    /**
+     * Records the end of a session.
+     * @param session The session which ended
+     */
+    void sessionEnded(GameSession session) {
+        if (this.sessions.remove(session.getId()) != null) {
+            this.completedSessions.increment();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package stickman.server;
+
+/**
+ * A snapshot of the metrics of a SessionManager.
+ */
+public class SessionMetrics {
+
+    /**
+     * The number of sessions currently running.
+     */
+    private final int activeSessions;
+
+    /**
+     * The number of sessions which have ended.
+     */
+    private final long completedSessions;
+
+    /**
+     * The time the manager has been running, in nanoseconds.
+     */
+    private final long uptimeNanos;
+
+    /**
+     * The number of ticks run across all sessions.
+     */
+    private final long ticks;
+
+    /**
+     * The sum of how late every tick started, in nanoseconds.
+     */
+    private final long totalTickLagNanos;
+
+    /**
+     * The largest lag of any tick, in nanoseconds.
+     */
+    private final long maxTickLagNanos;
+
+    /**
+     * Creates a new SessionMetrics object.
+     * @param activeSessions The number of running sessions
+     * @param completedSessions The number of ended sessions
+     * @param uptimeNanos The time the manager has been running
+     * @param ticks The number of ticks run
+     * @param totalTickLagNanos The sum of the tick lags
+     * @param maxTickLagNanos The largest tick lag
+     */
+    SessionMetrics(int activeSessions, long completedSessions, long uptimeNanos, long ticks, long totalTickLagNanos,
+                   long maxTickLagNanos) {
+        this.activeSessions = activeSessions;
+        this.completedSessions = completedSessions;
+        this.uptimeNanos = uptimeNanos;
+        this.ticks = ticks;
+        this.totalTickLagNanos = totalTickLagNanos;
+        this.maxTickLagNanos = maxTickLagNanos;
+    }
+
+    /**
+     * Gets the number of sessions currently running.
+     * @return The number of active sessions
+     */
+    public int getActiveSessions() {
+        return this.activeSessions;
+    }
+
+    /**
+     * Gets the number of sessions which have ended.
+     * @return The number of completed sessions
+     */
+    public long getCompletedSessions() {
+        return this.completedSessions;
+    }
+
+    /**
+     * Gets the rate at which sessions are completed.
+     * @return The number of sessions completed per second since the manager started
+     */
+    public double getSessionsPerSecond() {
+        if (this.uptimeNanos == 0) {
+            return 0;
+        }
+        return this.completedSessions * 1_000_000_000.0 / this.uptimeNanos;
+    }
+
+    /**
+     * Gets the rate at which ticks are run, across all sessions.
+     * @return The number of ticks per second since the manager started
+     */
+    public double getTicksPerSecond() {
+        if (this.uptimeNanos == 0) {
+            return 0;
+        }
+        return this.ticks * 1_000_000_000.0 / this.uptimeNanos;
+    }
+
+    /**
+     * Gets the number of ticks run across all sessions.
+     * @return The number of ticks
+     */
+    public long getTicks() {
+        return this.ticks;
+    }
+
+    /**
+     * Gets how late ticks started on average. A lag which keeps growing means the pool is overloaded.
+     * @return The mean tick lag in nanoseconds
+     */
+    public double getMeanTickLagNanos() {
+        if (this.ticks == 0) {
+            return 0;
+        }
+        return (double) this.totalTickLagNanos / this.ticks;
+    }
+
+    /**
+     * Gets the largest lag of any tick.
+     * @return The largest tick lag in nanoseconds
+     */
+    public long getMaxTickLagNanos() {
+        return this.maxTickLagNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Active sessions: %d%nCompleted sessions: %d%nSessions/sec: %.1f%nTicks/sec: %.1f%n"
+                        + "Mean tick lag: %.3f ms%nMax tick lag: %.3f ms",
+                this.activeSessions, this.completedSessions, getSessionsPerSecond(), getTicksPerSecond(),
+                getMeanTickLagNanos() / 1_000_000.0, this.maxTickLagNanos / 1_000_000.0);
+    }
+}
@@ -16,6 +16,7 @@ import observer.Observer;
 import observer.Subject;
 import stickman.entity.Entity;
 import stickman.level.Level;
+import stickman.model.FixedTimestep;
 import stickman.model.GameEngine;
 import stickman.model.GameRun;
 import stickman.model.TimeElapse;
@@ -99,6 +100,10 @@ public class GameWindow implements Observer {
     * Timeline for the level
     * */
     private Timeline timeline;
+    /**
+     * Decides how many simulation ticks run for each drawn frame
+     */
+    private FixedTimestep timestep;
     /**
     * Text object to represent the timer
     * */
@@ -126,7 +131,19 @@ public class GameWindow implements Observer {
      * @param height The height of the screen
      */
     public GameWindow(GameEngine model, int width, int height) {
+        this(model, width, height, new FixedTimestep());
+    }
+
+    /**
+     * Creates a new GameWindow object.
+     * @param model The GameEngine of the game
+     * @param width The width of the screen
+     * @param height The height of the screen
+     * @param timestep The fixed timestep deciding how many ticks run per frame
+     */
+    public GameWindow(GameEngine model, int width, int height, FixedTimestep timestep) {
         this.model = model;
+        this.timestep = timestep;
         this.pane = new Pane();
         this.width = width;
         this.height = height;
@@ -247,7 +264,11 @@ public class GameWindow implements Observer {
      * Draws the game (and updates it).
      */
     private void draw() {
-        model.tick();
+        // Run as many ticks as the elapsed time requires, independently of the frame rate
+        int ticks = this.timestep.advance(System.nanoTime());
+        for (int i = 0; i < ticks; i++) {
+            model.tick();
+        }
         // Draw the game status
         drawPointStatus();
 
@@ -48,13 +48,24 @@ class KeyboardInputHandler {
      */
     KeyboardInputHandler(GameEngine model) {
         this.model = model;
+    }
 
-        URL mediaUrl = getClass().getResource("/jump.wav");
-        String jumpURL = mediaUrl.toExternalForm();
-
-        Media sound = new Media(jumpURL);
-        MediaPlayer mediaPlayer = new MediaPlayer(sound);
-        sounds.put("jump", mediaPlayer);
+    /**
+     * Gets the player for a sound, creating it the first time it is needed.
+     * @param name The name of the sound
+     * @return The MediaPlayer of the sound
+     */
+    private MediaPlayer getSound(String name) {
+        MediaPlayer mediaPlayer = sounds.get(name);
+        if (mediaPlayer == null) {
+            URL mediaUrl = getClass().getResource("/" + name + ".wav");
+            String soundURL = mediaUrl.toExternalForm();
+
+            Media sound = new Media(soundURL);
+            mediaPlayer = new MediaPlayer(sound);
+            sounds.put(name, mediaPlayer);
+        }
+        return mediaPlayer;
     }
 
     /**
@@ -69,19 +80,22 @@ class KeyboardInputHandler {
 
         if (keyEvent.getCode().equals(KeyCode.UP)) {
             if (model.jump()) {
-                MediaPlayer jumpPlayer = sounds.get("jump");
+                MediaPlayer jumpPlayer = getSound("jump");
                 jumpPlayer.stop();
                 jumpPlayer.play();
             }
         }
 
         // Test if the user pressed Q
+        // Saving and loading run in the background, so that the frame does not wait for them
         if (keyEvent.getCode().equals(KeyCode.Q)) {
             System.out.println("Loading Game...");
-            this.model.loadMemento();
+            this.model.loadMementoInBackground(() -> System.out.println("Game Loaded"));
         } else if (keyEvent.getCode().equals(KeyCode.S)) {
             System.out.println("Saving Game...");
-            this.model.saveMemento();
+            this.model.saveMementoInBackground(memento -> System.out.println("Game Saved"));
+        } else if (keyEvent.getCode().equals(KeyCode.R)) {
+            this.model.setRewinding(true);
         }
 
 
@@ -115,6 +129,11 @@ class KeyboardInputHandler {
     void handleReleased(KeyEvent keyEvent) {
         pressedKeys.remove(keyEvent.getCode());
 
+        if (keyEvent.getCode().equals(KeyCode.R)) {
+            model.setRewinding(false);
+            return;
+        }
+
         if (keyEvent.getCode().equals(KeyCode.LEFT)) {
             left = false;
         }
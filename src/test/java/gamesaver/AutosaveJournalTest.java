@@ -0,0 +1,120 @@
+package gamesaver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import stickman.model.GameManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that a journal recovers its latest complete state and the inputs after it, whatever a crash left
+ * at its end.
+ */
+public class AutosaveJournalTest {
+
+    /**
+     * The size of an input record: length, type, tick, input and CRC32.
+     */
+    private static final int INPUT_RECORD_SIZE = 4 + 1 + 8 + 1 + 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recoversTheStateAndTheInputsAfterIt() throws IOException {
+        GameManager game = MementoCodecTest.playedGame();
+        GameMemento memento = game.captureMemento();
+        String path = journal(memento);
+
+        AutosaveJournal.Recovery recovery = AutosaveJournal.recover(path, game);
+        assertNotNull(recovery);
+        assertEquals(10, recovery.getStateTick());
+        assertEquals(3, recovery.getInputCount());
+        assertEquals(12, recovery.getInputTick(0));
+        assertEquals(3, recovery.getInputCode(2));
+        assertEquals(19, recovery.getLastTick());
+        assertArrayEquals(encode(memento), encode(recovery.getMemento()));
+    }
+
+    @Test
+    public void tornRecordIsIgnored() throws IOException {
+        GameManager game = MementoCodecTest.playedGame();
+        String path = journal(game.captureMemento());
+        try (RandomAccessFile raw = new RandomAccessFile(path, "rw")) {
+            // A crash in the middle of writing the last input
+            raw.setLength(raw.length() - INPUT_RECORD_SIZE / 2);
+        }
+
+        AutosaveJournal.Recovery recovery = AutosaveJournal.recover(path, game);
+        assertNotNull(recovery);
+        assertEquals(2, recovery.getInputCount());
+        assertEquals(15, recovery.getLastTick());
+    }
+
+    @Test
+    public void damagedRecordIgnoresEverythingAfterIt() throws IOException {
+        GameManager game = MementoCodecTest.playedGame();
+        String path = journal(game.captureMemento());
+        try (RandomAccessFile raw = new RandomAccessFile(path, "rw")) {
+            // Flips the input of the second to last record, so that its CRC32 no longer matches
+            long input = raw.length() - 2 * INPUT_RECORD_SIZE + 4 + 1 + 8;
+            raw.seek(input);
+            int value = raw.read();
+            raw.seek(input);
+            raw.write(value ^ 0xFF);
+        }
+
+        AutosaveJournal.Recovery recovery = AutosaveJournal.recover(path, game);
+        assertNotNull(recovery);
+        assertEquals(1, recovery.getInputCount());
+        assertEquals(12, recovery.getLastTick());
+    }
+
+    @Test
+    public void tornStateIsNotRecovered() throws IOException {
+        GameManager game = MementoCodecTest.playedGame();
+        String path = new File(this.folder.getRoot(), "journal").getPath();
+        AutosaveJournal journal = new AutosaveJournal(path, 0);
+        journal.appendState(10, game.captureMemento());
+        journal.close();
+        try (RandomAccessFile raw = new RandomAccessFile(path, "rw")) {
+            raw.setLength(raw.length() - 1);
+        }
+
+        assertNull(AutosaveJournal.recover(path, game));
+    }
+
+    /**
+     * Writes a journal of a state at tick 10 and inputs 1, 2 and 3 at ticks 12, 15 and 19.
+     * @param memento The state
+     * @return The path of the journal
+     */
+    private String journal(GameMemento memento) {
+        String path = new File(this.folder.getRoot(), "journal").getPath();
+        AutosaveJournal journal = new AutosaveJournal(path, 0);
+        journal.appendInput(5, (byte) 9);
+        journal.appendState(10, memento);
+        journal.appendInput(12, (byte) 1);
+        journal.appendInput(15, (byte) 2);
+        journal.appendInput(19, (byte) 3);
+        journal.close();
+        return path;
+    }
+
+    /**
+     * Encodes a memento.
+     * @param memento The memento
+     * @return The encoded memento
+     */
+    private static byte[] encode(GameMemento memento) {
+        return MementoCodecTest.toBytes(MementoCodec.encode(memento));
+    }
+}
@@ -0,0 +1,101 @@
+package gamesaver;
+
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.level.Level;
+import stickman.model.GameManager;
+import stickman.model.TickClock;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that a memento decodes back to the game it was encoded from.
+ */
+public class MementoCodecTest {
+
+    /**
+     * The levels config of the test level.
+     */
+    static final String LEVELS = "src/test/resources/levels/levels.json";
+
+    @Test
+    public void decodedMementoMatchesTheEncodedOne() {
+        GameManager game = playedGame();
+        GameMemento memento = game.saveMemento();
+
+        GameMemento decoded = MementoCodec.decode(MementoCodec.encode(memento), game);
+
+        assertEquals(memento.getTimerSeconds(), decoded.getTimerSeconds());
+        assertEquals(memento.getLives(), decoded.getLives());
+        assertEquals(memento.getCurrentPoint(), decoded.getCurrentPoint());
+        assertEquals(memento.getTotalPoint(), decoded.getTotalPoint());
+        assertEquals(memento.getLevelIndex(), decoded.getLevelIndex());
+        assertEquals(memento.getGameState().getClass(), decoded.getGameState().getClass());
+        assertEquals(describe(memento.getLevel()), describe(decoded.getLevel()));
+    }
+
+    @Test
+    public void reencodingGivesTheSameBytes() {
+        GameManager game = playedGame();
+        byte[] encoded = toBytes(MementoCodec.encode(game.saveMemento()));
+
+        GameMemento decoded = MementoCodec.decode(ByteBuffer.wrap(encoded), game);
+        assertArrayEquals(encoded, toBytes(MementoCodec.encode(decoded)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherVersionIsRejected() {
+        ByteBuffer encoded = MementoCodec.encode(playedGame().saveMemento());
+        encoded.putInt(0, MementoCodec.VERSION + 1);
+        MementoCodec.decode(encoded, null);
+    }
+
+    /**
+     * Plays a game for a while, moving and shooting, so that its level has moved and fired entities.
+     * @return The game
+     */
+    static GameManager playedGame() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        game.moveRight();
+        for (int i = 0; i < 300; i++) {
+            if (i % 40 == 0) {
+                game.jump();
+            }
+            if (i % 25 == 0) {
+                game.shoot();
+            }
+            game.tick();
+        }
+        return game;
+    }
+
+    /**
+     * Describes the entities of a level, in order, by their type, position, size and whether they are active.
+     * @param level The level
+     * @return The description of every entity
+     */
+    static List<String> describe(Level level) {
+        List<String> entities = new ArrayList<>();
+        for (Entity entity : level.getEntities()) {
+            entities.add(entity.getClass().getSimpleName() + " " + entity.getXPos() + "," + entity.getYPos()
+                    + " " + entity.getWidth() + "x" + entity.getHeight() + " " + entity.isActive());
+        }
+        return entities;
+    }
+
+    /**
+     * Gets the bytes left in a buffer.
+     * @param buffer The buffer
+     * @return The bytes
+     */
+    static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,102 @@
+package gamesaver;
+
+import org.junit.Test;
+import stickman.level.Level;
+import stickman.level.LevelBuilderImpl;
+import stickman.model.GameRun;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that rewinding gives back the recorded states, whether the level is restored in place from the
+ * deltas or decoded from a keyframe.
+ */
+public class RewindBufferTest {
+
+    /**
+     * The test level.
+     */
+    private static final String LEVEL = "src/test/resources/levels/vertical.json";
+
+    /**
+     * The number of ticks recorded.
+     */
+    private static final int TICKS = 40;
+
+    @Test
+    public void rewindInPlaceRestoresEveryTick() {
+        Level level = LevelBuilderImpl.generateFromFile(LEVEL, null);
+        // No keyframe other than the first, so every step back undoes the deltas in place
+        RewindBuffer buffer = new RewindBuffer(100, 1024 * 1024, 1000);
+        List<List<String>> states = play(level, buffer);
+
+        for (int tick = TICKS - 2; tick >= 0; tick--) {
+            assertSame(level, buffer.rewind(level, null));
+            assertEquals(states.get(tick), MementoCodecTest.describe(level));
+        }
+        assertNull(buffer.rewind(level, null));
+    }
+
+    @Test
+    public void rewindFromKeyframeMatchesRewindInPlace() {
+        Level inPlace = LevelBuilderImpl.generateFromFile(LEVEL, null);
+        Level fromKeyframes = LevelBuilderImpl.generateFromFile(LEVEL, null);
+        RewindBuffer deltas = new RewindBuffer(100, 1024 * 1024, 1000);
+        RewindBuffer keyframes = new RewindBuffer(100, 1024 * 1024, 7);
+        List<List<String>> states = play(inPlace, deltas);
+        assertEquals(states, play(fromKeyframes, keyframes));
+
+        for (int tick = TICKS - 2; tick >= 0; tick--) {
+            inPlace = deltas.rewind(inPlace, null);
+            Level rewound = keyframes.rewind(fromKeyframes, null);
+            if ((tick + 1) % 7 == 0) {
+                // Stepping back from a keyframe decodes the keyframe before it, so the level is a new one
+                assertNotSame(fromKeyframes, rewound);
+            }
+            fromKeyframes = rewound;
+            // A decoded level orders its entities differently, but holds the same ones
+            assertEquals(sorted(states.get(tick)), sorted(MementoCodecTest.describe(fromKeyframes)));
+            assertEquals(sorted(MementoCodecTest.describe(inPlace)),
+                    sorted(MementoCodecTest.describe(fromKeyframes)));
+            assertEquals(deltas.getTimerSeconds(), keyframes.getTimerSeconds());
+        }
+    }
+
+    /**
+     * Ticks a level, moving the hero around, and records every tick.
+     * @param level The level
+     * @param buffer The buffer to record the ticks in
+     * @return The entities of the level after each tick
+     */
+    private static List<List<String>> play(Level level, RewindBuffer buffer) {
+        List<List<String>> states = new ArrayList<>();
+        level.moveRight();
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % 15 == 0) {
+                level.jump();
+            }
+            level.tick();
+            buffer.record(level, new GameRun(), tick, 3, 0, 0, 0);
+            states.add(MementoCodecTest.describe(level));
+        }
+        return states;
+    }
+
+    /**
+     * Sorts a description of the entities of a level.
+     * @param entities The description
+     * @return The sorted description
+     */
+    private static List<String> sorted(List<String> entities) {
+        List<String> sorted = new ArrayList<>(entities);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,96 @@
+package gamesaver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import stickman.level.LevelGenerator;
+import stickman.model.GameManager;
+import stickman.model.GameRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that games saved to a SaveFile load back as they were saved.
+ */
+public class SaveFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savesSurviveReopeningTheFile() throws IOException {
+        File file = this.folder.newFile();
+        GameManager game = MementoCodecTest.playedGame();
+        GameMemento memento = game.saveMemento();
+
+        try (SaveFile saveFile = new SaveFile(file.getPath())) {
+            assertFalse(saveFile.isOccupied(1));
+            saveFile.save(1, memento);
+        }
+        try (SaveFile saveFile = new SaveFile(file.getPath())) {
+            assertTrue(saveFile.isOccupied(1));
+            assertFalse(saveFile.isOccupied(0));
+            assertArrayEquals(encode(memento), encode(saveFile.load(1, game)));
+        }
+    }
+
+    @Test
+    public void largeGameGrowsTheSlotsAndKeepsTheOtherSaves() throws IOException {
+        File file = this.folder.newFile();
+        GameManager game = MementoCodecTest.playedGame();
+        GameMemento small = game.saveMemento();
+        GameMemento large = new GameMementoImpl(LevelGenerator.ofSize(5000, 1).generate("generated", null),
+                new GameRun(), 10, 3, 0, 0, 0);
+        int smallSize = encode(small).length;
+        int largeSize = encode(large).length;
+
+        try (SaveFile saveFile = new SaveFile(file.getPath(), 3, smallSize)) {
+            saveFile.save(1, small);
+            saveFile.save(2, small);
+            saveFile.save(0, large);
+            assertTrue(saveFile.getSlotSize() >= largeSize);
+        }
+        try (SaveFile saveFile = new SaveFile(file.getPath())) {
+            assertEquals(3, saveFile.getSlotCount());
+            assertTrue(saveFile.getSlotSize() >= largeSize);
+            assertArrayEquals(encode(large), encode(saveFile.load(0, game)));
+            assertArrayEquals(encode(small), encode(saveFile.load(1, game)));
+            assertArrayEquals(encode(small), encode(saveFile.load(2, game)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void damagedSaveIsRejected() throws IOException {
+        File file = this.folder.newFile();
+        GameManager game = MementoCodecTest.playedGame();
+        try (SaveFile saveFile = new SaveFile(file.getPath(), 1, 1024 * 1024)) {
+            saveFile.save(0, game.saveMemento());
+        }
+        // Flips a byte in the middle of the save, past the header and the index
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(16 + 24 + 100);
+            int value = raw.read();
+            raw.seek(16 + 24 + 100);
+            raw.write(value ^ 0xFF);
+        }
+        try (SaveFile saveFile = new SaveFile(file.getPath())) {
+            saveFile.load(0, game);
+        }
+    }
+
+    /**
+     * Encodes a memento.
+     * @param memento The memento
+     * @return The encoded memento
+     */
+    private static byte[] encode(GameMemento memento) {
+        return MementoCodecTest.toBytes(MementoCodec.encode(memento));
+    }
+}
@@ -0,0 +1,71 @@
+package stickman.level;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that compiled levels load back as the same levels as their JSON files.
+ */
+public class BinaryLevelLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shippedLevelsMatchLevelBuilderImpl() throws IOException {
+        for (String file : StreamingLevelLoaderTest.LEVELS) {
+            assertCompiledMatches(file);
+        }
+    }
+
+    @Test
+    public void generatedLevelMatchesLevelBuilderImpl() throws IOException {
+        assertCompiledMatches(StreamingLevelLoaderTest.generatedLevel(this.folder));
+    }
+
+    @Test
+    public void compiledFileIsFoundNextToItsJson() throws IOException {
+        File json = this.folder.newFile("level.json");
+        assertEquals(json.getPath(), BinaryLevelLoader.findCompiled(json.getPath()));
+
+        String compiled = json.getPath().replace(".json", BinaryLevelLoader.EXTENSION);
+        LevelCompiler.compile("levels/default.json", compiled);
+        assertTrue(json.setLastModified(new File(compiled).lastModified() - 1000));
+        assertEquals(compiled, BinaryLevelLoader.findCompiled(json.getPath()));
+        assertTrue(BinaryLevelLoader.isCompiled(compiled));
+        assertFalse(BinaryLevelLoader.isCompiled(json.getPath()));
+    }
+
+    @Test
+    public void truncatedFileIsNotALevel() throws IOException {
+        String compiled = new File(this.folder.getRoot(), "default" + BinaryLevelLoader.EXTENSION).getPath();
+        LevelCompiler.compile("levels/default.json", compiled);
+        try (RandomAccessFile raw = new RandomAccessFile(compiled, "rw")) {
+            raw.setLength(raw.length() / 2);
+        }
+        assertNull(BinaryLevelLoader.generateFromFile(compiled, null));
+    }
+
+    /**
+     * Compiles a level and checks that the compiled level loads as LevelBuilderImpl builds the JSON file.
+     * @param file The JSON file of the level
+     * @throws IOException If the level cannot be compiled
+     */
+    private void assertCompiledMatches(String file) throws IOException {
+        String compiled = new File(this.folder.getRoot(), new File(file).getName() + BinaryLevelLoader.EXTENSION)
+                .getPath();
+        LevelCompiler.compile(file, compiled);
+        StreamingLevelLoaderTest.assertSameLevel(file, LevelBuilderImpl.generateFromFile(file, null),
+                BinaryLevelLoader.generateFromFile(compiled, null));
+    }
+}
@@ -0,0 +1,47 @@
+package stickman.level;
+
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.entity.still.Platform;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that an EntityList counts the changes to which entities it holds, and only those.
+ */
+public class EntityListTest {
+
+    @Test
+    public void addingAndRemovingChangesTheModCount() {
+        Entity first = new Platform(0, 0);
+        Entity second = new Platform(20, 0);
+        EntityList entities = new EntityList(Arrays.asList(first));
+
+        int before = entities.getModCount();
+        entities.add(second);
+        assertNotEquals(before, entities.getModCount());
+
+        before = entities.getModCount();
+        assertTrue(entities.remove(first));
+        assertNotEquals(before, entities.getModCount());
+        assertEquals(Arrays.asList(second), entities);
+    }
+
+    @Test
+    public void replacingAnEntityKeepsTheModCount() {
+        Entity first = new Platform(0, 0);
+        Entity second = new Platform(20, 0);
+        EntityList entities = new EntityList(Arrays.asList(first));
+
+        int before = entities.getModCount();
+        entities.set(0, second);
+        assertEquals(before, entities.getModCount());
+        assertFalse(entities.remove(first));
+        assertEquals(before, entities.getModCount());
+    }
+}
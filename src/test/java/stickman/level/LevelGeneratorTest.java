@@ -0,0 +1,62 @@
+package stickman.level;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import stickman.entity.Entity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks that generated levels only depend on their seed, and read back the same from their JSON file.
+ */
+public class LevelGeneratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sameSeedGivesTheSameLevel() {
+        assertEquals(describe(LevelGenerator.ofSize(2000, 3).generate("a", null)),
+                describe(LevelGenerator.ofSize(2000, 3).generate("b", null)));
+        assertNotEquals(describe(LevelGenerator.ofSize(2000, 3).generate("a", null)),
+                describe(LevelGenerator.ofSize(2000, 4).generate("a", null)));
+    }
+
+    @Test
+    public void jsonReadsBackAsTheGeneratedLevel() throws IOException {
+        LevelGenerator generator = LevelGenerator.ofSize(2000, 3);
+        String file = new File(this.folder.getRoot(), "generated.json").getPath();
+        generator.writeJson(file);
+
+        Level generated = generator.generate(file, null);
+        Level read = LevelBuilderImpl.generateFromFile(file, null);
+        assertNotNull(read);
+        assertEquals(generated.getWidth(), read.getWidth(), 0);
+        assertEquals(generated.getHeight(), read.getHeight(), 0);
+        assertEquals(generated.getFloorHeight(), read.getFloorHeight(), 0);
+        assertEquals(generated.getHeroX(), read.getHeroX(), 0);
+        assertEquals(describe(generated), describe(read));
+    }
+
+    /**
+     * Describes the entities of a level, in order, by their type, position and size.
+     * @param level The level
+     * @return The description of every entity
+     */
+    private static List<String> describe(Level level) {
+        List<String> entities = new ArrayList<>();
+        for (Entity entity : level.getEntities()) {
+            entities.add(entity.getClass().getSimpleName() + " " + entity.getXPos() + "," + entity.getYPos()
+                    + " " + entity.getWidth() + "x" + entity.getHeight());
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,81 @@
+package stickman.level;
+
+import org.junit.Before;
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.entity.moving.enemy.Slime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that levels started from a template are independent of the template and of each other.
+ */
+public class LevelTemplatesTest {
+
+    /**
+     * A level with slimes to kill.
+     */
+    private static final String LEVEL = "src/test/resources/levels/default.json";
+
+    @Before
+    public void clearTemplates() {
+        LevelTemplates.clear();
+    }
+
+    @Test
+    public void freshInstanceStartsAtZeroPoints() {
+        LevelManager played = (LevelManager) LevelTemplates.instantiate(LEVEL, null);
+        Slime slime = killSlime(played);
+        played.tick();
+        assertEquals(slime.getPointValue(), played.getCurrentPoint());
+
+        LevelManager fresh = (LevelManager) LevelTemplates.instantiate(LEVEL, null);
+        fresh.tick();
+        assertEquals(0, fresh.getCurrentPoint());
+    }
+
+    @Test
+    public void freshInstanceKeepsEntitiesKilledElsewhere() {
+        LevelManager played = (LevelManager) LevelTemplates.instantiate(LEVEL, null);
+        int slimes = countActiveSlimes(played);
+        killSlime(played);
+        played.tick();
+
+        LevelManager fresh = (LevelManager) LevelTemplates.instantiate(LEVEL, null);
+        assertEquals(slimes, countActiveSlimes(fresh));
+    }
+
+    /**
+     * Kills the first live slime of a level.
+     * @param level The level
+     * @return The slime killed
+     */
+    private static Slime killSlime(Level level) {
+        for (Entity entity : level.getEntities()) {
+            if (entity instanceof Slime && entity.isActive()) {
+                ((Slime) entity).die();
+                return (Slime) entity;
+            }
+        }
+        throw new AssertionError("The level has no live slime");
+    }
+
+    /**
+     * Counts the live slimes of a level.
+     * @param level The level
+     * @return The number of live slimes
+     */
+    private static int countActiveSlimes(Level level) {
+        assertNotNull(level);
+        int count = 0;
+        for (Entity entity : level.getEntities()) {
+            if (entity instanceof Slime && entity.isActive()) {
+                count++;
+            }
+        }
+        assertTrue(count > 0);
+        return count;
+    }
+}
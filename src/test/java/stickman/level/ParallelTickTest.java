@@ -0,0 +1,96 @@
+package stickman.level;
+
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.entity.moving.enemy.Slime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that ticking the slimes of a level in parallel gives exactly the same level as ticking them in order.
+ */
+public class ParallelTickTest {
+
+    @Test
+    public void parallelTickMatchesTickingInOrder() {
+        LevelManager inOrder = (LevelManager) LevelGenerator.ofSize(2000, 7).generate("parallel", null);
+        LevelManager parallel = (LevelManager) LevelGenerator.ofSize(2000, 7).generate("parallel", null);
+        parallel.setParallelTick(true);
+        assertTrue("the level should have enough slimes to be ticked in parallel", countSlimes(parallel) >= 256);
+
+        inOrder.moveRight();
+        parallel.moveRight();
+        for (int tick = 0; tick < 300; tick++) {
+            inOrder.tick();
+            parallel.tick();
+            assertEquals("tick " + tick, describe(inOrder), describe(parallel));
+        }
+    }
+
+    @Test
+    public void preparingATickChangesNothingUntilItIsApplied() {
+        Level level = LevelGenerator.ofSize(200, 7).generate("parallel", null);
+        Slime slime = null;
+        for (Entity entity : level.getEntities()) {
+            if (entity instanceof Slime) {
+                slime = (Slime) entity;
+                break;
+            }
+        }
+        assertTrue(slime != null);
+        Slime ticked = slime.copy();
+        ticked.tick(level.getEntities(), level.getHeroX(), level.getFloorHeight());
+
+        String before = describe(slime);
+        slime.prepareTick(level.getEntities(), level.getHeroX(), level.getFloorHeight());
+        assertEquals(before, describe(slime));
+        slime.applyTick();
+        assertEquals(describe(ticked), describe(slime));
+    }
+
+    /**
+     * Counts the slimes of a level.
+     * @param level The level
+     * @return The number of slimes
+     */
+    private static int countSlimes(Level level) {
+        int count = 0;
+        for (Entity entity : level.getEntities()) {
+            if (entity instanceof Slime) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Describes the entities of a level, in order.
+     * @param level The level
+     * @return The description of every entity
+     */
+    private static List<String> describe(Level level) {
+        List<String> entities = new ArrayList<>();
+        for (Entity entity : level.getEntities()) {
+            entities.add(describe(entity));
+        }
+        return entities;
+    }
+
+    /**
+     * Describes an entity by its type, position and whether it is alive, along with the direction of a slime.
+     * @param entity The entity
+     * @return The description
+     */
+    private static String describe(Entity entity) {
+        String description = entity.getClass().getSimpleName() + " " + entity.getXPos() + "," + entity.getYPos()
+                + " " + entity.isActive();
+        if (entity instanceof Slime) {
+            description += " " + ((Slime) entity).isMovingLeft();
+        }
+        return description;
+    }
+}
@@ -0,0 +1,268 @@
+package stickman.level;
+
+import org.junit.Before;
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.entity.GameObject;
+import stickman.entity.still.Platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that merging the platforms of a level into spans changes nothing about what the grid finds: a grid
+ * built with spans, one built with every platform on its own and a scan of every solid entity all agree.
+ */
+public class SpatialGridTest {
+
+    /**
+     * The solid entities of the level.
+     */
+    private List<Entity> solids;
+
+    /**
+     * The grid built the way every level builds it, with its platforms merged into spans.
+     */
+    private SpatialGrid merged;
+
+    /**
+     * The grid of the same level with every platform inserted on its own.
+     */
+    private SpatialGrid unmerged;
+
+    /**
+     * The width of the level.
+     */
+    private double width;
+
+    /**
+     * The height of the level.
+     */
+    private double height;
+
+    @Before
+    public void buildGrids() {
+        Level level = LevelGenerator.ofSize(300, 5).generate("grid", null);
+        this.width = level.getWidth();
+        this.height = level.getHeight();
+
+        this.solids = new ArrayList<>();
+        List<Entity> others = new ArrayList<>();
+        for (Entity entity : level.getEntities()) {
+            if (entity.isSolid()) {
+                this.solids.add(entity);
+                if (!(entity instanceof Platform)) {
+                    others.add(entity);
+                }
+            }
+        }
+
+        this.merged = new SpatialGrid(this.solids, this.width, this.height);
+        // Platforms inserted one by one are never merged
+        this.unmerged = new SpatialGrid(others, this.width, this.height);
+        for (Entity entity : this.solids) {
+            if (entity instanceof Platform) {
+                this.unmerged.insert(entity);
+            }
+        }
+    }
+
+    @Test
+    public void spansFindTheSameAsSinglePlatforms() {
+        assertNotNull("the level should have a span of at least three platforms", longestSpan());
+        assertSameResults();
+    }
+
+    @Test
+    public void removingAPlatformFromTheMiddleOfASpanSplitsIt() {
+        PlatformSpan span = longestSpan();
+        assertNotNull(span);
+        List<Platform> blocks = new ArrayList<>(span.getBlocks());
+        Platform middle = blocks.get(blocks.size() / 2);
+
+        this.merged.remove(middle);
+        this.unmerged.remove(middle);
+        this.solids.remove(middle);
+        assertSameResults();
+
+        // The rest of the span is still in the grid, and the platform is gone
+        Set<Entity> found = overlapping(this.merged, box(span.getXPos(), span.getYPos(), span.getWidth(), 1));
+        assertTrue(found.containsAll(blocks.subList(0, blocks.size() / 2)));
+        assertTrue(found.containsAll(blocks.subList(blocks.size() / 2 + 1, blocks.size())));
+        assertTrue(!found.contains(middle));
+
+        // Removing the ends of what is left works the same way
+        this.merged.remove(blocks.get(0));
+        this.unmerged.remove(blocks.get(0));
+        this.solids.remove(blocks.get(0));
+        this.merged.remove(blocks.get(blocks.size() - 1));
+        this.unmerged.remove(blocks.get(blocks.size() - 1));
+        this.solids.remove(blocks.get(blocks.size() - 1));
+        assertSameResults();
+    }
+
+    @Test
+    public void copiesChangeOnTheirOwn() {
+        PlatformSpan span = longestSpan();
+        assertNotNull(span);
+        Platform middle = span.getBlocks().get(span.getBlocks().size() / 2);
+
+        SpatialGrid copy = new SpatialGrid(this.merged);
+        copy.remove(middle);
+        assertTrue(overlapping(this.merged, middle).contains(middle));
+        assertTrue(!overlapping(copy, middle).contains(middle));
+        assertSameResults();
+    }
+
+    /**
+     * Casts rays from and queries boxes all over the level, and checks that both grids give the same
+     * answers as a scan of every solid entity.
+     */
+    private void assertSameResults() {
+        double[][] sizes = {{20, 20}, {12, 30}, {45, 7}};
+        for (double[] size : sizes) {
+            for (double x = -30; x < this.width + 30; x += 17) {
+                for (double y = -30; y < this.height + 30; y += 13) {
+                    Entity probe = box(x, y, size[0], size[1]);
+                    String where = size[0] + "x" + size[1] + " at " + x + "," + y;
+                    for (double bound : new double[] {Double.MAX_VALUE, 40}) {
+                        for (boolean back : new boolean[] {true, false}) {
+                            double horizontal = scanHorizontally(probe, back, bound);
+                            assertEquals(where, horizontal, this.merged.horizontalRaycast(probe, back, bound), 0);
+                            assertEquals(where, horizontal, this.unmerged.horizontalRaycast(probe, back, bound), 0);
+                            double vertical = scanVertically(probe, back, bound);
+                            assertEquals(where, vertical, this.merged.verticalRaycast(probe, back, bound), 0);
+                            assertEquals(where, vertical, this.unmerged.verticalRaycast(probe, back, bound), 0);
+                        }
+                    }
+                    Set<Entity> expected = newSet();
+                    for (Entity solid : this.solids) {
+                        if (probe.checkCollide(solid)) {
+                            expected.add(solid);
+                        }
+                    }
+                    assertEquals(where, expected, overlapping(this.merged, probe));
+                    assertEquals(where, expected, overlapping(this.unmerged, probe));
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the span of the merged grid with the most platforms.
+     * @return The longest span, or null if it has fewer than three platforms
+     */
+    private PlatformSpan longestSpan() {
+        List<Entity> candidates = new ArrayList<>();
+        this.merged.query(box(-1000, -1000, this.width + 2000, this.height + 2000), candidates);
+        PlatformSpan longest = null;
+        for (Entity candidate : candidates) {
+            if (candidate instanceof PlatformSpan && (longest == null
+                    || ((PlatformSpan) candidate).getBlocks().size() > longest.getBlocks().size())) {
+                longest = (PlatformSpan) candidate;
+            }
+        }
+        return longest == null || longest.getBlocks().size() < 3 ? null : longest;
+    }
+
+    /**
+     * Collects the solid entities of a grid which overlap a box, with every span taken apart into its platforms.
+     * @param grid The grid
+     * @param probe The box
+     * @return The entities overlapping the box
+     */
+    private static Set<Entity> overlapping(SpatialGrid grid, Entity probe) {
+        List<Entity> candidates = new ArrayList<>();
+        grid.query(probe, candidates);
+        Set<Entity> found = newSet();
+        for (Entity candidate : candidates) {
+            List<? extends Entity> parts = candidate instanceof PlatformSpan
+                    ? ((PlatformSpan) candidate).getBlocks() : Collections.singletonList(candidate);
+            for (Entity part : parts) {
+                if (probe.checkCollide(part)) {
+                    found.add(part);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the distance to the nearest solid entity sharing y-coordinates with the probe, by scanning them all.
+     * @param probe The entity casting the ray
+     * @param left Whether the ray goes to the left
+     * @param res The distance to return if nothing is closer
+     * @return The distance to the nearest solid entity in the ray's path
+     */
+    private double scanHorizontally(Entity probe, boolean left, double res) {
+        for (Entity entity : this.solids) {
+            if (probe.getYPos() < entity.getYPos() + entity.getHeight()
+                    && probe.getYPos() + probe.getHeight() > entity.getYPos()) {
+                double distance = left ? probe.getXPos() - (entity.getXPos() + entity.getWidth())
+                        : entity.getXPos() - (probe.getXPos() + probe.getWidth());
+                if (distance >= 0) {
+                    res = Math.min(res, distance);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Returns the distance to the nearest solid entity sharing x-coordinates with the probe, by scanning them all.
+     * @param probe The entity casting the ray
+     * @param up Whether the ray goes upwards
+     * @param res The distance to return if nothing is closer
+     * @return The distance to the nearest solid entity in the ray's path
+     */
+    private double scanVertically(Entity probe, boolean up, double res) {
+        for (Entity entity : this.solids) {
+            if (probe.getXPos() < entity.getXPos() + entity.getWidth()
+                    && probe.getXPos() + probe.getWidth() > entity.getXPos()) {
+                double distance = up ? probe.getYPos() - (entity.getYPos() + entity.getHeight())
+                        : entity.getYPos() - (probe.getYPos() + probe.getHeight());
+                if (distance >= 0) {
+                    res = Math.min(res, distance);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Creates a set of entities compared by identity.
+     * @return The empty set
+     */
+    private static Set<Entity> newSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Creates a box which is not part of the level, to cast rays from and query with.
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param width The width
+     * @param height The height
+     * @return The box
+     */
+    private static Entity box(double x, double y, double width, double height) {
+        return new GameObject(null, x, y, height, width, Entity.Layer.FOREGROUND) {
+            @Override
+            public boolean isSolid() {
+                return false;
+            }
+
+            @Override
+            public Entity copy() {
+                return this;
+            }
+        };
+    }
+}
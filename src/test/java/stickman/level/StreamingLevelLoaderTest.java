@@ -0,0 +1,104 @@
+package stickman.level;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import stickman.entity.Entity;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that the streaming loader builds the same levels as LevelBuilderImpl.
+ */
+public class StreamingLevelLoaderTest {
+
+    /**
+     * The level files shipped with the game and the tests.
+     */
+    static final List<String> LEVELS = Arrays.asList("levels/default.json", "levels/empty.json",
+            "levels/level2.json", "levels/level3.json", "levels/vertical.json",
+            "src/test/resources/levels/default.json", "src/test/resources/levels/empty.json",
+            "src/test/resources/levels/vertical.json");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shippedLevelsMatchLevelBuilderImpl() {
+        for (String file : LEVELS) {
+            assertSameLevel(file, LevelBuilderImpl.generateFromFile(file, null),
+                    StreamingLevelLoader.generateFromFile(file, null));
+        }
+    }
+
+    @Test
+    public void generatedLevelMatchesLevelBuilderImpl() throws IOException {
+        String file = generatedLevel(this.folder);
+        assertSameLevel(file, LevelBuilderImpl.generateFromFile(file, null),
+                StreamingLevelLoader.generateFromFile(file, null));
+    }
+
+    @Test
+    public void truncatedFileIsNotALevel() throws IOException {
+        File file = this.folder.newFile("truncated.json");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("{\"stickmanSize\": \"normal\", \"platforms\": [{\"x\": 120.0,");
+        }
+        assertNull(StreamingLevelLoader.generateFromFile(file.getPath(), null));
+    }
+
+    /**
+     * Writes a generated level of a few thousand entities as JSON.
+     * @param folder Where to write the level
+     * @return The path of the level
+     * @throws IOException If the level cannot be written
+     */
+    static String generatedLevel(TemporaryFolder folder) throws IOException {
+        String file = new File(folder.getRoot(), "generated.json").getPath();
+        LevelGenerator.ofSize(3000, 5).writeJson(file);
+        return file;
+    }
+
+    /**
+     * Checks that two levels built from the same file are the same.
+     * @param file The file the levels were built from
+     * @param expected The level built by LevelBuilderImpl
+     * @param actual The level built by another loader
+     */
+    static void assertSameLevel(String file, Level expected, Level actual) {
+        assertNotNull(file, expected);
+        assertNotNull(file, actual);
+        assertEquals(file, expected.getWidth(), actual.getWidth(), 0);
+        assertEquals(file, expected.getHeight(), actual.getHeight(), 0);
+        assertEquals(file, expected.getFloorHeight(), actual.getFloorHeight(), 0);
+        assertEquals(file, expected.getTargetPoint(), actual.getTargetPoint());
+        assertEquals(file, expected.getHeroX(), actual.getHeroX(), 0);
+        assertEquals(file, expected.getHeroY(), actual.getHeroY(), 0);
+        assertEquals(file, describe(expected), describe(actual));
+    }
+
+    /**
+     * Describes the entities of a level, in order, by their type, position, size and image.
+     * @param level The level
+     * @return The description of every entity
+     */
+    private static List<String> describe(Level level) {
+        List<String> entities = new ArrayList<>();
+        for (Entity entity : level.getEntities()) {
+            entities.add(entity.getClass().getSimpleName() + " " + entity.getXPos() + "," + entity.getYPos()
+                    + " " + entity.getWidth() + "x" + entity.getHeight() + " " + entity.getImagePath()
+                    + " " + entity.isActive());
+        }
+        return entities;
+    }
+}
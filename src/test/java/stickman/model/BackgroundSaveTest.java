@@ -0,0 +1,130 @@
+package stickman.model;
+
+import gamesaver.GameMemento;
+import gamesaver.GameMementoCaretaker;
+import org.junit.Test;
+import stickman.entity.Entity;
+import stickman.entity.moving.enemy.Slime;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a game saved and loaded in the background comes back as it was saved, however the game was
+ * played in between.
+ */
+public class BackgroundSaveTest {
+
+    /**
+     * The levels config of the test level.
+     */
+    private static final String LEVELS = "src/test/resources/levels/levels.json";
+
+    @Test
+    public void loadUndoesKillsAfterTheSave() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        game.tick();
+        int slimes = countActiveSlimes(game);
+        game.saveMementoInBackground(null);
+        game.awaitBackgroundSaves();
+
+        killSlime(game);
+        game.tick();
+        assertEquals(100, game.getCurrentLevelPoint());
+
+        boolean[] loaded = new boolean[1];
+        game.loadMementoInBackground(() -> loaded[0] = true);
+        game.awaitBackgroundSaves();
+        game.tick();
+        assertTrue(loaded[0]);
+        assertEquals(0, game.getCurrentLevelPoint());
+        assertEquals(slimes, countActiveSlimes(game));
+
+        // The game observes the loaded level and hero, as it did the ones it saved
+        assertTrue(game.getCurrentLevel().getStickman().getObservers().contains(game.getCurrentLevel()));
+        assertTrue(game.getCurrentLevel().getStickman().getObservers().contains(game));
+    }
+
+    @Test
+    public void loadingTwiceGivesTheSameGame() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        game.tick();
+        game.saveMementoInBackground(null);
+        game.awaitBackgroundSaves();
+
+        game.loadMementoInBackground(null);
+        game.awaitBackgroundSaves();
+        game.tick();
+        killSlime(game);
+        game.tick();
+
+        game.loadMementoInBackground(null);
+        game.awaitBackgroundSaves();
+        game.tick();
+        assertEquals(0, game.getCurrentLevelPoint());
+    }
+
+    @Test(timeout = 10000)
+    public void aStuckSaveOnlyHoldsUpItsOwnGame() throws InterruptedException {
+        GameManager stuck = new GameManager(LEVELS, new TickClock());
+        CountDownLatch release = new CountDownLatch(1);
+        stuck.setGameMementoCaretaker(new GameMementoCaretaker() {
+            @Override
+            public GameMemento getMostRecentMemento() {
+                return null;
+            }
+
+            @Override
+            public void overwriteMemento(GameMemento gameMemento) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        stuck.saveMementoInBackground(null);
+
+        // Another game saves on its own thread, while the first one is still saving
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        game.tick();
+        boolean[] saved = new boolean[1];
+        game.saveMementoInBackground(memento -> saved[0] = true);
+        game.awaitBackgroundSaves();
+        assertTrue(saved[0]);
+
+        release.countDown();
+        stuck.awaitBackgroundSaves();
+    }
+
+    /**
+     * Kills the first live slime of the game's level.
+     * @param game The game
+     */
+    private static void killSlime(GameManager game) {
+        for (Entity entity : game.getCurrentLevel().getEntities()) {
+            if (entity instanceof Slime && entity.isActive()) {
+                ((Slime) entity).die();
+                return;
+            }
+        }
+        throw new AssertionError("The level has no live slime");
+    }
+
+    /**
+     * Counts the live slimes of the game's level.
+     * @param game The game
+     * @return The number of live slimes
+     */
+    private static int countActiveSlimes(GameManager game) {
+        int count = 0;
+        for (Entity entity : game.getCurrentLevel().getEntities()) {
+            if (entity instanceof Slime && entity.isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package stickman.model;
+
+import gamesaver.GameMemento;
+import org.junit.Test;
+import stickman.level.Level;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the level built in the background is only used when it is the one the game moves on to.
+ */
+public class LevelPrefetchTest {
+
+    /**
+     * The levels config of the game's three levels.
+     */
+    private static final String LEVELS = "levels/levels.json";
+
+    @Test
+    public void loadingAnEarlierLevelBuildsTheLevelAfterIt() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        GameMemento first = game.captureMemento();
+
+        win(game);
+        assertEquals("levels/level2.json", game.getCurrentLevel().getSource());
+
+        // The game now builds the third level, which is no longer next once the first one is loaded back
+        game.restoreMemento(first);
+        assertEquals("levels/vertical.json", game.getCurrentLevel().getSource());
+        win(game);
+        assertEquals("levels/level2.json", game.getCurrentLevel().getSource());
+        win(game);
+        assertEquals("levels/level3.json", game.getCurrentLevel().getSource());
+    }
+
+    @Test
+    public void loadingALaterLevelBuildsTheLevelAfterIt() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        GameMemento first = game.captureMemento();
+        win(game);
+        GameMemento second = game.captureMemento();
+
+        // Back on the first level the game builds the second one, which is no longer next once the second is loaded
+        game.restoreMemento(first);
+        game.restoreMemento(second);
+        win(game);
+        assertEquals("levels/level3.json", game.getCurrentLevel().getSource());
+    }
+
+    /**
+     * Wins the current level of a game, which moves it on to the next level.
+     * @param game The game
+     */
+    private static void win(GameManager game) {
+        Level level = game.getCurrentLevel();
+        level.win();
+        game.tick();
+    }
+}
@@ -0,0 +1,48 @@
+package stickman.model;
+
+import gamesaver.RewindBuffer;
+import observer.Observer;
+import observer.Subject;
+import org.junit.Test;
+import stickman.level.Level;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a game rewound to a keyframe keeps whoever observed its level.
+ */
+public class RewindTest {
+
+    /**
+     * The levels config of the test level.
+     */
+    private static final String LEVELS = "src/test/resources/levels/levels.json";
+
+    @Test
+    public void keyframeRewindKeepsTheLevelObservers() {
+        GameManager game = new GameManager(LEVELS, new TickClock());
+        int[] updates = new int[1];
+        Observer window = () -> updates[0]++;
+        ((Subject) game.getCurrentLevel()).attach(window);
+        game.setRewindBuffer(new RewindBuffer(100, 1024 * 1024, 7));
+
+        game.moveRight();
+        for (int tick = 0; tick < 20; tick++) {
+            game.tick();
+        }
+        Level played = game.getCurrentLevel();
+        game.setRewinding(true);
+        for (int tick = 0; tick < 10 && game.getCurrentLevel() == played; tick++) {
+            game.tick();
+        }
+
+        // Going back past a keyframe decodes a new level, which the window now observes
+        Level rewound = game.getCurrentLevel();
+        assertNotSame(played, rewound);
+        assertTrue(((Subject) rewound).getObservers().contains(window));
+        assertTrue(((Subject) rewound).getObservers().contains(game));
+        assertTrue(rewound.getStickman().getObservers().contains(game));
+        assertTrue(updates[0] > 0);
+    }
+}
@@ -0,0 +1,63 @@
+package stickman.model;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that ticking a loaded level does not allocate, as measured by the allocation counter of the
+ * thread running the ticks.
+ */
+public class TickAllocationTest {
+
+    /**
+     * The levels config of the test level.
+     */
+    private static final String LEVELS = "src/test/resources/levels/levels.json";
+
+    /**
+     * The number of ticks run before measuring, so that lazily grown buffers and the JIT settle.
+     */
+    private static final int WARMUP_TICKS = 20000;
+
+    /**
+     * The number of ticks measured.
+     */
+    private static final int MEASURED_TICKS = 10000;
+
+    /**
+     * The most bytes a tick may allocate on average.
+     */
+    private static final double BUDGET_BYTES_PER_TICK = 64;
+
+    @Test
+    public void steadyStateTickDoesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        GameManager game = new GameManager(LEVELS);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            game.tick();
+        }
+
+        long thread = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_TICKS; i++) {
+            game.tick();
+        }
+        long after = allocations.getThreadAllocatedBytes(thread);
+
+        // A level which ended (or restarted) mid-way would not be a steady state
+        assertTrue(game.getCurrentLevel().getLevelStatus());
+        double perTick = (after - before) / (double) MEASURED_TICKS;
+        assertTrue(String.format("A tick allocated %.1f bytes on average", perTick),
+                perTick <= BUDGET_BYTES_PER_TICK);
+    }
+}